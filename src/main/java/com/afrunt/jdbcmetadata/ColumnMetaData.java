@@ -42,9 +42,17 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     private int scale;
     private int precision;
 
+    private Integer ordinalPosition;
+    private String defaultValue;
+    private String remarks;
+
     private boolean primaryKey;
     private ForeignKeyMetaData foreignKeyMetaData;
     private List<IndexMetaData> indexes;
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private int hash;
+    private volatile Runnable listener;
+    private volatile boolean frozen;
 
     public boolean sqlTypeNameIs(String typeName) {
         return typeName.equals(getSqlTypeName());
@@ -82,7 +90,10 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -91,7 +102,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setSqlType(int sqlType) {
+        Frozen.check(frozen, this);
         this.sqlType = sqlType;
+        fingerprint.modified();
         return this;
     }
 
@@ -100,7 +113,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setNullable(boolean nullable) {
+        Frozen.check(frozen, this);
         this.nullable = nullable;
+        fingerprint.modified();
         return this;
     }
 
@@ -113,7 +128,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setScale(int scale) {
+        Frozen.check(frozen, this);
         this.scale = scale;
+        fingerprint.modified();
         return this;
     }
 
@@ -126,7 +143,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setPrecision(int precision) {
+        Frozen.check(frozen, this);
         this.precision = precision;
+        fingerprint.modified();
         return this;
     }
 
@@ -135,7 +154,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setJavaType(Class<?> javaType) {
+        Frozen.check(frozen, this);
         this.javaType = javaType;
+        fingerprint.modified();
         return this;
     }
 
@@ -144,7 +165,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setPrimaryKey(boolean primaryKey) {
+        Frozen.check(frozen, this);
         this.primaryKey = primaryKey;
+        fingerprint.modified();
         return this;
     }
 
@@ -189,7 +212,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setAutoIncrement(boolean autoIncrement) {
+        Frozen.check(frozen, this);
         this.autoIncrement = autoIncrement;
+        fingerprint.modified();
         return this;
     }
 
@@ -198,7 +223,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setSqlTypeName(String sqlTypeName) {
+        Frozen.check(frozen, this);
         this.sqlTypeName = sqlTypeName;
+        fingerprint.modified();
         return this;
     }
 
@@ -207,7 +234,9 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setTableName(String tableName) {
+        Frozen.check(frozen, this);
         this.tableName = tableName;
+        fingerprint.modified();
         return this;
     }
 
@@ -216,16 +245,134 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setForeignKeyMetaData(ForeignKeyMetaData foreignKeyMetaData) {
+        Frozen.check(frozen, this);
         this.foreignKeyMetaData = foreignKeyMetaData;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
+    /**
+     * @return column referenced by this column, or <code>null</code> if it is not a foreign key
+     */
+    public String foreignColumnName() {
+        return foreignKeyMetaData != null ? foreignKeyMetaData.foreignColumnName(name) : null;
+    }
+
     public List<IndexMetaData> getIndexes() {
         return indexes;
     }
 
     public ColumnMetaData setIndexes(List<IndexMetaData> indexes) {
+        Frozen.check(frozen, this);
         this.indexes = indexes;
+        fingerprint.modified();
+        return this;
+    }
+
+    /**
+     * Fingerprint of the column definition, foreign key and names of the indexes. Read only and writable flags
+     * and the ordinal position depend on the way the column was collected, so they are not included
+     *
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+    /**
+     * @return name used in the fingerprint of the owner, that is recomputed when the name changes
+     */
+    String fingerprintName() {
+        fingerprint.track();
+        return name;
+    }
+
+    private long computeFingerprint() {
+        return fingerprint(foreignKeyMetaData != null ? foreignKeyMetaData.fingerprint() : 0);
+    }
+
+    /**
+     * Fingerprint that does not depend on the schema of the column, see {@link ForeignKeyMetaData#structure(String)}
+     *
+     * @param schema schema of the table of the column
+     */
+    long structure(String schema) {
+        return foreignKeyMetaData != null ? fingerprint(foreignKeyMetaData.structure(schema)) : fingerprint();
+    }
+
+    /**
+     * @return copy of the column with the other foreign key
+     */
+    ColumnMetaData copy(ForeignKeyMetaData foreignKeyMetaData) {
+        return new ColumnMetaData()
+                .setTableName(tableName)
+                .setName(name)
+                .setSqlType(sqlType)
+                .setSqlTypeName(sqlTypeName)
+                .setJavaType(javaType)
+                .setNullable(nullable)
+                .setAutoIncrement(autoIncrement)
+                .setReadOnly(readOnly)
+                .setWritable(isWritable)
+                .setScale(scale)
+                .setPrecision(precision)
+                .setOrdinalPosition(ordinalPosition)
+                .setDefaultValue(defaultValue)
+                .setRemarks(remarks)
+                .setPrimaryKey(primaryKey)
+                .setForeignKeyMetaData(foreignKeyMetaData)
+                .setIndexes(indexes);
+    }
+
+    private long fingerprint(long foreignKey) {
+        return new Fingerprint()
+                .add(tableName)
+                .add(name)
+                .add(sqlType)
+                .add(sqlTypeName)
+                .add(javaType != null ? javaType.getName() : null)
+                .add(nullable)
+                .add(autoIncrement)
+                .add(scale)
+                .add(precision)
+                .add(defaultValue)
+                .add(remarks)
+                .add(primaryKey)
+                .add(foreignKey)
+                .addUnordered(indexes, i -> JdbcUtil.hash64(String.valueOf(i.fingerprintName())))
+                .value();
+    }
+
+    /**
+     * Registers the callback of the table, that is run when the column is renamed or gets the other foreign key
+     */
+    void watch(Runnable listener) {
+        if (!frozen) {
+            this.listener = listener;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the column, its foreign key and indexes immutable. Fingerprint and hash code are computed once
+     *
+     * @return this
+     */
+    public ColumnMetaData freeze() {
+        if (!frozen) {
+            if (foreignKeyMetaData != null) {
+                foreignKeyMetaData.freeze();
+            }
+            indexes().forEach(IndexMetaData::freeze);
+            indexes = Frozen.list(indexes);
+            fingerprint.freeze(fingerprint());
+            hash = computeHashCode();
+            frozen = true;
+        }
         return this;
     }
 
@@ -256,6 +403,10 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
 
     @Override
     public int hashCode() {
+        return frozen ? hash : computeHashCode();
+    }
+
+    private int computeHashCode() {
         int result = tableName != null ? tableName.hashCode() : 0;
         result = 31 * result + (name != null ? name.hashCode() : 0);
         result = 31 * result + sqlType;
@@ -275,6 +426,7 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setReadOnly(boolean readOnly) {
+        Frozen.check(frozen, this);
         this.readOnly = readOnly;
         return this;
     }
@@ -284,7 +436,56 @@ public class ColumnMetaData implements WithName, WithType, WithIndexes {
     }
 
     public ColumnMetaData setWritable(boolean writable) {
+        Frozen.check(frozen, this);
         isWritable = writable;
         return this;
     }
+
+    public Integer getOrdinalPosition() {
+        return ordinalPosition;
+    }
+
+    public ColumnMetaData setOrdinalPosition(Integer ordinalPosition) {
+        Frozen.check(frozen, this);
+        this.ordinalPosition = ordinalPosition;
+        return this;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public ColumnMetaData setDefaultValue(String defaultValue) {
+        Frozen.check(frozen, this);
+        this.defaultValue = defaultValue;
+        fingerprint.modified();
+        return this;
+    }
+
+    public boolean hasDefaultValue() {
+        return defaultValue != null;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public ColumnMetaData setRemarks(String remarks) {
+        Frozen.check(frozen, this);
+        this.remarks = remarks;
+        fingerprint.modified();
+        return this;
+    }
+
+    void internNames(NamePool pool) {
+        if (frozen) {
+            return;
+        }
+        tableName = pool.intern(tableName);
+        name = pool.intern(name);
+        sqlTypeName = pool.intern(sqlTypeName);
+        if (foreignKeyMetaData != null) {
+            foreignKeyMetaData.internNames(pool);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+/**
+ * Source of the column metadata used by {@link JdbcMetaDataCollector}
+ *
+ * @author Andrii Frunt
+ */
+public enum ColumnSource {
+    /**
+     * Executes <code>SELECT * FROM table WHERE 1&lt;&gt;1</code> and reads the result set metadata
+     */
+    QUERY,
+    /**
+     * Prepares <code>SELECT * FROM table</code> and reads the statement metadata without executing it.
+     * Falls back to {@link #QUERY} if the driver does not provide the metadata before execution
+     */
+    PREPARE,
+    /**
+     * Reads {@link java.sql.DatabaseMetaData#getColumns(String, String, String, String)}, once per schema
+     * when the whole schema is collected. Also provides ordinal position, default value and remarks,
+     * but not the read only and writable flags
+     */
+    CATALOG,
+    /**
+     * Uses the schema catalog if it contains the table, otherwise {@link #PREPARE}
+     */
+    AUTO
+}
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Column oriented storage of the schema for the very large catalogs. Columns of all tables are kept in the primitive
+ * parallel arrays, the columns of each table occupy the <code>[columnStart(table), columnEnd(table))</code> range,
+ * boolean attributes are packed into one flags word and the names are indices of the string table.
+ * Foreign keys and indexes are few and are kept as frozen objects shared by their columns and by every table
+ * created from the store.
+ * <p>
+ * Nothing but the arrays and these frozen objects is retained. {@link #column(int)}, {@link #table(String)} and
+ * {@link #toSchemaMetaData()} create ordinary metadata objects on demand, and the primitive accessors allow to scan
+ * the whole catalog without creating any objects.
+ * <p>
+ * Primary keys are restored from the primary key flags of the columns in the order of the columns
+ *
+ * @author Andrii Frunt
+ */
+public final class CompactSchemaMetaData {
+    private static final int NULLABLE = 1;
+    private static final int AUTO_INCREMENT = 1 << 1;
+    private static final int READ_ONLY = 1 << 2;
+    private static final int WRITABLE = 1 << 3;
+    private static final int PRIMARY_KEY = 1 << 4;
+    private static final int HAS_ORDINAL_POSITION = 1 << 5;
+    private static final int NONE = -1;
+
+    private final String name;
+    private final String[] strings;
+    private final Class<?>[] javaTypes;
+    private final ForeignKeyMetaData[] foreignKeys;
+    private final List<SequenceMetaData> sequences;
+
+    private final int[] tableNames;
+    private final int[] tableSignatures;
+    private final int[] columnOffsets;
+    private final IndexMetaData[][] tableIndexes;
+    private final Map<String, Integer> tablesByName;
+
+    private final int[] columnNames;
+    private final int[] sqlTypes;
+    private final int[] sqlTypeNames;
+    private final int[] javaTypeIndexes;
+    private final int[] precisions;
+    private final int[] scales;
+    private final int[] ordinalPositions;
+    private final int[] flags;
+    private final int[] defaultValues;
+    private final int[] remarks;
+    private final int[] foreignKeyIndexes;
+
+    private CompactSchemaMetaData(Builder builder) {
+        int tableCount = builder.tableCount;
+        int columnCount = builder.columnCount;
+
+        name = builder.name;
+        strings = builder.strings.toArray(new String[0]);
+        javaTypes = builder.javaTypes.toArray(new Class<?>[0]);
+        foreignKeys = builder.foreignKeys.toArray(new ForeignKeyMetaData[0]);
+        sequences = Collections.unmodifiableList(new ArrayList<>(builder.sequences));
+
+        tableNames = Arrays.copyOf(builder.tableNames, tableCount);
+        tableSignatures = Arrays.copyOf(builder.tableSignatures, tableCount);
+        columnOffsets = Arrays.copyOf(builder.columnOffsets, tableCount + 1);
+        tableIndexes = Arrays.copyOf(builder.tableIndexes, tableCount);
+
+        tablesByName = new HashMap<>(Math.max(16, tableCount * 2));
+        for (int t = tableCount - 1; t >= 0; t--) {
+            tablesByName.put(strings[tableNames[t]], t);
+        }
+
+        columnNames = Arrays.copyOf(builder.columnNames, columnCount);
+        sqlTypes = Arrays.copyOf(builder.sqlTypes, columnCount);
+        sqlTypeNames = Arrays.copyOf(builder.sqlTypeNames, columnCount);
+        javaTypeIndexes = Arrays.copyOf(builder.javaTypeIndexes, columnCount);
+        precisions = Arrays.copyOf(builder.precisions, columnCount);
+        scales = Arrays.copyOf(builder.scales, columnCount);
+        ordinalPositions = Arrays.copyOf(builder.ordinalPositions, columnCount);
+        flags = Arrays.copyOf(builder.flags, columnCount);
+        defaultValues = Arrays.copyOf(builder.defaultValues, columnCount);
+        remarks = Arrays.copyOf(builder.remarks, columnCount);
+        foreignKeyIndexes = Arrays.copyOf(builder.foreignKeyIndexes, columnCount);
+    }
+
+    public static CompactSchemaMetaData of(SchemaMetaData schema) {
+        Builder builder = builder(schema.getName()).addSequences(schema.sequences());
+        schema.tables().forEach(builder::addTable);
+        return builder.build();
+    }
+
+    public static Builder builder(String schemaName) {
+        return new Builder(schemaName);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<SequenceMetaData> sequences() {
+        return sequences;
+    }
+
+    public int tableCount() {
+        return tableNames.length;
+    }
+
+    public int columnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * @param tableName table name
+     * @return position of the table or <code>-1</code> if there is no such table
+     */
+    public int tableIndex(String tableName) {
+        Integer index = tablesByName.get(tableName != null ? tableName.toUpperCase() : null);
+        return index != null ? index : NONE;
+    }
+
+    public String tableName(int table) {
+        return strings[tableNames[table]];
+    }
+
+    /**
+     * @return position of the first column of the table
+     */
+    public int columnStart(int table) {
+        return columnOffsets[table];
+    }
+
+    /**
+     * @return position after the last column of the table
+     */
+    public int columnEnd(int table) {
+        return columnOffsets[table + 1];
+    }
+
+    /**
+     * @return position of the table the column belongs to
+     */
+    public int tableOf(int column) {
+        int index = Arrays.binarySearch(columnOffsets, column);
+        if (index < 0) {
+            return -index - 2;
+        }
+        while (columnOffsets[index + 1] == column) {
+            index++;
+        }
+        return index;
+    }
+
+    public String columnName(int column) {
+        return string(columnNames[column]);
+    }
+
+    public int sqlType(int column) {
+        return sqlTypes[column];
+    }
+
+    public String sqlTypeName(int column) {
+        return string(sqlTypeNames[column]);
+    }
+
+    public Class<?> javaType(int column) {
+        return javaTypeIndexes[column] != NONE ? javaTypes[javaTypeIndexes[column]] : null;
+    }
+
+    public int precision(int column) {
+        return precisions[column];
+    }
+
+    public int scale(int column) {
+        return scales[column];
+    }
+
+    public boolean isNullable(int column) {
+        return (flags[column] & NULLABLE) != 0;
+    }
+
+    public boolean isAutoIncrement(int column) {
+        return (flags[column] & AUTO_INCREMENT) != 0;
+    }
+
+    public boolean isPrimaryKey(int column) {
+        return (flags[column] & PRIMARY_KEY) != 0;
+    }
+
+    public boolean isForeignKey(int column) {
+        return foreignKeyIndexes[column] != NONE;
+    }
+
+    /**
+     * @param filter filter of the column positions, such as <code>c -&gt; schema.sqlType(c) == Types.CLOB</code>
+     * @return positions of the matching columns
+     */
+    public int[] filterColumns(IntPredicate filter) {
+        int[] matches = new int[16];
+        int count = 0;
+        for (int c = 0; c < columnNames.length; c++) {
+            if (filter.test(c)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = c;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Creates the metadata of the column. Indexes of the column are not set, use {@link #table(String)}
+     * for the complete table
+     *
+     * @param column position of the column
+     * @return new column metadata
+     */
+    public ColumnMetaData column(int column) {
+        return createColumn(column, tableName(tableOf(column)));
+    }
+
+    /**
+     * @param tableName table name
+     * @return new metadata of the table or <code>null</code> if there is no such table
+     */
+    public TableMetaData table(String tableName) {
+        int table = tableIndex(tableName);
+        return table != NONE ? createTable(table) : null;
+    }
+
+    public List<TableMetaData> tables() {
+        List<TableMetaData> tables = new ArrayList<>(tableCount());
+        for (int t = 0; t < tableCount(); t++) {
+            tables.add(createTable(t));
+        }
+        return tables;
+    }
+
+    public SchemaMetaData toSchemaMetaData() {
+        return new SchemaMetaData()
+                .setName(name)
+                .setTables(tables())
+                .setSequences(new ArrayList<>(sequences));
+    }
+
+    @Override
+    public String toString() {
+        return name + "[" + tableCount() + " tables, " + columnCount() + " columns]";
+    }
+
+    private TableMetaData createTable(int table) {
+        String tableName = tableName(table);
+        List<IndexMetaData> indexes = new ArrayList<>(Arrays.asList(tableIndexes[table]));
+        Map<String, List<IndexMetaData>> indexesByColumn = IndexAssembler.indexesByColumn(indexes);
+
+        TableMetaData tableMetaData = new TableMetaData()
+                .setName(tableName)
+                .setSchemaName(name)
+                .setIndexes(indexes)
+                .setSignature(string(tableSignatures[table]));
+
+        List<ColumnMetaData> columns = new ArrayList<>(columnEnd(table) - columnStart(table));
+        List<ColumnMetaData> primaryKeyColumns = new ArrayList<>();
+        for (int c = columnStart(table); c < columnEnd(table); c++) {
+            ColumnMetaData column = createColumn(c, tableName);
+            List<IndexMetaData> columnIndexes = indexesByColumn.get(column.getName());
+            column.setIndexes(columnIndexes != null ? columnIndexes : new ArrayList<>());
+            columns.add(column);
+            if (column.isPrimaryKey()) {
+                primaryKeyColumns.add(column);
+            }
+        }
+
+        tableMetaData.setColumns(columns);
+        if (!primaryKeyColumns.isEmpty()) {
+            tableMetaData.setPrimaryKey(new PrimaryKeyMetaData(primaryKeyColumns));
+        }
+        return tableMetaData;
+    }
+
+    private ColumnMetaData createColumn(int column, String tableName) {
+        int columnFlags = flags[column];
+        return new ColumnMetaData()
+                .setTableName(tableName)
+                .setName(columnName(column))
+                .setSqlType(sqlTypes[column])
+                .setSqlTypeName(sqlTypeName(column))
+                .setJavaType(javaType(column))
+                .setPrecision(precisions[column])
+                .setScale(scales[column])
+                .setOrdinalPosition((columnFlags & HAS_ORDINAL_POSITION) != 0 ? ordinalPositions[column] : null)
+                .setNullable((columnFlags & NULLABLE) != 0)
+                .setAutoIncrement((columnFlags & AUTO_INCREMENT) != 0)
+                .setReadOnly((columnFlags & READ_ONLY) != 0)
+                .setWritable((columnFlags & WRITABLE) != 0)
+                .setPrimaryKey((columnFlags & PRIMARY_KEY) != 0)
+                .setDefaultValue(string(defaultValues[column]))
+                .setRemarks(string(remarks[column]))
+                .setForeignKeyMetaData(foreignKeyIndexes[column] != NONE ? foreignKeys[foreignKeyIndexes[column]] : null);
+    }
+
+    private String string(int index) {
+        return index != NONE ? strings[index] : null;
+    }
+
+    /**
+     * Appends the tables one by one, so the complete metadata of the whole schema is never kept in memory
+     * when the tables are streamed from {@link JdbcMetaDataCollector#streamTablesMetaData(String)}.
+     * The indexes and foreign keys of the added tables are frozen. The builder is not thread safe
+     */
+    public static final class Builder {
+        private final String name;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final List<Class<?>> javaTypes = new ArrayList<>();
+        private final Map<Class<?>, Integer> javaTypeIndexesByType = new HashMap<>();
+        private final List<ForeignKeyMetaData> foreignKeys = new ArrayList<>();
+        private final Map<ForeignKeyMetaData, Integer> foreignKeyIndexesByKey = new IdentityHashMap<>();
+        private final List<SequenceMetaData> sequences = new ArrayList<>();
+
+        private int tableCount;
+        private int[] tableNames = new int[16];
+        private int[] tableSignatures = new int[16];
+        private int[] columnOffsets = new int[17];
+        private IndexMetaData[][] tableIndexes = new IndexMetaData[16][];
+
+        private int columnCount;
+        private int[] columnNames = new int[64];
+        private int[] sqlTypes = new int[64];
+        private int[] sqlTypeNames = new int[64];
+        private int[] javaTypeIndexes = new int[64];
+        private int[] precisions = new int[64];
+        private int[] scales = new int[64];
+        private int[] ordinalPositions = new int[64];
+        private int[] flags = new int[64];
+        private int[] defaultValues = new int[64];
+        private int[] remarks = new int[64];
+        private int[] foreignKeyIndexes = new int[64];
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder addSequences(Collection<SequenceMetaData> sequences) {
+            this.sequences.addAll(sequences);
+            return this;
+        }
+
+        public Builder addTable(TableMetaData table) {
+            if (tableCount == tableNames.length) {
+                int capacity = tableCount * 2;
+                tableNames = Arrays.copyOf(tableNames, capacity);
+                tableSignatures = Arrays.copyOf(tableSignatures, capacity);
+                columnOffsets = Arrays.copyOf(columnOffsets, capacity + 1);
+                tableIndexes = Arrays.copyOf(tableIndexes, capacity);
+            }
+
+            List<IndexMetaData> indexes = table.getIndexes() != null ? table.getIndexes() : Collections.emptyList();
+            tableNames[tableCount] = string(table.getName());
+            tableSignatures[tableCount] = string(table.getSignature());
+            tableIndexes[tableCount] = indexes.stream().map(IndexMetaData::freeze).toArray(IndexMetaData[]::new);
+
+            for (ColumnMetaData column : table.columns()) {
+                addColumn(column);
+            }
+
+            tableCount++;
+            columnOffsets[tableCount] = columnCount;
+            return this;
+        }
+
+        public CompactSchemaMetaData build() {
+            return new CompactSchemaMetaData(this);
+        }
+
+        private void addColumn(ColumnMetaData column) {
+            if (columnCount == columnNames.length) {
+                int capacity = columnCount * 2;
+                columnNames = Arrays.copyOf(columnNames, capacity);
+                sqlTypes = Arrays.copyOf(sqlTypes, capacity);
+                sqlTypeNames = Arrays.copyOf(sqlTypeNames, capacity);
+                javaTypeIndexes = Arrays.copyOf(javaTypeIndexes, capacity);
+                precisions = Arrays.copyOf(precisions, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                ordinalPositions = Arrays.copyOf(ordinalPositions, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                defaultValues = Arrays.copyOf(defaultValues, capacity);
+                remarks = Arrays.copyOf(remarks, capacity);
+                foreignKeyIndexes = Arrays.copyOf(foreignKeyIndexes, capacity);
+            }
+
+            int c = columnCount++;
+            columnNames[c] = string(column.getName());
+            sqlTypes[c] = column.getSqlType();
+            sqlTypeNames[c] = string(column.getSqlTypeName());
+            javaTypeIndexes[c] = javaType(column.getJavaType());
+            precisions[c] = column.getPrecision();
+            scales[c] = column.getScale();
+            ordinalPositions[c] = column.getOrdinalPosition() != null ? column.getOrdinalPosition() : 0;
+            flags[c] = (column.isNullable() ? NULLABLE : 0)
+                    | (column.isAutoIncrement() ? AUTO_INCREMENT : 0)
+                    | (column.isReadOnly() ? READ_ONLY : 0)
+                    | (column.isWritable() ? WRITABLE : 0)
+                    | (column.isPrimaryKey() ? PRIMARY_KEY : 0)
+                    | (column.getOrdinalPosition() != null ? HAS_ORDINAL_POSITION : 0);
+            defaultValues[c] = string(column.getDefaultValue());
+            remarks[c] = string(column.getRemarks());
+            foreignKeyIndexes[c] = foreignKey(column.getForeignKeyMetaData());
+        }
+
+        private int string(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer index = stringIndexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.add(value);
+                stringIndexes.put(value, index);
+            }
+            return index;
+        }
+
+        private int javaType(Class<?> javaType) {
+            if (javaType == null) {
+                return NONE;
+            }
+            return javaTypeIndexesByType.computeIfAbsent(javaType, type -> {
+                javaTypes.add(type);
+                return javaTypes.size() - 1;
+            });
+        }
+
+        private int foreignKey(ForeignKeyMetaData foreignKey) {
+            if (foreignKey == null) {
+                return NONE;
+            }
+            return foreignKeyIndexesByKey.computeIfAbsent(foreignKey, key -> {
+                foreignKeys.add(key.freeze());
+                return foreignKeys.size() - 1;
+            });
+        }
+    }
+}
@@ -4,8 +4,14 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * Database specific part of the metadata collection. Besides the sequences the strategy may load the catalog
+ * of the whole schema with a few set-based queries. Every loader returns <code>null</code> by default, which means
+ * that the {@link JdbcMetaDataCollector} uses the generic JDBC calls for that part of the catalog.
+ * Columns provided by the strategy take precedence over the configured {@link ColumnSource}
+ *
  * @author Andrii Frunt
  */
 public abstract class DatabaseStrategy {
@@ -15,6 +21,82 @@ public abstract class DatabaseStrategy {
 
     public abstract List<SequenceMetaData> collectSequencesMetaData(String schema);
 
+    /**
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return names of the tables in schema or <code>null</code> if not supported
+     * @throws SQLException in case of database error
+     */
+    public List<String> loadTableNames(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return columns of all tables in schema by table name, ordered by ordinal position, or <code>null</code> if not supported
+     * @throws SQLException in case of database error
+     */
+    public Map<String, List<ColumnMetaData>> loadColumns(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return primary key column names by table name or <code>null</code> if not supported
+     * @throws SQLException in case of database error
+     */
+    public Map<String, List<String>> loadPrimaryKeys(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return foreign keys by column name by table name or <code>null</code> if not supported.
+     * Columns of the composite foreign key share the same {@link ForeignKeyMetaData}
+     * @throws SQLException in case of database error
+     */
+    public Map<String, Map<String, ForeignKeyMetaData>> loadForeignKeys(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return indexes by table name or <code>null</code> if not supported
+     * @throws SQLException in case of database error
+     */
+    public Map<String, List<IndexMetaData>> loadIndexes(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Cheap signals of the table definition, used to find the tables changed since the previous collection.
+     * Signature of the table must change when its columns, keys or indexes change and should not change otherwise
+     *
+     * @param connection connection to use, it is managed by the caller
+     * @param schema     schema name
+     * @return signatures by table name, such as the DDL or the last DDL time, or <code>null</code> if not supported
+     * @throws SQLException in case of database error
+     */
+    public Map<String, String> loadTableSignatures(Connection connection, String schema) throws SQLException {
+        return null;
+    }
+
+    public SchemaCatalog loadSchemaCatalog(Connection connection, String schema, boolean skipIndexes) throws SQLException {
+        Map<String, List<String>> primaryKeys = loadPrimaryKeys(connection, schema);
+        Map<String, Map<String, ForeignKeyMetaData>> foreignKeys = primaryKeys != null ? loadForeignKeys(connection, schema) : null;
+
+        return new SchemaCatalog()
+                .setSchemaName(schema)
+                .setColumns(loadColumns(connection, schema))
+                .setPrimaryKeys(foreignKeys != null ? primaryKeys : null)
+                .setForeignKeys(foreignKeys)
+                .setIndexes(skipIndexes ? null : loadIndexes(connection, schema));
+    }
+
     public Connection getConnection() {
         if (dataSource != null) {
             try {
@@ -27,6 +109,16 @@ public abstract class DatabaseStrategy {
         }
     }
 
+    protected void releaseConnection(Connection connection) {
+        if (dataSource != null && connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new JdbcMetaDataException(e);
+            }
+        }
+    }
+
     public DatabaseStrategy setConnection(Connection connection) {
         this.connection = connection;
         return this;
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tables ordered by the foreign keys into the levels. Tables of the same level do not reference each other, except
+ * the tables of the cycles, and only reference the tables of the previous levels, so the levels are loaded
+ * one after another and the tables of a level are loaded in parallel
+ *
+ * @author Andrii Frunt
+ * @see ForeignKeyGraph#levels(boolean, boolean)
+ */
+public class DependencyLevels {
+    private final List<List<TableMetaData>> levels;
+    private final List<List<TableMetaData>> cycles;
+    private final List<ForeignKeyGraph.Edge> deferred;
+
+    DependencyLevels(List<List<TableMetaData>> levels, List<List<TableMetaData>> cycles, List<ForeignKeyGraph.Edge> deferred) {
+        this.levels = Collections.unmodifiableList(levels);
+        this.cycles = Collections.unmodifiableList(cycles);
+        this.deferred = Collections.unmodifiableList(deferred);
+    }
+
+    /**
+     * @return levels in the load order, parent tables first
+     */
+    public List<List<TableMetaData>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return levels in the unload order, child tables first
+     */
+    public List<List<TableMetaData>> unloadOrder() {
+        List<List<TableMetaData>> unloadOrder = new ArrayList<>(levels);
+        Collections.reverse(unloadOrder);
+        return unloadOrder;
+    }
+
+    /**
+     * @return strongly connected components of the tables referencing each other through the not deferred
+     * foreign keys. Each cycle is placed in a single level
+     */
+    public List<List<TableMetaData>> getCycles() {
+        return cycles;
+    }
+
+    public boolean hasCycles() {
+        return !cycles.isEmpty();
+    }
+
+    /**
+     * @return foreign keys that were not taken into account and have to be populated after the load
+     */
+    public List<ForeignKeyGraph.Edge> getDeferred() {
+        return deferred;
+    }
+
+    public int levelCount() {
+        return levels.size();
+    }
+
+    @Override
+    public String toString() {
+        return levels.toString();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builder of the 64-bit content fingerprints of the metadata. Fingerprints of the children are rolled up into
+ * the fingerprint of the parent, in order for the columns and regardless of the order for the other collections.
+ * <p>
+ * Each metadata object caches its fingerprint. Setters mark the cache of their object and of its parents stale,
+ * so checking an unchanged object costs nothing and after a change only the fingerprints of the changed object
+ * and of its parents are recomputed. Changes made directly to the returned lists are not noticed
+ *
+ * @author Andrii Frunt
+ */
+final class Fingerprint {
+    private static final long NULL = 0x6a09e667f3bcc909L;
+
+    private long hash = 0x510e527fade682d1L;
+
+    Fingerprint add(long value) {
+        hash = mix(hash * 0x9e3779b97f4a7c15L + value);
+        return this;
+    }
+
+    Fingerprint add(int value) {
+        return add((long) value);
+    }
+
+    Fingerprint add(boolean value) {
+        return add(value ? 1L : 2L);
+    }
+
+    Fingerprint add(Integer value) {
+        return value == null ? add(NULL) : add(value.longValue());
+    }
+
+    Fingerprint add(Boolean value) {
+        return value == null ? add(NULL) : add(value.booleanValue());
+    }
+
+    Fingerprint add(String value) {
+        return value == null ? add(NULL) : add(JdbcUtil.hash64(value));
+    }
+
+    <T> Fingerprint addOrdered(Collection<T> children, ToLongFunction<? super T> fingerprint) {
+        if (children == null) {
+            return add(NULL);
+        }
+        add(children.size());
+        for (T child : children) {
+            add(fingerprint.applyAsLong(child));
+        }
+        return this;
+    }
+
+    <T> Fingerprint addUnordered(Collection<T> children, ToLongFunction<? super T> fingerprint) {
+        if (children == null) {
+            return add(NULL);
+        }
+        long sum = 0;
+        for (T child : children) {
+            sum += mix(fingerprint.applyAsLong(child));
+        }
+        return add(children.size()).add(sum);
+    }
+
+    long value() {
+        return hash;
+    }
+
+    /**
+     * murmur3 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Fingerprint cached by the metadata object. Caches of the parents register themselves as the owners while
+     * they compute their fingerprints, so {@link #modified()} marks the cache and all its owners up to the root stale
+     * and an unchanged subtree returns its cached fingerprint without visiting the children. Owners are weakly
+     * referenced, so the discarded parents of a shared child are not retained
+     */
+    static final class Cache {
+        private static final ThreadLocal<Cache> COMPUTING = new ThreadLocal<>();
+        private static final AtomicLongFieldUpdater<Cache> STAMP =
+                AtomicLongFieldUpdater.newUpdater(Cache.class, "stamp");
+        private static final AtomicReferenceFieldUpdater<Cache, Value> VALUE =
+                AtomicReferenceFieldUpdater.newUpdater(Cache.class, Value.class, "value");
+
+        private volatile long stamp;
+        private volatile Value value;
+        private volatile Owner owners;
+
+        /**
+         * Called by the setters of the fields that are part of the fingerprint
+         */
+        void modified() {
+            STAMP.incrementAndGet(this);
+            for (Owner owner = owners; owner != null; owner = owner.next) {
+                Cache cache = owner.get();
+                if (cache != null) {
+                    cache.modified();
+                }
+            }
+        }
+
+        long get(LongSupplier compute) {
+            Value current = value;
+            if (current != null && current.frozen) {
+                return current.fingerprint;
+            }
+
+            Cache owner = COMPUTING.get();
+            if (owner != null) {
+                // before reading the value, so a change made after the read reaches the owner
+                attach(owner);
+            }
+            while (true) {
+                long stamp = this.stamp;
+                current = value;
+                if (current != null && (current.frozen || current.stamp == stamp)) {
+                    return current.fingerprint;
+                }
+                long fingerprint;
+                COMPUTING.set(this);
+                try {
+                    fingerprint = compute.getAsLong();
+                } finally {
+                    COMPUTING.set(owner);
+                }
+                // computed with the stamp read before, so a concurrent change leaves the value stale
+                if (VALUE.compareAndSet(this, current, new Value(stamp, fingerprint, false))) {
+                    return fingerprint;
+                }
+            }
+        }
+
+        /**
+         * Registers the cache being computed as the owner, when it uses a field of this object
+         * instead of its fingerprint
+         */
+        void track() {
+            Value current = value;
+            Cache owner = COMPUTING.get();
+            if (owner != null && (current == null || !current.frozen)) {
+                attach(owner);
+            }
+        }
+
+        /**
+         * Keeps the fingerprint of the frozen metadata, that never changes and never notifies the owners
+         */
+        void freeze(long fingerprint) {
+            value = new Value(stamp, fingerprint, true);
+            owners = null;
+        }
+
+        private void attach(Cache owner) {
+            for (Owner o = owners; o != null; o = o.next) {
+                if (o.get() == owner) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                Owner attached = new Owner(owner);
+                Owner last = attached;
+                for (Owner o = owners; o != null; o = o.next) {
+                    Cache cache = o.get();
+                    if (cache == owner) {
+                        return;
+                    }
+                    if (cache != null) {
+                        last = last.next = new Owner(cache);
+                    }
+                }
+                owners = attached;
+            }
+        }
+    }
+
+    private static final class Owner extends WeakReference<Cache> {
+        private Owner next;
+
+        private Owner(Cache cache) {
+            super(cache);
+        }
+    }
+
+    private static final class Value {
+        private final long stamp;
+        private final long fingerprint;
+        private final boolean frozen;
+
+        private Value(long stamp, long fingerprint, boolean frozen) {
+            this.stamp = stamp;
+            this.fingerprint = fingerprint;
+            this.frozen = frozen;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Groups the rows of the imported keys into the foreign keys in one pass. Columns of the same foreign key share
+ * a single {@link ForeignKeyMetaData} with the column pairs ordered by <code>KEY_SEQ</code>. Rows without
+ * the foreign key name are treated as the single column foreign keys
+ *
+ * @author Andrii Frunt
+ */
+final class ForeignKeyAssembler {
+    private final Map<String, Map<String, ForeignKeyMetaData>> foreignKeys = new HashMap<>();
+    private final Map<String, Map<String, ForeignKeyMetaData>> byName = new HashMap<>();
+
+    ForeignKeyAssembler add(String tableName, String name, int keySeq, String columnName,
+                            String foreignTableSchema, String foreignTableName, String foreignColumnName,
+                            Integer updateRule, Integer deleteRule) {
+        ForeignKeyMetaData fk = name != null
+                ? byName.computeIfAbsent(tableName, t -> new HashMap<>()).get(name)
+                : null;
+
+        if (fk == null) {
+            fk = new ForeignKeyMetaData()
+                    .setName(name)
+                    .setForeignTableName(foreignTableName)
+                    .setUpdateRule(updateRule)
+                    .setDeleteRule(deleteRule)
+                    .setForeignTableSchema(foreignTableSchema);
+            if (name != null) {
+                byName.get(tableName).put(name, fk);
+            }
+        }
+
+        fk.setColumn(keySeq, columnName, foreignColumnName);
+        foreignKeys.computeIfAbsent(tableName, t -> new HashMap<>()).put(columnName, fk);
+        return this;
+    }
+
+    /**
+     * @return foreign keys by column name by table name
+     */
+    Map<String, Map<String, ForeignKeyMetaData>> foreignKeys() {
+        return foreignKeys;
+    }
+}
@@ -0,0 +1,556 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.*;
+
+/**
+ * Adjacency lists of the foreign keys between the tables, possibly of the different schemas. Foreign keys
+ * referencing the tables that are not in the graph are ignored.
+ * <p>
+ * The graph is a snapshot of the tables it was built from, {@link JdbcDatabaseMetaData#foreignKeyGraph()}
+ * and {@link SchemaMetaData} build it again on the next query after the schemas, tables or columns are replaced
+ * or renamed through the setters
+ *
+ * @author Andrii Frunt
+ */
+public class ForeignKeyGraph {
+    private final int version;
+    private final Map<String, Integer> ids;
+    private final TableMetaData[] tables;
+    private final Edge[][] parentEdges;
+    private final Edge[][] childEdges;
+    private final int[][] parents;
+    private final int[][] children;
+
+    /**
+     * @param tables tables of the graph
+     * @throws IllegalArgumentException if two tables have the same full name
+     */
+    public ForeignKeyGraph(Collection<TableMetaData> tables) {
+        this(tables, 0);
+    }
+
+    /**
+     * @param version version of the owner's tables the graph is built from
+     * @throws IllegalArgumentException if two tables have the same full name
+     */
+    ForeignKeyGraph(Collection<TableMetaData> tables, int version) {
+        this.version = version;
+        this.tables = tables.toArray(new TableMetaData[0]);
+        this.ids = new HashMap<>(this.tables.length * 2);
+
+        for (int i = 0; i < this.tables.length; i++) {
+            // the tables and the foreign keys are matched by name, a duplicate would be ambiguous
+            if (ids.putIfAbsent(this.tables[i].fullName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate table " + this.tables[i].fullName() + " in the foreign key graph");
+            }
+        }
+
+        List<List<Edge>> parentLists = new ArrayList<>(this.tables.length);
+        List<List<Edge>> childLists = new ArrayList<>(this.tables.length);
+        for (int i = 0; i < this.tables.length; i++) {
+            parentLists.add(new ArrayList<>(0));
+            childLists.add(new ArrayList<>(0));
+        }
+
+        for (int i = 0; i < this.tables.length; i++) {
+            TableMetaData table = this.tables[i];
+            for (ForeignKeyMetaData fk : table.foreignKeyConstraints()) {
+                String schema = fk.getForeignTableSchema() != null ? fk.getForeignTableSchema() : table.getSchemaName();
+                Integer parent = ids.get(schema != null ? schema + "." + fk.getForeignTableName() : fk.getForeignTableName());
+                if (parent == null) {
+                    continue;
+                }
+                Edge edge = new Edge(table, this.tables[parent], fk, foreignKeyColumns(table, fk), i, parent);
+                parentLists.get(i).add(edge);
+                childLists.get(parent).add(edge);
+            }
+        }
+
+        this.parentEdges = new Edge[this.tables.length][];
+        this.childEdges = new Edge[this.tables.length][];
+        this.parents = new int[this.tables.length][];
+        this.children = new int[this.tables.length][];
+
+        for (int i = 0; i < this.tables.length; i++) {
+            parentEdges[i] = parentLists.get(i).toArray(new Edge[0]);
+            childEdges[i] = childLists.get(i).toArray(new Edge[0]);
+            parents[i] = distinctIds(parentEdges[i], true);
+            children[i] = distinctIds(childEdges[i], false);
+        }
+    }
+
+    /**
+     * @return tables referenced by the foreign keys of the table
+     */
+    public List<TableMetaData> parents(TableMetaData table) {
+        return tables(parents, table);
+    }
+
+    /**
+     * @return tables with the foreign keys referencing the table
+     */
+    public List<TableMetaData> children(TableMetaData table) {
+        return tables(children, table);
+    }
+
+    /**
+     * @return parents followed by the children of the table that are not its parents
+     */
+    public List<TableMetaData> related(TableMetaData table) {
+        Integer id = id(table);
+        if (id == null) {
+            return new ArrayList<>();
+        }
+        List<TableMetaData> related = new ArrayList<>(parents[id].length + children[id].length);
+        for (int parent : parents[id]) {
+            related.add(tables[parent]);
+        }
+        for (int child : children[id]) {
+            if (!contains(parents[id], child)) {
+                related.add(tables[child]);
+            }
+        }
+        return related;
+    }
+
+    /**
+     * @return foreign keys of the table
+     */
+    public List<Edge> parentEdges(TableMetaData table) {
+        Integer id = id(table);
+        return id != null ? Arrays.asList(parentEdges[id]) : new ArrayList<>();
+    }
+
+    /**
+     * @return foreign keys referencing the table
+     */
+    public List<Edge> childEdges(TableMetaData table) {
+        Integer id = id(table);
+        return id != null ? Arrays.asList(childEdges[id]) : new ArrayList<>();
+    }
+
+    public boolean dependsOn(TableMetaData child, TableMetaData parent) {
+        Integer childId = id(child);
+        Integer parentId = id(parent);
+        return childId != null && parentId != null && contains(parents[childId], parentId);
+    }
+
+    /**
+     * @param from table to start from
+     * @param to   table to reach
+     * @return <code>true</code> if the table <code>to</code> is reachable from <code>from</code> following
+     * the foreign keys from the child to the parent tables
+     */
+    public boolean isReachable(TableMetaData from, TableMetaData to) {
+        Integer fromId = id(from);
+        Integer toId = id(to);
+        if (fromId == null || toId == null) {
+            return false;
+        }
+        if (fromId.equals(toId)) {
+            return true;
+        }
+
+        boolean[] visited = new boolean[tables.length];
+        int[] queue = new int[tables.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = fromId;
+        visited[fromId] = true;
+
+        while (head < tail) {
+            for (int parent : parents[queue[head++]]) {
+                if (parent == toId) {
+                    return true;
+                }
+                if (!visited[parent]) {
+                    visited[parent] = true;
+                    queue[tail++] = parent;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shortest chain of the foreign keys joining two tables, each foreign key is followed in either direction
+     *
+     * @param from first table of the join
+     * @param to   last table of the join
+     * @return foreign keys in the join order, empty list if the tables are the same,
+     * or <code>null</code> if the tables cannot be joined
+     */
+    public List<Edge> joinPath(TableMetaData from, TableMetaData to) {
+        Integer fromId = id(from);
+        Integer toId = id(to);
+        if (fromId == null || toId == null) {
+            return null;
+        }
+
+        Edge[] via = new Edge[tables.length];
+        boolean[] visited = new boolean[tables.length];
+        int[] queue = new int[tables.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = fromId;
+        visited[fromId] = true;
+
+        while (head < tail && !visited[toId]) {
+            int current = queue[head++];
+            for (Edge edge : parentEdges[current]) {
+                int next = edge.parent;
+                if (!visited[next]) {
+                    visited[next] = true;
+                    via[next] = edge;
+                    queue[tail++] = next;
+                }
+            }
+            for (Edge edge : childEdges[current]) {
+                int next = edge.child;
+                if (!visited[next]) {
+                    visited[next] = true;
+                    via[next] = edge;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        if (!visited[toId]) {
+            return null;
+        }
+
+        LinkedList<Edge> path = new LinkedList<>();
+        int current = toId;
+        while (current != fromId) {
+            Edge edge = via[current];
+            path.addFirst(edge);
+            current = edge.child == current ? edge.parent : edge.child;
+        }
+        return new ArrayList<>(path);
+    }
+
+    /**
+     * Levels of the tables that defer the self references, see {@link #levels(boolean, boolean)}
+     *
+     * @return dependency levels
+     */
+    public DependencyLevels levels() {
+        return levels(true, false);
+    }
+
+    /**
+     * Orders the tables into the dependency levels in the linear time. Strongly connected components are found
+     * by the Tarjan's algorithm, that completes the components of the parent tables first, so the level of each
+     * component is one more than the highest level of its parents
+     *
+     * @param deferSelfReferences ignore the foreign keys referencing the same table
+     * @param deferNullable       ignore the foreign keys of the nullable columns
+     * @return dependency levels
+     */
+    public DependencyLevels levels(boolean deferSelfReferences, boolean deferNullable) {
+        int n = tables.length;
+        List<Edge> deferred = new ArrayList<>();
+        int[][] adjacency = new int[n][];
+        boolean[] selfReference = new boolean[n];
+
+        for (int v = 0; v < n; v++) {
+            int[] targets = new int[parentEdges[v].length];
+            int size = 0;
+            for (Edge edge : parentEdges[v]) {
+                boolean self = edge.parent == v;
+                if ((self && deferSelfReferences) || (deferNullable && edge.isNullable())) {
+                    deferred.add(edge);
+                } else if (self) {
+                    selfReference[v] = true;
+                } else if (!contains(targets, size, edge.parent)) {
+                    targets[size++] = edge.parent;
+                }
+            }
+            adjacency[v] = Arrays.copyOf(targets, size);
+        }
+
+        int[] component = stronglyConnectedComponents(adjacency);
+        int componentCount = 0;
+        for (int c : component) {
+            componentCount = Math.max(componentCount, c + 1);
+        }
+
+        List<List<Integer>> members = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            members.add(new ArrayList<>(1));
+        }
+        for (int v = 0; v < n; v++) {
+            members.get(component[v]).add(v);
+        }
+
+        int[] componentLevel = new int[componentCount];
+        int levelCount = 0;
+        for (int c = 0; c < componentCount; c++) {
+            int level = 0;
+            for (int v : members.get(c)) {
+                for (int parent : adjacency[v]) {
+                    if (component[parent] != c) {
+                        level = Math.max(level, componentLevel[component[parent]] + 1);
+                    }
+                }
+            }
+            componentLevel[c] = level;
+            levelCount = Math.max(levelCount, level + 1);
+        }
+
+        List<List<TableMetaData>> levels = new ArrayList<>(levelCount);
+        for (int i = 0; i < levelCount; i++) {
+            levels.add(new ArrayList<>());
+        }
+        for (int v = 0; v < n; v++) {
+            levels.get(componentLevel[component[v]]).add(tables[v]);
+        }
+
+        List<List<TableMetaData>> cycles = new ArrayList<>();
+        for (List<Integer> cycle : members) {
+            if (cycle.size() > 1 || selfReference[cycle.get(0)]) {
+                List<TableMetaData> cycleTables = new ArrayList<>(cycle.size());
+                for (int v : cycle) {
+                    cycleTables.add(tables[v]);
+                }
+                cycles.add(cycleTables);
+            }
+        }
+
+        return new DependencyLevels(levels, cycles, deferred);
+    }
+
+    public List<TableMetaData> tables() {
+        return Arrays.asList(tables);
+    }
+
+    public boolean contains(TableMetaData table) {
+        return id(table) != null;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    private Integer id(TableMetaData table) {
+        return table != null ? ids.get(table.fullName()) : null;
+    }
+
+    private List<TableMetaData> tables(int[][] adjacency, TableMetaData table) {
+        Integer id = id(table);
+        if (id == null) {
+            return new ArrayList<>();
+        }
+        List<TableMetaData> result = new ArrayList<>(adjacency[id].length);
+        for (int i : adjacency[id]) {
+            result.add(tables[i]);
+        }
+        return result;
+    }
+
+    private static List<ColumnMetaData> foreignKeyColumns(TableMetaData table, ForeignKeyMetaData fk) {
+        List<ColumnMetaData> columns = new ArrayList<>(1);
+        for (ColumnMetaData column : table.columns()) {
+            if (column.getForeignKeyMetaData() == fk) {
+                columns.add(column);
+            }
+        }
+        List<String> columnNames = fk.getColumnNames();
+        if (columns.isEmpty() && columnNames != null) {
+            // no column points to this instance of the foreign key, resolve its columns by name
+            for (String columnName : columnNames) {
+                ColumnMetaData column = table.column(columnName);
+                if (column != null) {
+                    columns.add(column);
+                }
+            }
+        } else if (columnNames != null && columnNames.size() == columns.size()) {
+            columns.sort(Comparator.comparingInt(c -> columnNames.indexOf(c.getName())));
+        }
+        return columns;
+    }
+
+    /**
+     * Iterative Tarjan's algorithm, so the deep chains of the foreign keys do not overflow the stack
+     *
+     * @return component of each table, numbered in the order the components are completed
+     */
+    private static int[] stronglyConnectedComponents(int[][] adjacency) {
+        int n = adjacency.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        int[] position = new int[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+
+        int counter = 0;
+        int components = 0;
+        int sp = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            int cp = 0;
+            callStack[cp++] = root;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+
+            while (cp > 0) {
+                int v = callStack[cp - 1];
+                if (position[v] < adjacency[v].length) {
+                    int w = adjacency[v][position[v]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[cp++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    cp--;
+                    if (cp > 0) {
+                        int u = callStack[cp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            onStack[w] = false;
+                            component[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+                }
+            }
+        }
+
+        return component;
+    }
+
+    private int[] distinctIds(Edge[] edges, boolean parent) {
+        int[] result = new int[edges.length];
+        int size = 0;
+        for (Edge edge : edges) {
+            int id = parent ? edge.parent : edge.child;
+            if (!contains(result, size, id)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        return contains(ids, ids.length, id);
+    }
+
+    private static boolean contains(int[] ids, int size, int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Foreign key of the child table referencing the parent table
+     */
+    public static class Edge {
+        private final TableMetaData childTable;
+        private final TableMetaData parentTable;
+        private final ForeignKeyMetaData foreignKey;
+        private final List<ColumnMetaData> columns;
+        private final int child;
+        private final int parent;
+
+        Edge(TableMetaData childTable, TableMetaData parentTable, ForeignKeyMetaData foreignKey, List<ColumnMetaData> columns,
+             int child, int parent) {
+            this.childTable = childTable;
+            this.parentTable = parentTable;
+            this.foreignKey = foreignKey;
+            this.columns = Collections.unmodifiableList(columns);
+            this.child = child;
+            this.parent = parent;
+        }
+
+        public TableMetaData getChildTable() {
+            return childTable;
+        }
+
+        public TableMetaData getParentTable() {
+            return parentTable;
+        }
+
+        /**
+         * @return first column of the foreign key, <code>null</code> if none of its columns is in the child table
+         */
+        public ColumnMetaData getColumn() {
+            return columns.isEmpty() ? null : columns.get(0);
+        }
+
+        /**
+         * @return columns of the foreign key ordered by <code>KEY_SEQ</code>
+         */
+        public List<ColumnMetaData> getColumns() {
+            return columns;
+        }
+
+        public ForeignKeyMetaData getForeignKey() {
+            return foreignKey;
+        }
+
+        public boolean isComposite() {
+            return columns.size() > 1;
+        }
+
+        /**
+         * @return <code>true</code> if any column of the foreign key is nullable, so the rows can be inserted
+         * before the referenced rows and updated later
+         */
+        public boolean isNullable() {
+            for (ColumnMetaData column : columns) {
+                if (column.isNullable()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner columnNames = new StringJoiner(",");
+            StringJoiner foreignColumnNames = new StringJoiner(",");
+            for (ColumnMetaData column : columns) {
+                columnNames.add(column.getName());
+                foreignColumnNames.add(String.valueOf(column.foreignColumnName()));
+            }
+            return childTable.fullName() + "(" + columnNames + ") -> " + parentTable.fullName() + "(" + foreignColumnNames + ")";
+        }
+    }
+}
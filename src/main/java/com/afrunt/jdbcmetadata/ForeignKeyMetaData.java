@@ -19,6 +19,8 @@
 package com.afrunt.jdbcmetadata;
 
 import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,6 +33,10 @@ public class ForeignKeyMetaData implements WithName {
     private String foreignColumnName;
     private Integer updateRule;
     private Integer deleteRule;
+    private List<String> columnNames = new ArrayList<>();
+    private List<String> foreignColumnNames = new ArrayList<>();
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private volatile boolean frozen;
 
     @Override
     public String getName() {
@@ -38,7 +44,9 @@ public class ForeignKeyMetaData implements WithName {
     }
 
     public ForeignKeyMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
         return this;
     }
 
@@ -51,21 +59,97 @@ public class ForeignKeyMetaData implements WithName {
     }
 
     public ForeignKeyMetaData setForeignTableName(String foreignTableName) {
+        Frozen.check(frozen, this);
         this.foreignTableName = foreignTableName;
+        fingerprint.modified();
         return this;
     }
 
     public ForeignKeyMetaData setForeignColumnName(String foreignColumnName) {
+        Frozen.check(frozen, this);
         this.foreignColumnName = foreignColumnName;
+        fingerprint.modified();
         return this;
     }
 
+    /**
+     * @return columns of the foreign key ordered by <code>KEY_SEQ</code>, empty if only the referenced column is known
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public ForeignKeyMetaData setColumnNames(List<String> columnNames) {
+        Frozen.check(frozen, this);
+        this.columnNames = columnNames;
+        fingerprint.modified();
+        return this;
+    }
+
+    /**
+     * @return referenced columns, in the order of {@link #getColumnNames()}
+     */
+    public List<String> getForeignColumnNames() {
+        return foreignColumnNames;
+    }
+
+    public ForeignKeyMetaData setForeignColumnNames(List<String> foreignColumnNames) {
+        Frozen.check(frozen, this);
+        this.foreignColumnNames = foreignColumnNames;
+        fingerprint.modified();
+        return this;
+    }
+
+    /**
+     * Sets the column pair of the foreign key. The first pair also sets the {@link #getForeignColumnName()}
+     *
+     * @param keySeq            sequence number of the column within the foreign key, starting from 1
+     * @param columnName        column of the foreign key
+     * @param foreignColumnName referenced column
+     * @return this
+     */
+    public ForeignKeyMetaData setColumn(int keySeq, String columnName, String foreignColumnName) {
+        Frozen.check(frozen, this);
+        int position = Math.max(keySeq, 1) - 1;
+        columnNames = Optional.ofNullable(columnNames).orElse(new ArrayList<>());
+        foreignColumnNames = Optional.ofNullable(foreignColumnNames).orElse(new ArrayList<>());
+        while (columnNames.size() <= position) {
+            columnNames.add(null);
+            foreignColumnNames.add(null);
+        }
+        columnNames.set(position, columnName);
+        foreignColumnNames.set(position, foreignColumnName);
+        if (position == 0) {
+            this.foreignColumnName = foreignColumnName;
+        }
+        fingerprint.modified();
+        return this;
+    }
+
+    public boolean isComposite() {
+        return columnNames != null && columnNames.size() > 1;
+    }
+
+    /**
+     * @param columnName column of the foreign key
+     * @return column referenced by the column of the foreign key
+     */
+    public String foreignColumnName(String columnName) {
+        int position = columnNames != null ? columnNames.indexOf(columnName) : -1;
+        if (position >= 0 && foreignColumnNames != null && position < foreignColumnNames.size()) {
+            return foreignColumnNames.get(position);
+        }
+        return isComposite() ? null : foreignColumnName;
+    }
+
     public Integer getUpdateRule() {
         return updateRule;
     }
 
     public ForeignKeyMetaData setUpdateRule(Integer updateRule) {
+        Frozen.check(frozen, this);
         this.updateRule = updateRule;
+        fingerprint.modified();
         return this;
     }
 
@@ -74,7 +158,9 @@ public class ForeignKeyMetaData implements WithName {
     }
 
     public ForeignKeyMetaData setDeleteRule(Integer deleteRule) {
+        Frozen.check(frozen, this);
         this.deleteRule = deleteRule;
+        fingerprint.modified();
         return this;
     }
 
@@ -181,9 +267,75 @@ public class ForeignKeyMetaData implements WithName {
         return ruleEquals(getDeleteRule(), value);
     }
 
+    /**
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(() -> fingerprint(foreignTableSchema));
+    }
+
+
+    /**
+     * Fingerprint that does not depend on the schema the foreign key belongs to, used to compare the structures
+     * of the tables in different schemas
+     *
+     * @param schema schema of the table of the foreign key
+     */
+    long structure(String schema) {
+        return schema != null && schema.equals(foreignTableSchema) ? fingerprint(null) : fingerprint();
+    }
+
+    /**
+     * @return copy of the foreign key referencing the table with the same name in the other schema
+     */
+    ForeignKeyMetaData copy(String foreignTableSchema) {
+        return new ForeignKeyMetaData()
+                .setName(name)
+                .setForeignTableSchema(foreignTableSchema)
+                .setForeignTableName(foreignTableName)
+                .setForeignColumnName(foreignColumnName)
+                .setUpdateRule(updateRule)
+                .setDeleteRule(deleteRule)
+                .setColumnNames(columnNames != null ? new ArrayList<>(columnNames) : null)
+                .setForeignColumnNames(foreignColumnNames != null ? new ArrayList<>(foreignColumnNames) : null);
+    }
+
+    private long fingerprint(String foreignTableSchema) {
+        return new Fingerprint()
+                .add(name)
+                .add(foreignTableSchema)
+                .add(foreignTableName)
+                .add(foreignColumnName)
+                .add(updateRule)
+                .add(deleteRule)
+                .addOrdered(columnNames, c -> JdbcUtil.hash64(String.valueOf(c)))
+                .addOrdered(foreignColumnNames, c -> JdbcUtil.hash64(String.valueOf(c)))
+                .value();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the foreign key immutable
+     *
+     * @return this
+     */
+    public ForeignKeyMetaData freeze() {
+        if (!frozen) {
+            columnNames = Frozen.list(columnNames);
+            foreignColumnNames = Frozen.list(foreignColumnNames);
+            fingerprint.freeze(fingerprint());
+            frozen = true;
+        }
+        return this;
+    }
+
     @Override
     public String toString() {
-        return Optional.ofNullable(getForeignTableSchema()).map(s -> s + "." + getForeignTableName()).orElse(getForeignTableName()) + "->" + foreignColumnName;
+        String foreignColumns = isComposite() ? String.join(",", foreignColumnNames) : foreignColumnName;
+        return Optional.ofNullable(getForeignTableSchema()).map(s -> s + "." + getForeignTableName()).orElse(getForeignTableName()) + "->" + foreignColumns;
     }
 
 
@@ -192,7 +344,9 @@ public class ForeignKeyMetaData implements WithName {
     }
 
     public ForeignKeyMetaData setForeignTableSchema(String foreignTableSchema) {
+        Frozen.check(frozen, this);
         this.foreignTableSchema = foreignTableSchema;
+        fingerprint.modified();
         return this;
     }
 
@@ -226,4 +380,16 @@ public class ForeignKeyMetaData implements WithName {
         result = 31 * result + (deleteRule != null ? deleteRule.hashCode() : 0);
         return result;
     }*/
+
+    void internNames(NamePool pool) {
+        if (frozen) {
+            return;
+        }
+        name = pool.intern(name);
+        foreignTableSchema = pool.intern(foreignTableSchema);
+        foreignTableName = pool.intern(foreignTableName);
+        foreignColumnName = pool.intern(foreignColumnName);
+        columnNames = pool.intern(columnNames);
+        foreignColumnNames = pool.intern(foreignColumnNames);
+    }
 }
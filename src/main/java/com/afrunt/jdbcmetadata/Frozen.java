@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers of the frozen metadata. Frozen objects reject the changes through the setters and hold their lists
+ * as compact unmodifiable arrays. The frozen flag is volatile and is set after all fields, so the frozen graph
+ * is visible to any thread that sees it frozen
+ *
+ * @author Andrii Frunt
+ */
+final class Frozen {
+    private Frozen() {
+    }
+
+    static void check(boolean frozen, Object owner) {
+        if (frozen) {
+            throw new UnsupportedOperationException(owner.getClass().getSimpleName() + " is frozen");
+        }
+    }
+
+    /**
+     * @return unmodifiable array backed copy of the list, <code>null</code> stays <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> list(List<T> list) {
+        if (list == null) {
+            return null;
+        }
+        if (list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList((List<T>) Arrays.asList(list.toArray()));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * H2 strategy, that loads the catalog of the whole schema from <code>INFORMATION_SCHEMA</code> with one query
+ * per kind of data
+ *
+ * @author Andrii Frunt
+ */
+public class H2DatabaseStrategy extends DatabaseStrategy {
+    private static final String TABLES_QUERY = "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'TABLE' ORDER BY TABLE_NAME";
+
+    private static final String COLUMNS_QUERY = "SELECT TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, COLUMN_DEFAULT, NULLABLE, " +
+            "DATA_TYPE, TYPE_NAME, CHARACTER_MAXIMUM_LENGTH, NUMERIC_SCALE, SEQUENCE_NAME, REMARKS " +
+            "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, ORDINAL_POSITION";
+
+    private static final String PRIMARY_KEYS_QUERY = "SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+            "WHERE TABLE_SCHEMA = ? AND PRIMARY_KEY = TRUE ORDER BY TABLE_NAME, COLUMN_NAME";
+
+    private static final String FOREIGN_KEYS_QUERY = "SELECT FKTABLE_NAME, FKCOLUMN_NAME, PKTABLE_SCHEMA, PKTABLE_NAME, PKCOLUMN_NAME, " +
+            "UPDATE_RULE, DELETE_RULE, FK_NAME, ORDINAL_POSITION FROM INFORMATION_SCHEMA.CROSS_REFERENCES " +
+            "WHERE FKTABLE_SCHEMA = ? ORDER BY FKTABLE_NAME, FK_NAME, ORDINAL_POSITION";
+
+    private static final String INDEXES_QUERY = "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, INDEX_TYPE, CARDINALITY, PAGES, " +
+            "COLUMN_NAME, ASC_OR_DESC, ORDINAL_POSITION, SORT_TYPE FROM INFORMATION_SCHEMA.INDEXES " +
+            "WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, INDEX_NAME, ORDINAL_POSITION";
+
+    private static final String SEQUENCES_QUERY = "SELECT SEQUENCE_SCHEMA, SEQUENCE_NAME, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES " +
+            "WHERE SEQUENCE_SCHEMA = ? AND IS_GENERATED = FALSE ORDER BY SEQUENCE_NAME";
+
+    private static final String[] SIGNATURE_QUERIES = {
+            "SELECT TABLE_NAME, SQL FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'TABLE'",
+            "SELECT DISTINCT TABLE_NAME, SQL FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, SQL",
+            "SELECT TABLE_NAME, SQL FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, SQL"
+    };
+
+    @Override
+    public List<SequenceMetaData> collectSequencesMetaData(String schema) {
+        Connection connection = getConnection();
+        try (PreparedStatement stmt = prepare(connection, SEQUENCES_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            List<SequenceMetaData> sequences = new ArrayList<>();
+            while (rs.next()) {
+                sequences.add(new SequenceMetaData()
+                        .setSchema(rs.getString("SEQUENCE_SCHEMA"))
+                        .setName(rs.getString("SEQUENCE_NAME"))
+                        .setIncrementBy(rs.getInt("INCREMENT")));
+            }
+            return sequences;
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting sequences for schema " + schema, e);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    @Override
+    public List<String> loadTableNames(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, TABLES_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            List<String> tables = new ArrayList<>();
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+            return tables;
+        }
+    }
+
+    @Override
+    public Map<String, List<ColumnMetaData>> loadColumns(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, COLUMNS_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            Map<String, List<ColumnMetaData>> columns = new HashMap<>();
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                int sqlType = rs.getInt("DATA_TYPE");
+                columns.computeIfAbsent(tableName, t -> new ArrayList<>()).add(new ColumnMetaData()
+                        .setName(rs.getString("COLUMN_NAME"))
+                        .setSqlType(sqlType)
+                        .setReadOnly(false)
+                        .setWritable(true)
+                        .setSqlTypeName(rs.getString("TYPE_NAME"))
+                        .setPrecision(rs.getInt("CHARACTER_MAXIMUM_LENGTH"))
+                        .setJavaType(JdbcUtil.javaType(sqlType))
+                        .setScale(rs.getInt("NUMERIC_SCALE"))
+                        .setTableName(tableName)
+                        .setAutoIncrement(rs.getString("SEQUENCE_NAME") != null)
+                        .setNullable(rs.getInt("NULLABLE") == java.sql.DatabaseMetaData.columnNullable)
+                        .setOrdinalPosition(rs.getInt("ORDINAL_POSITION"))
+                        .setDefaultValue(rs.getString("COLUMN_DEFAULT"))
+                        .setRemarks(rs.getString("REMARKS")));
+            }
+            return columns;
+        }
+    }
+
+    @Override
+    public Map<String, List<String>> loadPrimaryKeys(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, PRIMARY_KEYS_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            Map<String, List<String>> primaryKeys = new HashMap<>();
+            while (rs.next()) {
+                primaryKeys.computeIfAbsent(rs.getString("TABLE_NAME"), t -> new ArrayList<>())
+                        .add(rs.getString("COLUMN_NAME"));
+            }
+            return primaryKeys;
+        }
+    }
+
+    @Override
+    public Map<String, Map<String, ForeignKeyMetaData>> loadForeignKeys(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, FOREIGN_KEYS_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            ForeignKeyAssembler foreignKeys = new ForeignKeyAssembler();
+            while (rs.next()) {
+                foreignKeys.add(rs.getString("FKTABLE_NAME"), rs.getString("FK_NAME"), rs.getInt("ORDINAL_POSITION"),
+                        rs.getString("FKCOLUMN_NAME"), rs.getString("PKTABLE_SCHEMA"), rs.getString("PKTABLE_NAME"),
+                        rs.getString("PKCOLUMN_NAME"), rs.getInt("UPDATE_RULE"), rs.getInt("DELETE_RULE"));
+            }
+            return foreignKeys.foreignKeys();
+        }
+    }
+
+    @Override
+    public Map<String, List<IndexMetaData>> loadIndexes(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement stmt = prepare(connection, INDEXES_QUERY, schema);
+             ResultSet rs = stmt.executeQuery()) {
+            IndexAssembler indexes = new IndexAssembler();
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME");
+                String indexName = rs.getString("INDEX_NAME");
+                IndexMetaData indexMetaData = indexes.index(tableName, indexName);
+
+                if (indexMetaData == null) {
+                    indexMetaData = new IndexMetaData()
+                            .setName(indexName)
+                            .setType(rs.getInt("INDEX_TYPE"))
+                            .setCardinality(rs.getInt("CARDINALITY"))
+                            .setPages(rs.getInt("PAGES"))
+                            .setUnique(!rs.getBoolean("NON_UNIQUE"));
+                }
+
+                indexes.add(tableName, indexMetaData, new IndexColumnMetadata()
+                        .setName(rs.getString("COLUMN_NAME"))
+                        .setAscending("A".equals(rs.getString("ASC_OR_DESC")))
+                        .setOrdinalPosition(rs.getInt("ORDINAL_POSITION"))
+                        .setSortType(rs.getInt("SORT_TYPE")));
+            }
+            return indexes.indexes();
+        }
+    }
+
+    /**
+     * H2 has no DDL timestamps and <code>LAST_MODIFICATION</code> also changes with the data,
+     * so the signature of the table is its DDL together with the DDL of its indexes and constraints
+     */
+    @Override
+    public Map<String, String> loadTableSignatures(Connection connection, String schema) throws SQLException {
+        Map<String, StringBuilder> ddl = new HashMap<>();
+        for (String query : SIGNATURE_QUERIES) {
+            try (PreparedStatement stmt = prepare(connection, query, schema);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ddl.computeIfAbsent(rs.getString("TABLE_NAME"), t -> new StringBuilder())
+                            .append(rs.getString("SQL"))
+                            .append('\n');
+                }
+            }
+        }
+
+        Map<String, String> signatures = new HashMap<>();
+        ddl.forEach((table, sql) -> signatures.put(table, sql.toString()));
+        return signatures;
+    }
+
+    private PreparedStatement prepare(Connection connection, String query, String schema) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(query);
+        stmt.setString(1, schema);
+        return stmt;
+    }
+}
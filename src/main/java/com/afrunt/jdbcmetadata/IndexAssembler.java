@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.*;
+
+/**
+ * Groups the rows of the index info into the indexes. Columns are appended as the rows are read
+ * and every index is sorted once by the ordinal position, when the indexes are requested
+ *
+ * @author Andrii Frunt
+ */
+final class IndexAssembler {
+    private final Map<String, Map<String, IndexMetaData>> tableIndexes = new HashMap<>();
+    private final Map<IndexMetaData, List<IndexColumnMetadata>> indexColumns = new IdentityHashMap<>();
+
+    /**
+     * @return previously added index or <code>null</code>
+     */
+    IndexMetaData index(String tableName, String indexName) {
+        Map<String, IndexMetaData> indexes = tableIndexes.get(tableName);
+        return indexes != null ? indexes.get(indexName) : null;
+    }
+
+    IndexAssembler add(String tableName, IndexMetaData index, IndexColumnMetadata indexColumn) {
+        tableIndexes.computeIfAbsent(tableName, t -> new LinkedHashMap<>()).putIfAbsent(index.getName(), index);
+        indexColumns.computeIfAbsent(index, i -> new ArrayList<>()).add(indexColumn);
+        return this;
+    }
+
+    /**
+     * @return indexes by table name, in the order of their first rows
+     */
+    Map<String, List<IndexMetaData>> indexes() {
+        Map<String, List<IndexMetaData>> indexes = new HashMap<>();
+        tableIndexes.forEach((table, indexMap) -> {
+            for (IndexMetaData index : indexMap.values()) {
+                List<IndexColumnMetadata> columns = indexColumns.get(index);
+                columns.sort(null);
+                index.setIndexColumns(columns);
+            }
+            indexes.put(table, new ArrayList<>(indexMap.values()));
+        });
+        return indexes;
+    }
+
+    /**
+     * Inverted index of the columns, built in one pass over the index columns
+     *
+     * @param indexes indexes of the table
+     * @return indexes by column name, in the order of the given indexes
+     */
+    static Map<String, List<IndexMetaData>> indexesByColumn(Collection<IndexMetaData> indexes) {
+        Map<String, List<IndexMetaData>> byColumn = new HashMap<>();
+        if (indexes == null) {
+            return byColumn;
+        }
+        for (IndexMetaData index : indexes) {
+            for (IndexColumnMetadata indexColumn : index.indexColumns()) {
+                List<IndexMetaData> columnIndexes = byColumn.computeIfAbsent(indexColumn.getName(), c -> new ArrayList<>(2));
+                if (columnIndexes.isEmpty() || columnIndexes.get(columnIndexes.size() - 1) != index) {
+                    columnIndexes.add(index);
+                }
+            }
+        }
+        return byColumn;
+    }
+}
@@ -10,13 +10,17 @@ public class IndexColumnMetadata implements WithName, Comparable<IndexColumnMeta
     private Boolean ascending;
     private Integer ordinalPosition;
     private Integer sortType;
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private volatile boolean frozen;
 
     public String getName() {
         return name;
     }
 
     public IndexColumnMetadata setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
         return this;
     }
 
@@ -25,7 +29,9 @@ public class IndexColumnMetadata implements WithName, Comparable<IndexColumnMeta
     }
 
     public IndexColumnMetadata setAscending(Boolean ascending) {
+        Frozen.check(frozen, this);
         this.ascending = ascending;
+        fingerprint.modified();
         return this;
     }
 
@@ -34,7 +40,9 @@ public class IndexColumnMetadata implements WithName, Comparable<IndexColumnMeta
     }
 
     public IndexColumnMetadata setOrdinalPosition(Integer ordinalPosition) {
+        Frozen.check(frozen, this);
         this.ordinalPosition = ordinalPosition;
+        fingerprint.modified();
         return this;
     }
 
@@ -43,7 +51,9 @@ public class IndexColumnMetadata implements WithName, Comparable<IndexColumnMeta
     }
 
     public IndexColumnMetadata setSortType(Integer sortType) {
+        Frozen.check(frozen, this);
         this.sortType = sortType;
+        fingerprint.modified();
         return this;
     }
 
@@ -51,4 +61,36 @@ public class IndexColumnMetadata implements WithName, Comparable<IndexColumnMeta
     public int compareTo(IndexColumnMetadata o) {
         return getOrdinalPosition().compareTo(o.getOrdinalPosition());
     }
+
+    long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(name)
+                .add(ascending)
+                .add(ordinalPosition)
+                .add(sortType)
+                .value();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public IndexColumnMetadata freeze() {
+        if (!frozen) {
+            fingerprint.freeze(fingerprint());
+        }
+        frozen = true;
+        return this;
+    }
+
+    void internNames(NamePool pool) {
+        if (!frozen) {
+            name = pool.intern(name);
+        }
+    }
 }
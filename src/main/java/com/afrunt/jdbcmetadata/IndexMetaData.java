@@ -33,6 +33,9 @@ public class IndexMetaData implements WithName {
     private Integer cardinality;
     private Integer pages;
     private List<IndexColumnMetadata> indexColumns = new ArrayList<>();
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private volatile Runnable listener;
+    private volatile boolean frozen;
 
     @Override
     public String getName() {
@@ -40,7 +43,10 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -53,7 +59,9 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setUnique(Boolean unique) {
+        Frozen.check(frozen, this);
         this.unique = unique;
+        fingerprint.modified();
         return this;
     }
 
@@ -62,7 +70,9 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setType(Integer type) {
+        Frozen.check(frozen, this);
         this.type = type;
+        fingerprint.modified();
         return this;
     }
 
@@ -71,6 +81,7 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setCardinality(Integer cardinality) {
+        Frozen.check(frozen, this);
         this.cardinality = cardinality;
         return this;
     }
@@ -80,6 +91,7 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setPages(Integer pages) {
+        Frozen.check(frozen, this);
         this.pages = pages;
         return this;
     }
@@ -96,14 +108,29 @@ public class IndexMetaData implements WithName {
     }
 
     public IndexMetaData setIndexColumns(List<IndexColumnMetadata> indexColumns) {
+        Frozen.check(frozen, this);
         this.indexColumns = indexColumns;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
+    /**
+     * Inserts the column by its ordinal position into the copy of the columns. Use {@link #setIndexColumns(List)}
+     * to set all columns at once
+     *
+     * @param indexColumnMetadata index column
+     * @return this
+     */
     public IndexMetaData addIndexColumn(IndexColumnMetadata indexColumnMetadata) {
-        List<IndexColumnMetadata> columns = new ArrayList<>(indexColumns());
-        columns.add(indexColumnMetadata);
-        setIndexColumns(columns.stream().sorted().collect(Collectors.toList()));
+        List<IndexColumnMetadata> columns = new ArrayList<>(indexColumns().size() + 1);
+        columns.addAll(indexColumns());
+        int position = columns.size();
+        while (position > 0 && columns.get(position - 1).compareTo(indexColumnMetadata) > 0) {
+            --position;
+        }
+        columns.add(position, indexColumnMetadata);
+        setIndexColumns(columns);
         return this;
     }
 
@@ -119,8 +146,70 @@ public class IndexMetaData implements WithName {
         return indexColumns().stream().filter(ic -> ic.nameIs(name)).findFirst().orElse(null);
     }
 
+    /**
+     * Fingerprint of the index definition. Cardinality and pages are statistics, so they are not included
+     *
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+    /**
+     * @return name used in the fingerprint of the owner, that is recomputed when the name changes
+     */
+    String fingerprintName() {
+        fingerprint.track();
+        return name;
+    }
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(name)
+                .add(unique)
+                .add(type)
+                .addOrdered(indexColumns, IndexColumnMetadata::fingerprint)
+                .value();
+    }
+
     @Override
     public String toString() {
         return getName() + "[" + String.join(",", columnNames()) + "]";
     }
+
+    /**
+     * Registers the callback of the name index of the owner, that is run when the index is renamed or its columns are replaced
+     */
+    void watch(Runnable listener) {
+        if (!frozen) {
+            this.listener = listener;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the index and its columns immutable
+     *
+     * @return this
+     */
+    public IndexMetaData freeze() {
+        if (!frozen) {
+            indexColumns().forEach(IndexColumnMetadata::freeze);
+            indexColumns = Frozen.list(indexColumns);
+            fingerprint.freeze(fingerprint());
+            frozen = true;
+        }
+        return this;
+    }
+
+    void internNames(NamePool pool) {
+        if (frozen) {
+            return;
+        }
+        name = pool.intern(name);
+        indexColumns().forEach(column -> column.internNames(pool));
+    }
 }
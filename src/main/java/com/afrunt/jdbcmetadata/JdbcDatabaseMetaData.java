@@ -1,7 +1,10 @@
 package com.afrunt.jdbcmetadata;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by Andrii Frunt
@@ -9,16 +12,24 @@ import java.util.List;
 public class JdbcDatabaseMetaData {
     private String databaseProductName;
     private List<SchemaMetaData> schemas;
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private final Runnable schemasChanged = this::schemasChanged;
+    private final NameIndex<SchemaMetaData> schemasByName = new NameIndex<>((schema, invalidate) -> schema.watch(schemasChanged));
+    private final AtomicInteger schemaChanges = new AtomicInteger();
+    private volatile ForeignKeyGraph foreignKeyGraph;
+    private volatile boolean frozen;
 
     public List<SchemaMetaData> schemas() {
         return getSchemas() != null ? getSchemas() : new ArrayList<>();
     }
 
     public SchemaMetaData schema(String schema) {
-        return schemas().stream()
-                .filter(s -> s.nameIs(schema))
-                .findFirst()
-                .orElse(null);
+        return schemasByName.get(getSchemas(), schema);
+    }
+
+    public TableMetaData table(String schema, String table) {
+        SchemaMetaData schemaMetaData = schema(schema);
+        return schemaMetaData != null ? schemaMetaData.table(table) : null;
     }
 
     public SchemaMetaData schema(TableMetaData table) {
@@ -29,12 +40,55 @@ public class JdbcDatabaseMetaData {
         return schema(schema) != null;
     }
 
+    /**
+     * Graph of the foreign keys between the tables of all schemas, built on the first call
+     * and after the schemas, tables or columns are replaced or renamed through the setters
+     *
+     * @return foreign key graph
+     */
+    public ForeignKeyGraph foreignKeyGraph() {
+        int version = schemaChanges.get();
+        ForeignKeyGraph graph = foreignKeyGraph;
+        if (graph == null || graph.getVersion() != version) {
+            List<TableMetaData> tables = new ArrayList<>();
+            for (SchemaMetaData schema : schemas()) {
+                schema.watch(schemasChanged);
+                schema.watchTables();
+                tables.addAll(schema.tables());
+            }
+            graph = new ForeignKeyGraph(tables, version);
+            foreignKeyGraph = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Merkle fingerprint of the database, rolled up from the fingerprints of the schemas. Databases with equal
+     * fingerprints have the same structure, otherwise the schemas and tables with different fingerprints differ
+     *
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(databaseProductName)
+                .addUnordered(schemas, SchemaMetaData::fingerprint)
+                .value();
+    }
+
     public List<SchemaMetaData> getSchemas() {
         return schemas;
     }
 
     public JdbcDatabaseMetaData setSchemas(List<SchemaMetaData> schemas) {
+        Frozen.check(frozen, this);
         this.schemas = schemas;
+        schemasChanged();
+        fingerprint.modified();
         return this;
     }
 
@@ -43,7 +97,69 @@ public class JdbcDatabaseMetaData {
     }
 
     public JdbcDatabaseMetaData setDatabaseProductName(String databaseProductName) {
+        Frozen.check(frozen, this);
         this.databaseProductName = databaseProductName;
+        fingerprint.modified();
+        return this;
+    }
+
+    private void schemasChanged() {
+        schemasByName.invalidate();
+        schemaChanges.incrementAndGet();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the whole metadata graph immutable. Setters of the frozen objects throw
+     * {@link UnsupportedOperationException}, the lists are unmodifiable and the fingerprints and hash codes
+     * are computed once, so the frozen metadata can be shared between threads without copies
+     *
+     * @return this
+     */
+    public JdbcDatabaseMetaData freeze() {
+        return freeze(null);
+    }
+
+    /**
+     * Makes the metadata immutable, sharing the frozen schemas and tables of the previous snapshot that have
+     * the same fingerprint instead of freezing their new copies. Shared tables keep the values that are not part
+     * of the fingerprint, such as the cardinality of the indexes, from the previous snapshot
+     *
+     * @param previous frozen previous snapshot or <code>null</code>
+     * @return this
+     */
+    public JdbcDatabaseMetaData freeze(JdbcDatabaseMetaData previous) {
+        if (frozen) {
+            return this;
+        }
+
+        Map<String, SchemaMetaData> previousSchemas = new HashMap<>();
+        Map<String, TableMetaData> previousTables = new HashMap<>();
+        if (previous != null && previous.isFrozen()) {
+            for (SchemaMetaData schema : previous.schemas()) {
+                previousSchemas.put(schema.getName(), schema);
+                for (TableMetaData table : schema.tables()) {
+                    previousTables.put(table.fullName(), table);
+                }
+            }
+        }
+
+        List<SchemaMetaData> frozenSchemas = new ArrayList<>(schemas().size());
+        for (SchemaMetaData schema : schemas()) {
+            SchemaMetaData previousSchema = previousSchemas.get(schema.getName());
+            if (previousSchema != null && previousSchema.fingerprint() == schema.fingerprint()) {
+                frozenSchemas.add(previousSchema);
+            } else {
+                frozenSchemas.add(schema.freeze(previousTables));
+            }
+        }
+
+        schemas = Frozen.list(frozenSchemas);
+        fingerprint.freeze(fingerprint());
+        frozen = true;
         return this;
     }
 }
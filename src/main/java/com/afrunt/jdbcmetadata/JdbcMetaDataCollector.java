@@ -20,35 +20,62 @@ package com.afrunt.jdbcmetadata;
 
 
 import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Andrii Frunt
  */
 public class JdbcMetaDataCollector implements AutoCloseable {
     private static final Logger LOG = Logger.getLogger(JdbcMetaDataCollector.class.getName());
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadExecutorFactory();
     private Connection connection;
     //private DatabaseMetaData databaseMetaData;
-    private Map<String, TableMetaData> tablesMetaDataCache = new ConcurrentHashMap<>();
+    private static final String ALL_SCHEMAS = "";
+    private final MetaDataCache<String, TableMetaData> tablesMetaDataCache = new MetaDataCache<String, TableMetaData>()
+            .setWeigher(t -> 1 + t.getColumns().size() + (t.getIndexes() != null ? t.getIndexes().size() : 0));
     private BiFunction<String, String, Boolean> skipTables = (s, t) -> false;
     private boolean skipIndexes = false;
-    private Map<String, Set<String>> tableNames = new HashMap<>();
+    private boolean bulkCollection = false;
+    private ColumnSource columnSource = ColumnSource.QUERY;
+    private final ConcurrentMap<String, CompletableFuture<TableMetaData>> inFlightTables = new ConcurrentHashMap<>();
+    private final MetaDataCache<String, List<String>> tableNames = new MetaDataCache<>();
 
-    private Set<String> allSchemaNames = new HashSet<>();
+    private final MetaDataCache<String, List<String>> allSchemaNames = new MetaDataCache<>();
     private boolean skipSequences;
     private DatabaseStrategy databaseStrategy;
     private ProgressMonitor progressMonitor;
     private boolean quoteTableNames;
+    private NamePool namePool = new NamePool();
+    private boolean shareSchemaStructures;
+    private int templateSampleSize = 3;
+    private int lazyBatchThreshold = 16;
+    private int prefetchDepth;
+    private boolean prefetchChildTables;
+    private final Deque<PrefetchRequest> prefetchQueue = new ConcurrentLinkedDeque<>();
+    private final Set<String> queuedPrefetches = ConcurrentHashMap.newKeySet();
+    private final Set<String> expandedTables = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean prefetchRunning = new AtomicBoolean();
+    private ExecutorService prefetchExecutor;
 
     private DataSource dataSource;
     private int parallelism = 1;
@@ -57,21 +84,92 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     private ExecutorService pool;
     private int maxColumnNameLength = -1;
 
+    private int streamBufferSize = 64;
+    private Duration streamTimeout;
+
+    private Duration snapshotMaxAge;
+    private boolean trackTableChanges;
+
+    private int maxConnections;
+    private volatile Semaphore connectionPermits;
+    private boolean virtualThreads;
+    private final ThreadLocal<ConnectionLease> connectionLease = new ThreadLocal<>();
+    private DataSource leasingDataSource;
+
     public JdbcDatabaseMetaData collectDatabaseMetaData() {
         return collectDatabaseMetaData(s -> true);
     }
 
     public JdbcDatabaseMetaData collectDatabaseMetaData(Predicate<String> schemaFilter) {
+        return join(collectDatabaseMetaDataAsync(schemaFilter));
+    }
+
+    public CompletableFuture<JdbcDatabaseMetaData> collectDatabaseMetaDataAsync() {
+        return collectDatabaseMetaDataAsync(s -> true);
+    }
+
+    /**
+     * Collects the database metadata without blocking the caller. Schemas and tables are collected by the tasks
+     * in the collector's pool, that are chained with each other instead of waiting
+     *
+     * @param schemaFilter schema name filter
+     * @return future of the database metadata
+     */
+    public CompletableFuture<JdbcDatabaseMetaData> collectDatabaseMetaDataAsync(Predicate<String> schemaFilter) {
         StopWatch sw = new StopWatch().start();
         JdbcDatabaseMetaData jdbcDatabaseMetaData = new JdbcDatabaseMetaData();
 
+        return CompletableFuture.supplyAsync(() -> findSchemasToCollect(jdbcDatabaseMetaData, schemaFilter), getInternalPool())
+                .thenCompose(this::collectSchemasMetaDataAsync)
+                .thenApply(schemas -> completeDatabaseCollection(jdbcDatabaseMetaData, schemas, sw));
+    }
+
+    public JdbcDatabaseMetaData refreshDatabaseMetaData(JdbcDatabaseMetaData previous) {
+        return join(refreshDatabaseMetaDataAsync(previous));
+    }
+
+    /**
+     * Collects again only the tables of the previously collected schemas, that are new or whose signature changed.
+     * Signatures are provided by {@link DatabaseStrategy#loadTableSignatures(Connection, String)}, or are computed
+     * from the column definitions if the strategy does not support them. Unchanged tables are shared with the
+     * previous metadata, dropped tables and schemas are removed. The previous metadata is not modified
+     *
+     * @param previous previously collected metadata, ideally with the {@link #setTrackTableChanges(boolean) tracked changes}
+     * @return future of the refreshed database metadata
+     */
+    public CompletableFuture<JdbcDatabaseMetaData> refreshDatabaseMetaDataAsync(JdbcDatabaseMetaData previous) {
+        StopWatch sw = new StopWatch().start();
+        JdbcDatabaseMetaData jdbcDatabaseMetaData = new JdbcDatabaseMetaData();
+        Map<String, SchemaMetaData> previousSchemas = new HashMap<>();
+        for (SchemaMetaData schema : previous.schemas()) {
+            previousSchemas.put(schema.getName(), schema);
+            tableNames.invalidate(schema.getName());
+        }
+        allSchemaNames.invalidateAll();
+
+        return CompletableFuture.supplyAsync(() -> findSchemasToCollect(jdbcDatabaseMetaData, previousSchemas::containsKey), getInternalPool())
+                .thenCompose(schemas -> collectSchemasMetaDataAsync(schemas, previousSchemas))
+                .thenApply(schemas -> completeDatabaseCollection(jdbcDatabaseMetaData, schemas, sw));
+    }
+
+    private JdbcDatabaseMetaData completeDatabaseCollection(JdbcDatabaseMetaData jdbcDatabaseMetaData, List<SchemaMetaData> schemas, StopWatch sw) {
+        jdbcDatabaseMetaData.setSchemas(schemas);
+
+        long totalTimeMillis = sw.stop().getTotalTimeMillis();
+        if (progressMonitor != null) {
+            progressMonitor.databaseMetadataCollected(jdbcDatabaseMetaData, totalTimeMillis);
+        }
+        return jdbcDatabaseMetaData;
+    }
+
+    private List<String> findSchemasToCollect(JdbcDatabaseMetaData jdbcDatabaseMetaData, Predicate<String> schemaFilter) {
         List<String> filteredSchemas;
         Connection connection = getConnection();
 
         try {
             DatabaseMetaData connectionMetaData = connection.getMetaData();
             List<String> allSchemaNames = findAllSchemaNames(connectionMetaData);
-            jdbcDatabaseMetaData = populateExtraDatabaseData(jdbcDatabaseMetaData, connectionMetaData);
+            populateExtraDatabaseData(jdbcDatabaseMetaData, connectionMetaData);
             filteredSchemas = allSchemaNames.stream()
                     .filter(schemaFilter)
                     .filter(sn -> schemaExists(sn, connectionMetaData))
@@ -86,45 +184,490 @@ public class JdbcMetaDataCollector implements AutoCloseable {
             progressMonitor.collectionStarted(filteredSchemas);
         }
 
-        List<SchemaMetaData> schemas;
+        return filteredSchemas;
+    }
 
+    public JdbcDatabaseMetaData loadOrCollect(Path snapshot) {
+        return loadOrCollect(snapshot, s -> true);
+    }
 
-        try {
-            schemas = getInternalPool().submit(() -> filteredSchemas.parallelStream()
-                    .map(this::collectSchemaMetaData)
-                    .collect(Collectors.toList())).get();
-        } catch (Exception e) {
-            throw new JdbcMetaDataException(e);
+    /**
+     * Loads the database metadata from the snapshot. If the snapshot is missing or unreadable, collects the metadata
+     * and writes the new snapshot. If the snapshot is older than the {@link #setSnapshotMaxAge(Duration) max age},
+     * {@link #refreshDatabaseMetaData(JdbcDatabaseMetaData) refreshes} it
+     *
+     * @param snapshot     snapshot file
+     * @param schemaFilter schema name filter, used only if there is no snapshot
+     * @return database metadata
+     */
+    public JdbcDatabaseMetaData loadOrCollect(Path snapshot, Predicate<String> schemaFilter) {
+        StopWatch sw = new StopWatch().start();
+        MetaDataSnapshot loaded = null;
+        if (Files.exists(snapshot)) {
+            try {
+                loaded = MetaDataSnapshot.read(snapshot);
+                if (!isStale(loaded)) {
+                    info("Database metadata loaded from snapshot %s in %dms", snapshot, sw.stop().getTotalTimeMillis());
+                    return loaded.getMetaData();
+                }
+                info("Snapshot %s is stale", snapshot);
+            } catch (JdbcMetaDataException e) {
+                log(Level.WARNING, "Snapshot %s can not be loaded: %s", snapshot, e.getMessage());
+            }
         }
 
-        jdbcDatabaseMetaData
-                .setSchemas(schemas);
+        JdbcDatabaseMetaData databaseMetaData = loaded != null ? refreshDatabaseMetaData(loaded.getMetaData()) : collectDatabaseMetaData(schemaFilter);
+        MetaDataSnapshot.write(databaseMetaData, snapshot);
+        return databaseMetaData;
+    }
 
-        long totalTimeMillis = sw.stop().getTotalTimeMillis();
-        if (progressMonitor != null) {
-            progressMonitor.databaseMetadataCollected(jdbcDatabaseMetaData, totalTimeMillis);
-        }
-        return jdbcDatabaseMetaData;
+    private boolean isStale(MetaDataSnapshot snapshot) {
+        return snapshotMaxAge != null && System.currentTimeMillis() - snapshot.getCreatedAt() > snapshotMaxAge.toMillis();
     }
 
     public SchemaMetaData collectSchemaMetaData(String schema) {
-        info("Collecting metadata for schema: %s", schema);
-        StopWatch sw = new StopWatch().start();
-        //ResultSet tables = databaseMetaData.getTables(null, schema, "%", new String[]{"TABLE"});
-        //JdbcUtil.printResultSet(tables);
+        return join(collectSchemaMetaDataAsync(schema));
+    }
 
-        SchemaMetaData schemaMetaData = new SchemaMetaData()
+    public CompletableFuture<SchemaMetaData> collectSchemaMetaDataAsync(String schema) {
+        return collectSchemasMetaDataAsync(Collections.singletonList(schema))
+                .thenApply(schemas -> schemas.get(0));
+    }
+
+    /**
+     * Creates the schema with the lazy tables, found with one call to the database. Columns, primary key,
+     * foreign keys and indexes of each table are fetched separately on the first access and are kept
+     * by the table. Once more than {@link #setLazyBatchThreshold(int) the threshold} of tables was touched,
+     * the catalog data of the whole schema is fetched at once for the remaining tables.
+     * <p>
+     * Lazy tables are not kept in the table cache
+     *
+     * @param schema schema name
+     * @return schema with the lazy tables
+     */
+    public SchemaMetaData collectLazySchemaMetaData(String schema) {
+        LazyTableLoader loader = new LazyTableLoader(this, schema, lazyBatchThreshold, namePool);
+        List<TableMetaData> tables = findTableNamesForSchema(schema).stream()
+                .filter(tn -> !skipTables.apply(schema, tn))
+                .map(tn -> new LazyTableMetaData(namePool != null ? namePool.intern(tn) : tn, schema, loader))
+                .collect(Collectors.toList());
+
+        return new SchemaMetaData()
                 .setName(schema)
-                .setSequences(collectSequencesMetaData(schema))
-                .setTables(collectTablesMetaDataForSchema(schema));
+                .setSequences(new ArrayList<>(collectSequencesMetaData(schema)))
+                .setTables(tables);
+    }
+
+    /**
+     * Fetches all parts of the lazy tables in parallel. If more than {@link #setLazyBatchThreshold(int) the threshold}
+     * of tables of the same schema are given, the catalog data of the whole schema is fetched at once instead.
+     * Tables that are not lazy are ignored
+     *
+     * @param tables tables to prefetch
+     */
+    public void prefetch(Collection<? extends TableMetaData> tables) {
+        Map<LazyTableLoader, List<LazyTableMetaData>> tablesByLoader = new IdentityHashMap<>();
+        for (TableMetaData table : tables) {
+            if (table instanceof LazyTableMetaData && !((LazyTableMetaData) table).isLoaded()) {
+                LazyTableMetaData lazyTable = (LazyTableMetaData) table;
+                tablesByLoader.computeIfAbsent(lazyTable.getLoader(), l -> new ArrayList<>()).add(lazyTable);
+            }
+        }
+
+        Queue<Runnable> tableTasks = new ConcurrentLinkedQueue<>();
+        tablesByLoader.forEach((loader, lazyTables) -> {
+            if (loader.getBatchThreshold() > 0 && lazyTables.size() > loader.getBatchThreshold()) {
+                loader.prefetch();
+            }
+            lazyTables.forEach(table -> tableTasks.add(table::load));
+        });
+
+        join(runTableTasksAsync(tableTasks));
+    }
+
+    /**
+     * Collects the schema into the column oriented {@link CompactSchemaMetaData}. Tables are streamed into
+     * the compact storage one by one and are not kept in the table cache, so the complete metadata of the schema
+     * is never held in memory
+     *
+     * @param schema schema name
+     * @return compact metadata of the schema with the tables in the order of collection
+     */
+    public CompactSchemaMetaData collectCompactSchemaMetaData(String schema) {
+        CompactSchemaMetaData.Builder builder = CompactSchemaMetaData.builder(namePool != null ? namePool.intern(schema) : schema);
+        if (!skipSequences) {
+            builder.addSequences(collectSequencesMetaData(schema));
+        }
+        try (Stream<TableMetaData> tables = streamTablesMetaData(schema)) {
+            tables.forEach(builder::addTable);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Streams the tables of schema as soon as each of them is collected. See {@link #streamTablesMetaData(Predicate)}
+     *
+     * @param schema schema name
+     * @return stream of the table metadata
+     */
+    public Stream<TableMetaData> streamTablesMetaData(String schema) {
+        return streamTablesMetaData(Collections.singletonList(schema));
+    }
+
+    /**
+     * Streams the tables of all matching schemas as soon as each of them is collected. The tables are passed through
+     * a bounded buffer of {@link #getStreamBufferSize()} elements, so the workers wait while the consumer is behind,
+     * and are not kept in the table cache. Closing the stream stops the collection of the remaining tables.
+     * If {@link #setStreamTimeout(Duration) the timeout} is set and the consumer does not take a table for that long,
+     * the collection is cancelled and the stream fails
+     *
+     * @param schemaFilter schema name filter
+     * @return stream of the table metadata in the order of collection
+     */
+    public Stream<TableMetaData> streamTablesMetaData(Predicate<String> schemaFilter) {
+        return streamTablesMetaData(join(CompletableFuture.supplyAsync(() -> findSchemasToCollect(new JdbcDatabaseMetaData(), schemaFilter), getInternalPool())));
+    }
+
+    private Stream<TableMetaData> streamTablesMetaData(List<String> schemaNames) {
+        List<SchemaCollection> schemas = join(allOf(schemaNames.stream()
+                .map(schema -> CompletableFuture.supplyAsync(() -> prepareSchemaCollection(schema, null), getInternalPool()))
+                .collect(Collectors.toList())));
+
+        int tableCount = schemas.stream().mapToInt(schema -> schema.tableNames.size()).sum();
+        TableMetaDataSpliterator spliterator = new TableMetaDataSpliterator(streamBufferSize, tableCount, streamTimeout);
+
+        for (SchemaCollection schema : schemas) {
+            for (String tableName : schema.tableNames) {
+                spliterator.tasks.add(() -> spliterator.put(collectTableMetaData(tableName, schema.name, schema.catalog, false)));
+            }
+        }
+
+        int workers = Math.min(maxWorkers(), tableCount);
+        for (int i = 0; i < workers; i++) {
+            CompletableFuture.runAsync(() -> runTableTasks(spliterator.tasks), getInternalPool())
+                    .exceptionally(e -> {
+                        spliterator.fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        return null;
+                    });
+        }
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::cancel);
+    }
+
+    /**
+     * Prepares every schema in a separate task, then collects the tables of all schemas with at most
+     * {@link #maxWorkers()} workers. Each worker leases one connection and keeps it for all the tables it collects.
+     * Tasks never wait for each other, so the pool can not starve
+     */
+    private CompletableFuture<List<SchemaMetaData>> collectSchemasMetaDataAsync(List<String> schemaNames) {
+        return collectSchemasMetaDataAsync(schemaNames, Collections.emptyMap());
+    }
+
+    private CompletableFuture<List<SchemaMetaData>> collectSchemasMetaDataAsync(List<String> schemaNames, Map<String, SchemaMetaData> previousSchemas) {
+        List<CompletableFuture<SchemaCollection>> preparedSchemas = schemaNames.stream()
+                .map(schema -> CompletableFuture.supplyAsync(() -> prepareSchemaCollection(schema, previousSchemas.get(schema)), getInternalPool()))
+                .collect(Collectors.toList());
+
+        return allOf(preparedSchemas)
+                .thenCompose(schemas -> {
+                    List<SchemaCollection> tenants = shareSchemaStructures ? assignTemplates(schemas) : Collections.emptyList();
+                    Queue<Runnable> tableTasks = new ConcurrentLinkedQueue<>();
+                    for (SchemaCollection schema : schemas) {
+                        for (int index : schema.pending) {
+                            tableTasks.add(() -> collectTable(schema, index));
+                        }
+                    }
+
+                    return runTableTasksAsync(tableTasks)
+                            .thenCompose(v -> completeTenantSchemas(tenants))
+                            .thenApply(v -> schemas.stream()
+                                    .map(schema -> schema.result)
+                                    .collect(Collectors.toList()));
+                });
+    }
+
+    private void collectTable(SchemaCollection schema, int index) {
+        String tableName = schema.tableNames.get(index);
+        TableMetaData table = collectTableMetaData(tableName, schema.name, schema.catalog, true);
+        if (schema.signatures != null && !table.isFrozen()) {
+            table.setSignature(schema.signatures.get(tableName));
+        }
+        completeTable(schema, index, table);
+    }
+
+    private void completeTable(SchemaCollection schema, int index, TableMetaData table) {
+        schema.tables[index] = table;
+        if (schema.remaining.decrementAndGet() == 0) {
+            completeSchemaCollection(schema);
+        }
+    }
+
+    private CompletableFuture<Void> runTableTasksAsync(Queue<Runnable> tableTasks) {
+        int workers = Math.min(maxWorkers(), tableTasks.size());
+        List<CompletableFuture<Void>> workerFutures = IntStream.range(0, workers)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> runTableTasks(tableTasks), getInternalPool()))
+                .collect(Collectors.toList());
+        return allOf(workerFutures).thenApply(v -> null);
+    }
+
+    /**
+     * The first schema with the list of tables becomes the template of the other schemas with the same tables.
+     * Only a sample of the tables of these schemas is collected at first, the rest is deferred
+     * until the sample is compared with the template
+     *
+     * @return schemas that have a template
+     */
+    private List<SchemaCollection> assignTemplates(List<SchemaCollection> schemas) {
+        Map<List<String>, SchemaCollection> templates = new HashMap<>();
+        List<SchemaCollection> tenants = new ArrayList<>();
+
+        for (SchemaCollection schema : schemas) {
+            int tableCount = schema.tableNames.size();
+            if (tableCount == 0 || schema.pending.size() != tableCount) {
+                continue;
+            }
+
+            List<String> tableNames = new ArrayList<>(schema.tableNames);
+            Collections.sort(tableNames);
+            SchemaCollection template = templates.putIfAbsent(tableNames, schema);
+            int sampleSize = Math.max(1, templateSampleSize);
+
+            if (template != null && tableCount > sampleSize) {
+                List<Integer> sample = new ArrayList<>(sampleSize);
+                for (int i = 0; i < sampleSize; i++) {
+                    sample.add(i * tableCount / sampleSize);
+                }
+                schema.template = template;
+                schema.deferred.addAll(schema.pending);
+                schema.deferred.removeAll(sample);
+                schema.pending.retainAll(sample);
+                tenants.add(schema);
+            }
+        }
+        return tenants;
+    }
+
+    /**
+     * Shares the tables of the template with the schemas whose sample matches it, otherwise collects
+     * the deferred tables
+     */
+    private CompletableFuture<Void> completeTenantSchemas(List<SchemaCollection> tenants) {
+        Queue<Runnable> tableTasks = new ConcurrentLinkedQueue<>();
+
+        for (SchemaCollection tenant : tenants) {
+            SchemaCollection templateCollection = tenant.template;
+            if (templateCollection.sharedTemplate == null) {
+                templateCollection.sharedTemplate = new SchemaTemplate(templateCollection.result);
+            }
+            SchemaTemplate template = templateCollection.sharedTemplate;
+
+            if (tenant.pending.stream().allMatch(index -> template.matches(tenant.tables[index]))) {
+                debug("Schema %s shares the tables of schema %s", tenant.name, template.getSchema());
+                List<Integer> indexes = new ArrayList<>(tenant.pending);
+                indexes.addAll(tenant.deferred);
+                tenant.remaining.addAndGet(tenant.pending.size());
+                for (int index : indexes) {
+                    String tableName = tenant.tableNames.get(index);
+                    TableMetaData table = template.table(tableName, tenant.name);
+                    if (tenant.signatures != null) {
+                        table.setSignature(tenant.signatures.get(tableName));
+                    }
+                    tablesMetaDataCache.put(fullTableName(tenant.name, tableName), table);
+                    completeTable(tenant, index, table);
+                }
+            } else {
+                info("Schema %s differs from schema %s, collecting all tables", tenant.name, template.getSchema());
+                for (int index : tenant.deferred) {
+                    tableTasks.add(() -> collectTable(tenant, index));
+                }
+            }
+        }
+
+        return runTableTasksAsync(tableTasks);
+    }
+
+    /**
+     * Takes the connection only if there is a task left, so the workers that start after the queue was drained
+     * do not check out the connections
+     */
+    private void runTableTasks(Queue<Runnable> tableTasks) {
+        Runnable task = tableTasks.poll();
+        if (task == null) {
+            return;
+        }
+
+        Connection connection = null;
+        try {
+            connection = getConnection();
+            do {
+                task.run();
+            } while ((task = tableTasks.poll()) != null);
+        } catch (RuntimeException e) {
+            tableTasks.clear();
+            throw e;
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * @param schema   schema name
+     * @param previous previously collected schema, whose unchanged tables are reused, or <code>null</code>
+     */
+    private SchemaCollection prepareSchemaCollection(String schema, SchemaMetaData previous) {
+        info("Collecting metadata for schema: %s", schema);
+        SchemaCollection schemaCollection = new SchemaCollection(schema);
+
+        Connection connection = getConnection();
+        try {
+            schemaCollection.sequences = collectSequencesMetaData(schema);
+            schemaCollection.tableNames = findTableNamesForSchema(schema).stream()
+                    .filter(tn -> !skipTables.apply(schema, tn))
+                    .collect(Collectors.toList());
+            schemaCollection.tables = new TableMetaData[schemaCollection.tableNames.size()];
+            schemaCollection.signatures = trackTableChanges || previous != null ? loadTableSignatures(schema, connection) : null;
+
+            Map<String, TableMetaData> previousTables = new HashMap<>();
+            if (previous != null) {
+                previous.tables().forEach(t -> previousTables.put(t.getName(), t));
+            }
+
+            for (int i = 0; i < schemaCollection.tables.length; i++) {
+                String tableName = schemaCollection.tableNames.get(i);
+                TableMetaData previousTable = previousTables.get(tableName);
+                if (previousTable != null && previousTable.getSignature() != null
+                        && previousTable.getSignature().equals(schemaCollection.signatures.get(tableName))) {
+                    schemaCollection.tables[i] = previousTable;
+                } else {
+                    if (previous != null) {
+                        tablesMetaDataCache.invalidate(fullTableName(schema, tableName));
+                    }
+                    schemaCollection.pending.add(i);
+                }
+            }
+
+            if (previous != null) {
+                info("Schema %s: %d of %d tables are new or changed", schema, schemaCollection.pending.size(), schemaCollection.tables.length);
+            }
+
+            boolean allPending = !schemaCollection.pending.isEmpty() && schemaCollection.pending.size() == schemaCollection.tables.length;
+            schemaCollection.catalog = allPending ? loadSchemaCatalog(schema) : null;
+        } finally {
+            releaseConnection(connection);
+        }
+
+        schemaCollection.remaining.set(schemaCollection.pending.size());
+
+        if (schemaCollection.pending.isEmpty()) {
+            completeSchemaCollection(schemaCollection);
+        }
+
+        return schemaCollection;
+    }
+
+    private Map<String, String> loadTableSignatures(String schema, Connection connection) {
+        try {
+            Map<String, String> signatures = databaseStrategy != null ? databaseStrategy.loadTableSignatures(connection, schema) : null;
+            if (signatures == null) {
+                signatures = readColumnSignatures(connection.getMetaData(), schema);
+            }
+
+            Map<String, String> hashes = new HashMap<>();
+            signatures.forEach((table, signature) -> hashes.put(table, Long.toHexString(JdbcUtil.hash64(signature))));
+            return hashes;
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting table signatures for schema " + schema, e);
+        }
+    }
+
+    /**
+     * Signatures made of the column definitions of the whole schema, read with one call.
+     * Changes of the keys and indexes are not noticed
+     */
+    private Map<String, String> readColumnSignatures(DatabaseMetaData databaseMetaData, String schema) throws SQLException {
+        Map<String, StringBuilder> columns = new HashMap<>();
+        try (ResultSet rs = databaseMetaData.getColumns(null, schema, "%", "%")) {
+            while (rs.next()) {
+                if (schema != null && !schema.equals(rs.getString("TABLE_SCHEM"))) {
+                    continue;
+                }
+                columns.computeIfAbsent(rs.getString("TABLE_NAME"), t -> new StringBuilder())
+                        .append(rs.getString("COLUMN_NAME")).append(',')
+                        .append(rs.getInt("DATA_TYPE")).append(',')
+                        .append(rs.getString("TYPE_NAME")).append(',')
+                        .append(rs.getInt("COLUMN_SIZE")).append(',')
+                        .append(rs.getInt("DECIMAL_DIGITS")).append(',')
+                        .append(rs.getInt("NULLABLE")).append(',')
+                        .append(rs.getString("COLUMN_DEF")).append(';');
+            }
+        }
+
+        Map<String, String> signatures = new HashMap<>();
+        columns.forEach((table, definition) -> signatures.put(table, definition.toString()));
+        return signatures;
+    }
+
+    private void completeSchemaCollection(SchemaCollection schemaCollection) {
+        schemaCollection.result = new SchemaMetaData()
+                .setName(namePool != null ? namePool.intern(schemaCollection.name) : schemaCollection.name)
+                .setSequences(schemaCollection.sequences)
+                .setTables(new ArrayList<>(Arrays.asList(schemaCollection.tables)));
 
         if (progressMonitor != null) {
-            progressMonitor.schemaMetaDataCollected(schemaMetaData, sw.stop().getTotalTimeMillis());
+            progressMonitor.schemaMetaDataCollected(schemaCollection.result, schemaCollection.stopWatch.stop().getTotalTimeMillis());
+        }
+    }
+
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new JdbcMetaDataException(cause);
+        }
+    }
+
+    /**
+     * @return number of the table collection workers, never more than the number of connections allowed
+     */
+    private int maxWorkers() {
+        if (dataSource == null) {
+            return 1;
+        }
+
+        if (usesVirtualThreads()) {
+            // one virtual thread per permitted connection, more workers would only wait for the permits
+            return maxConnections > 0 ? maxConnections : Math.max(1, parallelism);
         }
 
-        return schemaMetaData;
+        int workers = Math.max(1, pool != null ? poolParallelism(pool) : parallelism);
+        return maxConnections > 0 ? Math.min(workers, maxConnections) : workers;
+    }
 
+    /**
+     * @return number of the threads of the external pool, or the parallelism when the pool size is unknown or unbounded
+     */
+    private int poolParallelism(ExecutorService pool) {
+        if (pool instanceof ForkJoinPool) {
+            return ((ForkJoinPool) pool).getParallelism();
+        }
 
+        if (pool instanceof ThreadPoolExecutor) {
+            int maximumPoolSize = ((ThreadPoolExecutor) pool).getMaximumPoolSize();
+            if (maximumPoolSize != Integer.MAX_VALUE) {
+                return maximumPoolSize;
+            }
+        }
+
+        return parallelism;
     }
 
     public TableMetaData collectTableMetaData(String tableName) {
@@ -132,49 +675,231 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     }
 
     public TableMetaData collectTableMetaData(String tableName, String schema) {
-        StopWatch sw = new StopWatch().start();
+        TableMetaData table = collectTableMetaData(tableName, schema, null, true);
+        prefetchRelatedTables(table, prefetchDepth);
+        return table;
+    }
+
+    public CompletableFuture<TableMetaData> collectTableMetaDataAsync(String tableName) {
+        return collectTableMetaDataAsync(tableName, null);
+    }
+
+    public CompletableFuture<TableMetaData> collectTableMetaDataAsync(String tableName, String schema) {
+        return CompletableFuture.supplyAsync(() -> collectTableMetaData(tableName, schema), getInternalPool());
+    }
+
+    /**
+     * Queues the tables related to the table by the foreign keys for the background collection
+     *
+     * @param table collected table
+     * @param depth number of the foreign key hops to follow
+     */
+    private void prefetchRelatedTables(TableMetaData table, int depth) {
+        if (depth <= 0 || dataSource == null) {
+            return;
+        }
+
+        for (ForeignKeyMetaData foreignKey : table.foreignKeyConstraints()) {
+            String schema = foreignKey.getForeignTableSchema() != null ? foreignKey.getForeignTableSchema() : table.getSchemaName();
+            prefetch(new PrefetchRequest(foreignKey.getForeignTableName(), schema, depth, false));
+        }
+        // the referencing tables are looked up once per table, not on every cache hit
+        if (prefetchChildTables && expandedTables.add(fullTableName(table.getSchemaName(), table.getName()))) {
+            prefetch(new PrefetchRequest(table.getName(), table.getSchemaName(), depth, true));
+        }
+        schedulePrefetch();
+    }
+
+    private void prefetch(PrefetchRequest request) {
+        if (request.children || tablesMetaDataCache.peek(fullTableName(request.schema, request.tableName)) == null) {
+            if (queuedPrefetches.add(request.key())) {
+                prefetchQueue.add(request);
+            }
+        }
+    }
+
+    /**
+     * Starts the single prefetch worker, unless it is already running
+     */
+    private void schedulePrefetch() {
+        if (!prefetchQueue.isEmpty() && prefetchRunning.compareAndSet(false, true)) {
+            try {
+                getPrefetchExecutor().execute(this::runPrefetch);
+            } catch (RejectedExecutionException e) {
+                prefetchRunning.set(false);
+            }
+        }
+    }
+
+    /**
+     * Collects the queued tables while a connection is available without waiting. Once the callers hold all
+     * permitted connections the worker stops, and is started again after the next table collected for a caller.
+     * The worker runs on its own thread, so it never takes a thread of the pool from the callers, and uses
+     * at most one connection at a time
+     */
+    private void runPrefetch() {
+        try {
+            PrefetchRequest request;
+            while ((request = prefetchQueue.poll()) != null) {
+                Connection connection = tryGetConnection();
+                if (connection == null) {
+                    prefetchQueue.addFirst(request);
+                    return;
+                }
+
+                queuedPrefetches.remove(request.key());
+                try {
+                    if (request.children) {
+                        for (String[] child : findChildTables(request.tableName, request.schema, connection)) {
+                            prefetch(new PrefetchRequest(child[1], child[0], request.depth, false));
+                        }
+                    } else {
+                        debug("Prefetching metadata of table %s", request.key());
+                        TableMetaData table = collectTableMetaData(request.tableName, request.schema, null, true);
+                        prefetchRelatedTables(table, request.depth - 1);
+                    }
+                } catch (RuntimeException e) {
+                    if (request.children) {
+                        expandedTables.remove(fullTableName(request.schema, request.tableName));
+                    }
+                    debug("Prefetching metadata of table %s failed: %s", request.key(), e.getMessage());
+                } finally {
+                    releaseConnection(connection);
+                }
+            }
+        } finally {
+            prefetchRunning.set(false);
+        }
+        // requests queued after the last poll
+        schedulePrefetch();
+    }
+
+    /**
+     * @return schema and name of the tables referencing the table
+     */
+    private List<String[]> findChildTables(String tableName, String schema, Connection connection) {
+        List<String[]> children = new ArrayList<>();
+        try (ResultSet rs = connection.getMetaData().getExportedKeys(null, schema, tableName)) {
+            while (rs.next()) {
+                String[] child = {rs.getString("FKTABLE_SCHEM"), rs.getString("FKTABLE_NAME")};
+                if (children.stream().noneMatch(c -> Arrays.equals(c, child))) {
+                    children.add(child);
+                }
+            }
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting child tables of " + fullTableName(schema, tableName), e);
+        }
+        return children;
+    }
+
+    /**
+     * Concurrent callers of the same table share one collection. The callers waiting for the collection
+     * of another caller do not take a connection. The owner takes the connection before the collection
+     * is registered, so the owner never waits for the connection held by the callers waiting for it
+     */
+    private TableMetaData collectTableMetaData(String tableName, String schema, SchemaCatalog catalog, boolean cache) {
         String fullTableName = fullTableName(schema, tableName);
 
-        if (tablesMetaDataCache.containsKey(fullTableName)) {
-            return tablesMetaDataCache.get(fullTableName);
+        TableMetaData cached = tablesMetaDataCache.get(fullTableName);
+        if (cached != null) {
+            return cached;
         }
 
-        debug("Collecting metadata for table: %s", fullTableName);
-        String query = "SELECT * FROM " + fullTableName + " WHERE 1<>1";
+        if (!cache) {
+            Connection connection = getConnection();
+            try {
+                return readTableMetaData(tableName, schema, fullTableName, catalog, connection);
+            } finally {
+                releaseConnection(connection);
+            }
+        }
 
-        Connection connection = getConnection();
+        CompletableFuture<TableMetaData> inFlight = inFlightTables.get(fullTableName);
+        if (inFlight == null) {
+            Connection connection = getConnection();
+            try {
+                CompletableFuture<TableMetaData> collection = new CompletableFuture<>();
+                inFlight = inFlightTables.putIfAbsent(fullTableName, collection);
+                if (inFlight == null) {
+                    return collectTableMetaData(tableName, schema, fullTableName, catalog, connection, collection);
+                }
+            } finally {
+                releaseConnection(connection);
+            }
+        }
+
+        debug("Waiting for the metadata of table %s collected by another caller", fullTableName);
+        return join(inFlight);
+    }
+
+    private TableMetaData collectTableMetaData(String tableName, String schema, String fullTableName, SchemaCatalog catalog,
+                                               Connection connection, CompletableFuture<TableMetaData> collection) {
         try {
-            PreparedStatement stmt;
+            // the table may have been collected by the previous owner since the cache was checked
+            TableMetaData tableMetaData = tablesMetaDataCache.peek(fullTableName);
+            if (tableMetaData == null) {
+                tableMetaData = readTableMetaData(tableName, schema, fullTableName, catalog, connection);
+                tablesMetaDataCache.put(fullTableName, tableMetaData);
+            }
+            collection.complete(tableMetaData);
+            return tableMetaData;
+        } catch (RuntimeException e) {
+            collection.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightTables.remove(fullTableName, collection);
+        }
+    }
+
+    private TableMetaData readTableMetaData(String tableName, String schema, String fullTableName, SchemaCatalog catalog, Connection connection) {
+        StopWatch sw = new StopWatch().start();
+        debug("Collecting metadata for table: %s", fullTableName);
 
+        try {
             TableMetaData tableMetaData = new TableMetaData()
                     .setName(tableName)
                     .setSchemaName(schema);
-            stmt = connection.prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-            ResultSetMetaData rsMetaData = rs.getMetaData();
 
-            DatabaseMetaData databaseMetaData = connection.getMetaData();
-            List<String> primaryKeys = findPrimaryKeys(tableName, schema, databaseMetaData);
-            Map<String, ForeignKeyMetaData> foreignKeys = findForeignKeys(tableName, schema, databaseMetaData);
+            List<ColumnMetaData> columns = collectColumns(tableName, schema, connection, catalog);
 
+            List<String> primaryKeys;
+            Map<String, ForeignKeyMetaData> foreignKeys;
             List<IndexMetaData> indexes = new ArrayList<>();
+
+            if (catalog != null && catalog.keysLoaded()) {
+                primaryKeys = catalog.primaryKeys(tableName);
+                foreignKeys = catalog.foreignKeys(tableName);
+            } else {
+                DatabaseMetaData databaseMetaData = connection.getMetaData();
+                primaryKeys = findPrimaryKeys(tableName, schema, databaseMetaData);
+                foreignKeys = findForeignKeys(tableName, schema, databaseMetaData);
+            }
+
             if (!skipIndexes) {
-                indexes = findIndexes(tableName, schema);
+                indexes = catalog != null && catalog.indexesLoaded() ? catalog.indexes(tableName) : findIndexes(tableName, schema);
                 tableMetaData.setIndexes(indexes);
             }
 
-            for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
-                ColumnMetaData columnMetadata = createColumnMetadata(tableName, rsMetaData, i, primaryKeys, indexes);
+            Map<String, List<IndexMetaData>> indexesByColumn = IndexAssembler.indexesByColumn(indexes);
+
+            for (ColumnMetaData columnMetadata : columns) {
+                String columnName = columnMetadata.getName();
+                List<IndexMetaData> columnIndexes = indexesByColumn.get(columnName);
+                columnMetadata
+                        .setPrimaryKey(primaryKeys.contains(columnName))
+                        .setIndexes(columnIndexes != null ? columnIndexes : new ArrayList<>())
+                        .setForeignKeyMetaData(foreignKeys.get(columnName));
                 tableMetaData.addColumn(columnMetadata);
-                ForeignKeyMetaData foreignKeyMetaData = foreignKeys.get(columnMetadata.getName());
-                columnMetadata.setForeignKeyMetaData(foreignKeyMetaData);
             }
 
             if (!primaryKeys.isEmpty()) {
                 PrimaryKeyMetaData primaryKey = new PrimaryKeyMetaData(tableMetaData.filterColumns(ColumnMetaData::isPrimaryKey));
                 tableMetaData.setPrimaryKey(primaryKey);
             }
-            tablesMetaDataCache.put(fullTableName, tableMetaData);
+
+            if (namePool != null) {
+                tableMetaData.internNames(namePool);
+            }
 
             info("Table %s metadata collected in %dms", tableName, sw.stop().getTotalTimeMillis());
             if (progressMonitor != null) {
@@ -182,10 +907,8 @@ public class JdbcMetaDataCollector implements AutoCloseable {
             }
             return tableMetaData;
 
-        } catch (SQLException | ClassNotFoundException e) {
+        } catch (SQLException e) {
             throw new JdbcMetaDataException("Error getting metadata for table " + fullTableName, e);
-        } finally {
-            releaseConnection(connection);
         }
     }
 
@@ -205,7 +928,58 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         return schema + tableName;
     }
 
-    private ColumnMetaData createColumnMetadata(String tableName, ResultSetMetaData rs, int index, List<String> primaryKeys, List<IndexMetaData> indexes) throws SQLException, ClassNotFoundException {
+    private List<ColumnMetaData> collectColumns(String tableName, String schema, Connection connection, SchemaCatalog catalog) throws SQLException {
+        if (catalog != null && catalog.hasColumnsFor(tableName)) {
+            return catalog.columns(tableName);
+        }
+
+        if (columnSource == ColumnSource.CATALOG) {
+            // a null schema would match the tables of the same name in every schema
+            String catalogSchema = schema != null ? schema : currentSchema(connection);
+            if (catalogSchema != null) {
+                List<ColumnMetaData> columns = readColumns(connection.getMetaData().getColumns(null, catalogSchema, tableName, "%"), catalogSchema).get(tableName);
+                if (columns != null) {
+                    return columns;
+                }
+            }
+        }
+
+        String fullTableName = fullTableName(schema, tableName);
+
+        if (columnSource != ColumnSource.QUERY) {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT * FROM " + fullTableName)) {
+                ResultSetMetaData rsMetaData = stmt.getMetaData();
+                if (rsMetaData != null) {
+                    return createColumnsMetadata(tableName, rsMetaData);
+                }
+                debug("Driver does not provide metadata of the prepared statement for table %s", fullTableName);
+            }
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT * FROM " + fullTableName + " WHERE 1<>1");
+             ResultSet rs = stmt.executeQuery()) {
+            return createColumnsMetadata(tableName, rs.getMetaData());
+        }
+    }
+
+    private String currentSchema(Connection connection) {
+        try {
+            return connection.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            debug("Driver does not provide the current schema: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<ColumnMetaData> createColumnsMetadata(String tableName, ResultSetMetaData rsMetaData) throws SQLException {
+        List<ColumnMetaData> columns = new ArrayList<>();
+        for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
+            columns.add(createColumnMetadata(tableName, rsMetaData, i));
+        }
+        return columns;
+    }
+
+    private ColumnMetaData createColumnMetadata(String tableName, ResultSetMetaData rs, int index) throws SQLException {
         StopWatch sw = new StopWatch().start();
         String columnClassName = rs.getColumnClassName(index);
         Class<?> clazz = null;
@@ -216,7 +990,6 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         }
 
         String columnName = rs.getColumnName(index);
-        List<IndexMetaData> columnIndexes = indexes.stream().filter(i -> i.columnNames().contains(columnName)).collect(Collectors.toList());
 
         ColumnMetaData columnMetaData = new ColumnMetaData()
                 .setName(columnName)
@@ -230,106 +1003,255 @@ public class JdbcMetaDataCollector implements AutoCloseable {
                 .setTableName(tableName)
                 .setAutoIncrement(rs.isAutoIncrement(index))
                 .setNullable(rs.isNullable(index) == ResultSetMetaData.columnNullable)
-                .setPrimaryKey(primaryKeys.contains(columnName))
-                .setIndexes(columnIndexes);
+                .setOrdinalPosition(index);
+
+        debug("Column %s metadata created in %dms", columnName, sw.stop().getTotalTimeMillis());
+
+        return columnMetaData;
+    }
+
+    private Map<String, List<ColumnMetaData>> readColumns(ResultSet rs, String schema) throws SQLException {
+        Map<String, List<ColumnMetaData>> columns = new HashMap<>();
+
+        try {
+            while (rs.next()) {
+                // schema and table name arguments are patterns, skip the rows of similarly named objects
+                if (schema != null && !schema.equals(rs.getString("TABLE_SCHEM"))) {
+                    continue;
+                }
+                String tableName = rs.getString("TABLE_NAME");
+                int sqlType = rs.getInt("DATA_TYPE");
+                ColumnMetaData columnMetaData = new ColumnMetaData()
+                        .setName(rs.getString("COLUMN_NAME"))
+                        .setSqlType(sqlType)
+                        .setReadOnly(false)
+                        .setWritable(true)
+                        .setSqlTypeName(rs.getString("TYPE_NAME"))
+                        .setPrecision(rs.getInt("COLUMN_SIZE"))
+                        .setJavaType(JdbcUtil.javaType(sqlType))
+                        .setScale(rs.getInt("DECIMAL_DIGITS"))
+                        .setTableName(tableName)
+                        .setAutoIncrement("YES".equals(rs.getString("IS_AUTOINCREMENT")))
+                        .setNullable(rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable)
+                        .setOrdinalPosition(rs.getInt("ORDINAL_POSITION"))
+                        .setDefaultValue(rs.getString("COLUMN_DEF"))
+                        .setRemarks(rs.getString("REMARKS"));
+
+                columns.computeIfAbsent(tableName, t -> new ArrayList<>()).add(columnMetaData);
+            }
+        } finally {
+            rs.close();
+        }
+
+        columns.values().forEach(list -> list.sort(Comparator.comparing(ColumnMetaData::getOrdinalPosition)));
+        return columns;
+    }
+
+    private List<IndexMetaData> findIndexes(String tableName, String schema) {
+        Connection connection = getConnection();
+
+        try {
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            ResultSet rs = databaseMetaData.getIndexInfo(null, schema, tableName, false, false);
+            //JdbcUtil.printResultSet(rs);
+
+            return readIndexes(rs).values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting indexes for " + tableName, e);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    private Map<String, List<IndexMetaData>> readIndexes(ResultSet rs) throws SQLException {
+        IndexAssembler indexes = new IndexAssembler();
+
+        while (rs.next()) {
+            String tableName = rs.getString("TABLE_NAME");
+            String indexName = rs.getString("INDEX_NAME");
+            IndexMetaData indexMetaData = indexes.index(tableName, indexName);
+
+            if (indexMetaData == null) {
+                indexMetaData = new IndexMetaData()
+                        .setName(indexName)
+                        .setType(rs.getInt("TYPE"))
+                        .setCardinality(rs.getInt("CARDINALITY"))
+                        .setPages(rs.getInt("PAGES"))
+                        .setUnique("FALSE".equals(rs.getString("NON_UNIQUE")));
+            }
+
+            indexes.add(tableName, indexMetaData, createIndexColumnMetadata(rs));
+        }
+
+        return indexes.indexes();
+    }
+
+    private IndexColumnMetadata createIndexColumnMetadata(ResultSet rs) {
+        try {
+            return new IndexColumnMetadata()
+                    .setName(rs.getString("COLUMN_NAME"))
+                    .setAscending("A".equals(rs.getString("ASC_OR_DESC")))
+                    .setOrdinalPosition(rs.getInt("ORDINAL_POSITION"))
+                    .setSortType(rs.getInt("SORT_TYPE"))
+                    ;
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error creating index column metadata", e);
+        }
+    }
+
+    private List<String> findPrimaryKeys(String tableName, String schema, DatabaseMetaData databaseMetaData) {
+        StopWatch sw = new StopWatch().start();
+        try {
+            ResultSet rs = databaseMetaData.getPrimaryKeys(null, schema, tableName.toUpperCase());
+            List<String> pks = readPrimaryKeys(rs).values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+
+            debug("Primary keys for table %s found. Took %dms", tableName, sw.stop().getTotalTimeMillis());
+            return pks;
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting primary keys for " + tableName, e);
+        }
+    }
+
+    private Map<String, List<String>> readPrimaryKeys(ResultSet rs) throws SQLException {
+        Map<String, List<String>> pks = new HashMap<>();
+
+        while (rs.next()) {
+            pks.computeIfAbsent(rs.getString(3), t -> new ArrayList<>()).add(rs.getString(4));
+        }
+
+        return pks;
+    }
+
+    private Map<String, ForeignKeyMetaData> findForeignKeys(String tableName, String schema, DatabaseMetaData databaseMetaData) {
+        StopWatch sw = new StopWatch().start();
+        try {
+            ResultSet rs = databaseMetaData.getImportedKeys(null, schema, tableName.toUpperCase());
+            //JdbcUtil.printResultSet(rs);
+            Map<String, ForeignKeyMetaData> map = new HashMap<>();
+            readForeignKeys(rs).values().forEach(map::putAll);
+
+            debug("Foreign keys for table %s found. Took %dms", tableName, sw.stop().getTotalTimeMillis());
+
+            return map;
+        } catch (SQLException e) {
+            throw new JdbcMetaDataException("Error getting foreign keys for " + tableName, e);
+        }
+    }
+
+    private Map<String, Map<String, ForeignKeyMetaData>> readForeignKeys(ResultSet rs) throws SQLException {
+        ForeignKeyAssembler foreignKeys = new ForeignKeyAssembler();
+
+        while (rs.next()) {
+            foreignKeys.add(rs.getString("FKTABLE_NAME"), rs.getString(columnName("FK_NAME")), rs.getInt(9),
+                    rs.getString("FKCOLUMN_NAME"), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getInt(10), rs.getInt(11));
+        }
 
-        debug("Column %s metadata created in %dms", columnName, sw.stop().getTotalTimeMillis());
+        return foreignKeys.foreignKeys();
+    }
 
-        return columnMetaData;
+    /**
+     * Loads the catalog data of all tables in schema using the database strategy and single generic call per kind of data
+     *
+     * @param schema schema name
+     * @return grouped catalog data or <code>null</code> if there is nothing to load at the schema level
+     */
+    private SchemaCatalog loadSchemaCatalog(String schema) {
+        boolean catalogColumns = columnSource == ColumnSource.CATALOG || columnSource == ColumnSource.AUTO;
+        if (!bulkCollection && !catalogColumns && databaseStrategy == null) {
+            return null;
+        }
+        return loadSchemaCatalog(schema, catalogColumns, bulkCollection);
     }
 
-    private List<IndexMetaData> findIndexes(String tableName, String schema) {
+    private SchemaCatalog loadSchemaCatalog(String schema, boolean catalogColumns, boolean bulkCollection) {
+        StopWatch sw = new StopWatch().start();
         Connection connection = getConnection();
-
         try {
             DatabaseMetaData databaseMetaData = connection.getMetaData();
-            ResultSet rs = databaseMetaData.getIndexInfo(null, schema, tableName, false, false);
-            //JdbcUtil.printResultSet(rs);
+            SchemaCatalog catalog = databaseStrategy != null
+                    ? databaseStrategy.loadSchemaCatalog(connection, schema, skipIndexes)
+                    : new SchemaCatalog().setSchemaName(schema);
 
-            Map<String, IndexMetaData> indexNameMap = new HashMap<>();
+            if (catalogColumns && !catalog.columnsLoaded()) {
+                catalog.setColumns(readColumns(databaseMetaData.getColumns(null, schema, "%", "%"), schema));
+            }
 
-            while (rs.next()) {
-                String indexName = rs.getString("INDEX_NAME");
-                IndexMetaData indexMetaData = indexNameMap.computeIfAbsent(indexName, s -> new IndexMetaData());
-                indexMetaData
-                        .setName(indexName)
-                        .setType(rs.getInt("INDEX_TYPE"))
-                        .setCardinality(rs.getInt("CARDINALITY"))
-                        .setPages(rs.getInt("PAGES"))
-                        .setUnique("FALSE".equals(rs.getString("NON_UNIQUE")))
-                        .addIndexColumn(createIndexColumnMetadata(rs))
-                ;
+            if (bulkCollection) {
+                Map<String, List<String>> primaryKeys = catalog.keysLoaded() ? null : readPrimaryKeys(databaseMetaData.getPrimaryKeys(null, schema, null));
+                Map<String, List<IndexMetaData>> indexes = skipIndexes || catalog.indexesLoaded() ? null : readIndexes(databaseMetaData.getIndexInfo(null, schema, null, false, false));
+
+                // Drivers that require the exact table name return nothing for the null pattern
+                if ((primaryKeys != null && !primaryKeys.isEmpty()) || (indexes != null && !indexes.isEmpty())) {
+                    if (primaryKeys != null) {
+                        catalog
+                                .setPrimaryKeys(primaryKeys)
+                                .setForeignKeys(readForeignKeys(databaseMetaData.getImportedKeys(null, schema, null)));
+                    }
+                    catalog.setIndexes(indexes != null ? indexes : catalog.getIndexes());
+                } else if (primaryKeys != null || indexes != null) {
+                    debug("Bulk keys and indexes are not available for schema %s", schema);
+                }
             }
 
-            return new ArrayList<>(indexNameMap.values());
+            debug("Catalog data for schema %s loaded in %dms", schema, sw.stop().getTotalTimeMillis());
+            return catalog;
         } catch (SQLException e) {
-            throw new JdbcMetaDataException("Error getting indexes for " + tableName, e);
+            throw new JdbcMetaDataException("Error getting catalog data for schema " + schema, e);
         } finally {
             releaseConnection(connection);
         }
     }
 
-    private IndexColumnMetadata createIndexColumnMetadata(ResultSet rs) {
+    /**
+     * Catalog data of the whole schema for the {@link LazyTableMetaData lazy tables}. Keys and indexes are loaded
+     * in bulk regardless of the {@link #setBulkCollection(boolean) bulk collection} setting, columns only if
+     * the {@link ColumnSource column source} reads the catalog, as for the eager collection
+     */
+    SchemaCatalog loadLazySchemaCatalog(String schema) {
+        info("Prefetching catalog data of schema %s", schema);
+        return loadSchemaCatalog(schema, columnSource == ColumnSource.CATALOG || columnSource == ColumnSource.AUTO, true);
+    }
+
+    List<ColumnMetaData> loadColumns(String tableName, String schema) {
+        Connection connection = getConnection();
         try {
-            return new IndexColumnMetadata()
-                    .setName(rs.getString("COLUMN_NAME"))
-                    .setAscending("A".equals(rs.getString("ASC_OR_DESC")))
-                    .setOrdinalPosition(rs.getInt("ORDINAL_POSITION"))
-                    .setSortType(rs.getInt("SORT_TYPE"))
-                    ;
+            return collectColumns(tableName, schema, connection, null);
         } catch (SQLException e) {
-            throw new JdbcMetaDataException("Error creating index column metadata", e);
+            throw new JdbcMetaDataException("Error getting columns for " + fullTableName(schema, tableName), e);
+        } finally {
+            releaseConnection(connection);
         }
     }
 
-    private List<String> findPrimaryKeys(String tableName, String schema, DatabaseMetaData databaseMetaData) {
-        StopWatch sw = new StopWatch().start();
+    List<String> loadPrimaryKeys(String tableName, String schema) {
+        Connection connection = getConnection();
         try {
-            ResultSet rs = databaseMetaData.getPrimaryKeys(null, schema, tableName.toUpperCase());
-            List<String> fks = new ArrayList<>();
-
-            while (rs.next()) {
-                fks.add(rs.getString(4));
-            }
-
-            debug("Primary keys for table %s found. Took %dms", tableName, sw.stop().getTotalTimeMillis());
-            return fks;
+            return findPrimaryKeys(tableName, schema, connection.getMetaData());
         } catch (SQLException e) {
-            throw new JdbcMetaDataException("Error getting primary keys for " + tableName, e);
+            throw new JdbcMetaDataException("Error getting primary keys for " + fullTableName(schema, tableName), e);
+        } finally {
+            releaseConnection(connection);
         }
     }
 
-    private Map<String, ForeignKeyMetaData> findForeignKeys(String tableName, String schema, DatabaseMetaData databaseMetaData) {
-        StopWatch sw = new StopWatch().start();
+    Map<String, ForeignKeyMetaData> loadForeignKeys(String tableName, String schema) {
+        Connection connection = getConnection();
         try {
-            ResultSet rs = databaseMetaData.getImportedKeys(null, schema, tableName.toUpperCase());
-            Map<String, ForeignKeyMetaData> map = new HashMap<>();
-            //JdbcUtil.printResultSet(rs);
-            while (rs.next()) {
-                String foreignTableSchema = rs.getString(2);
-                String foreignTableName = rs.getString(3);
-                String foreignColumnName = rs.getString(4);
-                Integer updateRule = rs.getInt(10);
-                Integer deleteRule = rs.getInt(11);
-                ForeignKeyMetaData fk = new ForeignKeyMetaData()
-                        .setName(rs.getString(columnName("FK_NAME")))
-                        .setForeignTableName(foreignTableName)
-                        .setForeignColumnName(foreignColumnName)
-                        .setUpdateRule(updateRule)
-                        .setDeleteRule(deleteRule)
-                        .setForeignTableSchema(foreignTableSchema);
-
-                map.put(rs.getString("FKCOLUMN_NAME"), fk);
-            }
-
-            debug("Foreign keys for table %s found. Took %dms", tableName, sw.stop().getTotalTimeMillis());
-
-            return map;
-        } catch (SQLException e) {
-            throw new JdbcMetaDataException("Error getting foreign keys for " + tableName, e);
+            return findForeignKeys(tableName, schema, connection);
+        } finally {
+            releaseConnection(connection);
         }
     }
 
+    List<IndexMetaData> loadIndexes(String tableName, String schema) {
+        return skipIndexes ? new ArrayList<>() : findIndexes(tableName, schema);
+    }
+
     private Map<String, ForeignKeyMetaData> findForeignKeys(String tableName, String schema, Connection connection) {
         try {
             return findForeignKeys(tableName, schema, connection.getMetaData());
@@ -339,7 +1261,7 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     }
 
     private boolean schemaExists(String schema) {
-        if (allSchemaNames != null && allSchemaNames.contains(schema)) {
+        if (schemaNameCached(schema)) {
             return true;
         }
         Connection connection = getConnection();
@@ -353,7 +1275,7 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     }
 
     private boolean schemaExists(String schema, DatabaseMetaData databaseMetaData) {
-        if (allSchemaNames != null && allSchemaNames.contains(schema)) {
+        if (schemaNameCached(schema)) {
             return true;
         }
         StopWatch sw = new StopWatch().start();
@@ -366,9 +1288,6 @@ public class JdbcMetaDataCollector implements AutoCloseable {
             while (rs.next()) {
                 exists = true;
             }
-            if (exists) {
-                allSchemaNames.add(schema);
-            }
             debug("Schema existence check took %dms", sw.stop().getTotalTimeMillis());
             return exists;
         } catch (SQLException e) {
@@ -376,20 +1295,14 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         }
     }
 
-    private List<TableMetaData> collectTablesMetaDataForSchema(String schema) {
-        try {
-            return getInternalPool().submit(() -> findTableNamesForSchema(schema).parallelStream()
-                    .filter(tn -> !skipTables.apply(schema, tn))
-                    .map(tn -> collectTableMetaData(tn, schema))
-                    .collect(Collectors.toList())).get();
-        } catch (Exception e) {
-            throw new JdbcMetaDataException(e);
-        }
+    private boolean schemaNameCached(String schema) {
+        List<String> schemaNames = allSchemaNames.get(ALL_SCHEMAS);
+        return schemaNames != null && schemaNames.contains(schema);
     }
 
     private List<String> findTableNamesForSchema(String schema) {
         StopWatch sw = new StopWatch().start();
-        Set<String> names = tableNames.get(schema);
+        List<String> names = tableNames.get(schema);
 
         if (names != null) {
             debug("All table names for schema %s cached %dms", schema, sw.stop().getTotalTimeMillis());
@@ -398,14 +1311,18 @@ public class JdbcMetaDataCollector implements AutoCloseable {
 
         Connection connection = getConnection();
         try {
-            DatabaseMetaData databaseMetaData = connection.getMetaData();
-            ResultSet rs = databaseMetaData.getTables(null, schema, "%", new String[]{"TABLE"});
-            List<String> tables = new ArrayList<>();
-            while (rs.next()) {
-                tables.add(rs.getString("TABLE_NAME"));
+            List<String> tables = databaseStrategy != null ? databaseStrategy.loadTableNames(connection, schema) : null;
+
+            if (tables == null) {
+                DatabaseMetaData databaseMetaData = connection.getMetaData();
+                ResultSet rs = databaseMetaData.getTables(null, schema, "%", new String[]{"TABLE"});
+                tables = new ArrayList<>();
+                while (rs.next()) {
+                    tables.add(rs.getString("TABLE_NAME"));
+                }
             }
             debug("All table names for schema %s cached %dms", schema, sw.stop().getTotalTimeMillis());
-            tableNames.put(schema, new HashSet<>(tables));
+            tableNames.put(schema, new ArrayList<>(tables));
             return tables;
         } catch (SQLException e) {
             throw new JdbcMetaDataException("Error getting table names for schema " + schema, e);
@@ -426,13 +1343,17 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         if (!skipSequences && databaseStrategy != null) {
 
             if (dataSource != null) {
-                databaseStrategy.setDataSource(dataSource);
+                databaseStrategy.setDataSource(leasingDataSource());
             } else {
                 databaseStrategy.setConnection(getConnection());
             }
 
-            return databaseStrategy
+            List<SequenceMetaData> sequences = databaseStrategy
                     .collectSequencesMetaData(schemaName);
+            if (namePool != null) {
+                sequences.forEach(sequence -> sequence.internNames(namePool));
+            }
+            return sequences;
         } else {
             return Collections.emptyList();
         }
@@ -441,9 +1362,10 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     private List<String> findAllSchemaNames(DatabaseMetaData databaseMetaData) {
         StopWatch sw = new StopWatch().start();
 
-        if (allSchemaNames != null && !allSchemaNames.isEmpty()) {
+        List<String> cachedSchemaNames = allSchemaNames.get(ALL_SCHEMAS);
+        if (cachedSchemaNames != null) {
             debug("All schemas names found in cache %dms", sw.stop().getTotalTimeMillis());
-            return new ArrayList<>(allSchemaNames);
+            return new ArrayList<>(cachedSchemaNames);
         }
         try {
             ResultSet rs = databaseMetaData.getSchemas();
@@ -454,8 +1376,7 @@ public class JdbcMetaDataCollector implements AutoCloseable {
                 schemaNames.add(rs.getString(1));
             }
 
-            allSchemaNames = new HashSet<>(allSchemaNames);
-            allSchemaNames.addAll(schemaNames);
+            allSchemaNames.put(ALL_SCHEMAS, new ArrayList<>(schemaNames));
 
             debug("All schemas names found in %dms", sw.stop().getTotalTimeMillis());
             return schemaNames;
@@ -467,9 +1388,10 @@ public class JdbcMetaDataCollector implements AutoCloseable {
     private List<String> findAllSchemaNames() {
         StopWatch sw = new StopWatch().start();
 
-        if (allSchemaNames != null && !allSchemaNames.isEmpty()) {
+        List<String> cachedSchemaNames = allSchemaNames.get(ALL_SCHEMAS);
+        if (cachedSchemaNames != null) {
             debug("All schemas names found in cache %dms", sw.stop().getTotalTimeMillis());
-            return new ArrayList<>(allSchemaNames);
+            return new ArrayList<>(cachedSchemaNames);
         }
         Connection connection = getConnection();
         try {
@@ -481,8 +1403,7 @@ public class JdbcMetaDataCollector implements AutoCloseable {
                 schemaNames.add(rs.getString(1));
             }
 
-            allSchemaNames = new HashSet<>(allSchemaNames);
-            allSchemaNames.addAll(schemaNames);
+            allSchemaNames.put(ALL_SCHEMAS, new ArrayList<>(schemaNames));
 
             debug("All schemas names found in %dms", sw.stop().getTotalTimeMillis());
             return schemaNames;
@@ -493,13 +1414,27 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         }
     }
 
+    /**
+     * Leases the connection to the current thread. Nested calls in the same thread get the same connection,
+     * so collection of a table never holds more than one connection
+     */
     private Connection getConnection() {
         if (dataSource != null) {
+            ConnectionLease lease = connectionLease.get();
+            if (lease != null) {
+                lease.count++;
+                return lease.connection;
+            }
+
+            acquireConnectionPermit();
             try {
-                return dataSource.getConnection();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+                lease = new ConnectionLease(dataSource.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                releaseConnectionPermit();
+                throw new JdbcMetaDataException("Error getting connection", e);
             }
+            connectionLease.set(lease);
+            return lease.connection;
         } else if (connection != null) {
             return connection;
         } else {
@@ -507,6 +1442,84 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         }
     }
 
+    /**
+     * Leases the connection like {@link #getConnection()} only if it is available without waiting for the permit
+     *
+     * @return connection or <code>null</code> if all permitted connections are in use
+     */
+    private Connection tryGetConnection() {
+        ConnectionLease lease = connectionLease.get();
+        if (lease != null) {
+            lease.count++;
+            return lease.connection;
+        }
+
+        Semaphore connectionPermits = connectionPermits();
+        if (connectionPermits != null && !connectionPermits.tryAcquire()) {
+            return null;
+        }
+        try {
+            lease = new ConnectionLease(dataSource.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            releaseConnectionPermit();
+            throw new JdbcMetaDataException("Error getting connection", e);
+        }
+        connectionLease.set(lease);
+        return lease.connection;
+    }
+
+    private void acquireConnectionPermit() {
+        Semaphore connectionPermits = connectionPermits();
+        if (connectionPermits != null) {
+            try {
+                connectionPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JdbcMetaDataException("Interrupted while waiting for connection", e);
+            }
+        }
+    }
+
+    private void releaseConnectionPermit() {
+        Semaphore connectionPermits = connectionPermits();
+        if (connectionPermits != null) {
+            connectionPermits.release();
+        }
+    }
+
+    private Semaphore connectionPermits() {
+        if (connectionPermits == null && usesVirtualThreads()) {
+            synchronized (this) {
+                if (connectionPermits == null) {
+                    connectionPermits = new Semaphore(Math.max(1, parallelism));
+                }
+            }
+        }
+        return connectionPermits;
+    }
+
+    private boolean usesVirtualThreads() {
+        return virtualThreads && dataSource != null && pool == null && NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return data source for the database strategy, that hands out the connection leased to the current thread
+     */
+    private DataSource leasingDataSource() {
+        if (leasingDataSource == null) {
+            leasingDataSource = new LeasingDataSource();
+        }
+        return leasingDataSource;
+    }
+
     private JdbcDatabaseMetaData populateExtraDatabaseData(JdbcDatabaseMetaData jdbcDatabaseMetaData, DatabaseMetaData md) {
         try {
             return jdbcDatabaseMetaData
@@ -551,6 +1564,33 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         return this;
     }
 
+    public boolean isBulkCollection() {
+        return bulkCollection;
+    }
+
+    /**
+     * Collect primary keys, foreign keys and indexes with one catalog call per schema instead of one call per table.
+     * Falls back to the per-table calls if the driver does not return the catalog data for all tables at once
+     *
+     * @param bulkCollection the flag value
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setBulkCollection(boolean bulkCollection) {
+        this.bulkCollection = bulkCollection;
+        return this;
+    }
+
+    public ColumnSource getColumnSource() {
+        return columnSource;
+    }
+
+    public JdbcMetaDataCollector setColumnSource(ColumnSource columnSource) {
+        if (columnSource != null) {
+            this.columnSource = columnSource;
+        }
+        return this;
+    }
+
     public JdbcMetaDataCollector setSkipSequences(boolean skipSequences) {
         this.skipSequences = skipSequences;
         return this;
@@ -592,10 +1632,293 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         return this;
     }
 
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Limits the number of connections taken from the data source at the same time. Usually equals to the size
+     * of the connection pool. The number of table collection workers never exceeds this limit
+     *
+     * @param maxConnections max number of connections, zero or negative means no limit
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        this.connectionPermits = maxConnections > 0 ? new Semaphore(maxConnections) : null;
+        return this;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Runs the collection tasks on virtual threads, when the runtime supports them (Java 21+). Concurrent connections
+     * and the table collection workers are limited by {@link #setMaxConnections(int)}, or by the parallelism
+     * if no limit is set.
+     * Ignored on older runtimes, with an external pool or without a data source
+     *
+     * @param virtualThreads the flag value
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        if (virtualThreads && NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            info("Virtual threads are not supported by the runtime %s, platform threads will be used", System.getProperty("java.version"));
+        }
+        return this;
+    }
+
+    public int getStreamBufferSize() {
+        return streamBufferSize;
+    }
+
+    public JdbcMetaDataCollector setStreamBufferSize(int streamBufferSize) {
+        this.streamBufferSize = streamBufferSize;
+        return this;
+    }
+
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    /**
+     * Limits how long the workers of a {@link #streamTablesMetaData(Predicate) table stream} wait for the consumer
+     * while the buffer is full. A stream that is abandoned without being closed would otherwise keep the workers
+     * and their connections forever. There is no limit by default, so a slow consumer never fails
+     *
+     * @param streamTimeout max wait for the consumer, <code>null</code> means no limit
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setStreamTimeout(Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+        return this;
+    }
+
+    /**
+     * Limits the number of cached tables. Least recently used tables are evicted first
+     *
+     * @param maxTables max number of cached tables, zero or negative means no limit
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setCacheMaxTables(long maxTables) {
+        tablesMetaDataCache.setMaxEntries(maxTables);
+        return this;
+    }
+
+    /**
+     * Limits the total weight of the cached tables. The weight of the table is one plus the number of its columns
+     * and indexes
+     *
+     * @param maxWeight max total weight, zero or negative means no limit
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setCacheMaxWeight(long maxWeight) {
+        tablesMetaDataCache.setMaxWeight(maxWeight);
+        return this;
+    }
+
+    /**
+     * Sets the time to live of the cached tables, table names and schema names
+     *
+     * @param ttl time to live, <code>null</code> means no expiration
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setCacheTtl(Duration ttl) {
+        tablesMetaDataCache.setTtl(ttl);
+        tableNames.setTtl(ttl);
+        allSchemaNames.setTtl(ttl);
+        return this;
+    }
+
+    public MetaDataCache<String, TableMetaData> getTablesMetaDataCache() {
+        return tablesMetaDataCache;
+    }
+
+    public boolean isShareSchemaStructures() {
+        return shareSchemaStructures;
+    }
+
+    /**
+     * Shares the tables between the schemas with the same structure, such as the schemas of the tenants.
+     * The first collected schema with the list of tables becomes the template. Of the other schemas with the same
+     * list of tables only {@link #setTemplateSampleSize(int) a sample} is collected and compared with the template
+     * ignoring the schema name. If the sample matches, the schema gets the tables sharing the frozen columns, indexes
+     * and primary keys of the template, and the columns with the foreign keys to its own tables are copied.
+     * Otherwise the rest of the tables is collected as usual.
+     * <p>
+     * Tables of the template schema are {@link TableMetaData#freeze() frozen}, also the ones returned to the caller
+     * and kept in the cache. Tables of the other schemas can get new columns and indexes, but the shared ones
+     * stay frozen. Differences outside of the sample are not noticed
+     *
+     * @param shareSchemaStructures <code>true</code> to share the tables of the similar schemas
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setShareSchemaStructures(boolean shareSchemaStructures) {
+        this.shareSchemaStructures = shareSchemaStructures;
+        return this;
+    }
+
+    public int getTemplateSampleSize() {
+        return templateSampleSize;
+    }
+
+    /**
+     * @param templateSampleSize number of the tables of the schema compared with its template
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setTemplateSampleSize(int templateSampleSize) {
+        this.templateSampleSize = templateSampleSize;
+        return this;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Prefetches the tables referenced by the foreign keys of the table collected with
+     * {@link #collectTableMetaData(String, String)}, so the following calls for these tables hit the cache.
+     * Tables are collected in the background by a single worker thread, that holds at most one connection at a time.
+     * With {@link #setMaxConnections(int) the connection limit} the worker takes a permit only when it is available
+     * without waiting, and stops once the callers hold all of them. A caller may still wait for the table the worker
+     * is collecting at the moment. Requires the data source
+     *
+     * @param prefetchDepth number of the foreign key hops to follow, zero disables the prefetching
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    public boolean isPrefetchChildTables() {
+        return prefetchChildTables;
+    }
+
+    /**
+     * @param prefetchChildTables <code>true</code> to prefetch also the tables referencing the collected table
+     * @return this collector
+     * @see #setPrefetchDepth(int)
+     */
+    public JdbcMetaDataCollector setPrefetchChildTables(boolean prefetchChildTables) {
+        this.prefetchChildTables = prefetchChildTables;
+        return this;
+    }
+
+    public int getLazyBatchThreshold() {
+        return lazyBatchThreshold;
+    }
+
+    /**
+     * @param lazyBatchThreshold number of the lazy tables of the schema fetched one by one, before the catalog data
+     *                           of the whole schema is fetched at once, zero or negative means never
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setLazyBatchThreshold(int lazyBatchThreshold) {
+        this.lazyBatchThreshold = lazyBatchThreshold;
+        return this;
+    }
+
+    public NamePool getNamePool() {
+        return namePool;
+    }
+
+    /**
+     * Sets the pool of the canonical names of the collected metadata. Collectors of the same or similar databases
+     * can share one pool
+     *
+     * @param namePool name pool, <code>null</code> disables interning of the names
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setNamePool(NamePool namePool) {
+        this.namePool = namePool;
+        return this;
+    }
+
+    /**
+     * Removes the table from the cache and the table names of its schema, so the table is collected again
+     * after the DDL changes
+     *
+     * @param schema    schema name
+     * @param tableName table name
+     * @return this collector
+     */
+    public JdbcMetaDataCollector invalidate(String schema, String tableName) {
+        tablesMetaDataCache.invalidate(fullTableName(schema, tableName));
+        expandedTables.remove(fullTableName(schema, tableName));
+        tableNames.invalidate(schema);
+        return this;
+    }
+
+    /**
+     * Removes all tables of the schema, its table names and the schema names from the cache.
+     * Tables collected without the schema are removed when the schema is <code>null</code>
+     *
+     * @param schema schema name
+     * @return this collector
+     */
+    public JdbcMetaDataCollector invalidateSchema(String schema) {
+        String prefix = schema != null && !"".equals(schema.trim()) ? schema + "." : null;
+        Predicate<String> inSchema = key -> prefix != null ? key.startsWith(prefix) : key.indexOf('.') < 0;
+        tablesMetaDataCache.invalidateAll(inSchema);
+        expandedTables.removeIf(inSchema);
+        tableNames.invalidate(schema);
+        allSchemaNames.invalidateAll();
+        return this;
+    }
+
+    public JdbcMetaDataCollector invalidateAll() {
+        tablesMetaDataCache.invalidateAll();
+        expandedTables.clear();
+        tableNames.invalidateAll();
+        allSchemaNames.invalidateAll();
+        return this;
+    }
+
+    public boolean isTrackTableChanges() {
+        return trackTableChanges;
+    }
+
+    /**
+     * Stores the signature of every table collected with its schema, so the metadata can be
+     * {@link #refreshDatabaseMetaData(JdbcDatabaseMetaData) refreshed} later. Costs one signature query per schema
+     *
+     * @param trackTableChanges the flag value
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setTrackTableChanges(boolean trackTableChanges) {
+        this.trackTableChanges = trackTableChanges;
+        return this;
+    }
+
+    public Duration getSnapshotMaxAge() {
+        return snapshotMaxAge;
+    }
+
+    /**
+     * @param snapshotMaxAge age after which the snapshot is collected again, <code>null</code> means never
+     * @return this collector
+     */
+    public JdbcMetaDataCollector setSnapshotMaxAge(Duration snapshotMaxAge) {
+        this.snapshotMaxAge = snapshotMaxAge;
+        return this;
+    }
+
     public ExecutorService getPool() {
         return pool;
     }
 
+    /**
+     * Runs the collection tasks on the given pool instead of an internal one. The number of the table collection
+     * workers follows the size of the pool: {@link ForkJoinPool#getParallelism()} or
+     * {@link ThreadPoolExecutor#getMaximumPoolSize()}. For other or unbounded pools it is the
+     * {@link #setParallelism(int) parallelism}. The {@link #setMaxConnections(int) connection limit} applies in both cases
+     *
+     * @param pool the pool, not shut down by this collector
+     * @return this collector
+     */
     public JdbcMetaDataCollector setPool(ExecutorService pool) {
         this.pool = pool;
         return this;
@@ -603,10 +1926,22 @@ public class JdbcMetaDataCollector implements AutoCloseable {
 
     private void releaseConnection(Connection connection) {
         if (dataSource != null && connection != null) {
+            ConnectionLease lease = connectionLease.get();
+            if (lease != null && lease.connection == connection) {
+                if (--lease.count > 0) {
+                    return;
+                }
+                connectionLease.remove();
+            }
+
             try {
                 connection.close();
             } catch (SQLException e) {
                 throw new JdbcMetaDataException(e);
+            } finally {
+                if (lease != null && lease.connection == connection) {
+                    releaseConnectionPermit();
+                }
             }
         }
     }
@@ -615,7 +1950,7 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         return args;
     }
 
-    private ExecutorService getInternalPool() {
+    private synchronized ExecutorService getInternalPool() {
         if (internalPool != null) {
             return internalPool;
         }
@@ -630,6 +1965,15 @@ public class JdbcMetaDataCollector implements AutoCloseable {
             return internalPool;
         }
 
+        if (usesVirtualThreads()) {
+            try {
+                internalPool = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+                return internalPool;
+            } catch (ReflectiveOperationException e) {
+                throw new JdbcMetaDataException("Error creating virtual thread executor", e);
+            }
+        }
+
         if (parallelism > 1 && dataSource != null) {
             internalPool = new ForkJoinPool(parallelism);
             return internalPool;
@@ -651,10 +1995,221 @@ public class JdbcMetaDataCollector implements AutoCloseable {
         LOG.log(level, String.format(message, params));
     }
 
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "jdbc-metadata-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return prefetchExecutor;
+    }
+
     @Override
     public void close() {
-        if (pool == null) {
+        if (pool == null && internalPool != null) {
             internalPool.shutdownNow();
         }
+        synchronized (this) {
+            if (prefetchExecutor != null) {
+                prefetchExecutor.shutdownNow();
+            }
+        }
+        prefetchQueue.clear();
+        queuedPrefetches.clear();
+    }
+
+    private static class SchemaCollection {
+        private final String name;
+        private final StopWatch stopWatch = new StopWatch().start();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private List<SequenceMetaData> sequences;
+        private List<String> tableNames;
+        private Map<String, String> signatures;
+        private final List<Integer> pending = new ArrayList<>();
+        private final List<Integer> deferred = new ArrayList<>();
+        private SchemaCollection template;
+        private SchemaTemplate sharedTemplate;
+        private SchemaCatalog catalog;
+        private TableMetaData[] tables;
+        private volatile SchemaMetaData result;
+
+        private SchemaCollection(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class TableMetaDataSpliterator extends Spliterators.AbstractSpliterator<TableMetaData> {
+        private static final long PUT_TIMEOUT_MILLIS = 100;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final BlockingQueue<Object> buffer;
+        private final int tableCount;
+        private final Duration timeout;
+        private int delivered;
+        private volatile boolean cancelled;
+        private volatile JdbcMetaDataException timedOut;
+
+        private TableMetaDataSpliterator(int bufferSize, int tableCount, Duration timeout) {
+            // not SIZED, a cancelled or failed collection delivers fewer tables, and count() must traverse the stream
+            super(tableCount, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+            this.tableCount = tableCount;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TableMetaData> action) {
+            if (timedOut != null) {
+                throw timedOut;
+            }
+            if (cancelled || delivered == tableCount) {
+                return false;
+            }
+
+            Object element;
+            try {
+                // the workers may be cancelled while the consumer waits
+                while ((element = buffer.poll(PUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    if (timedOut != null) {
+                        throw timedOut;
+                    }
+                    if (cancelled) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new JdbcMetaDataException("Interrupted while waiting for table metadata", e);
+            }
+
+            if (element instanceof Throwable) {
+                cancel();
+                Throwable e = (Throwable) element;
+                throw e instanceof JdbcMetaDataException ? (JdbcMetaDataException) e : new JdbcMetaDataException(e);
+            }
+
+            delivered++;
+            action.accept((TableMetaData) element);
+            return true;
+        }
+
+        private void put(Object element) {
+            long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : 0;
+            try {
+                while (!cancelled) {
+                    if (buffer.offer(element, PUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                    if (timeout != null && System.nanoTime() - deadline > 0) {
+                        // the consumer is gone or stuck, stop the workers instead of holding the connections
+                        timedOut = new JdbcMetaDataException("Table metadata was not consumed within " + timeout + ", collection is cancelled");
+                        cancel();
+                        LOG.warning(timedOut.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+        }
+
+        private void fail(Throwable e) {
+            tasks.clear();
+            put(e);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            tasks.clear();
+            buffer.clear();
+        }
+    }
+
+    private static class PrefetchRequest {
+        private final String tableName;
+        private final String schema;
+        private final int depth;
+        private final boolean children;
+
+        private PrefetchRequest(String tableName, String schema, int depth, boolean children) {
+            this.tableName = tableName;
+            this.schema = schema;
+            this.depth = depth;
+            this.children = children;
+        }
+
+        private String key() {
+            return (children ? "<-" : "") + schema + "." + tableName;
+        }
+    }
+
+    private static class ConnectionLease {
+        private final Connection connection;
+        private int count = 1;
+
+        private ConnectionLease(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private class LeasingDataSource implements DataSource {
+        @Override
+        public Connection getConnection() {
+            Connection leased = JdbcMetaDataCollector.this.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            releaseConnection(leased);
+                            return null;
+                        }
+                        try {
+                            return method.invoke(leased, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return dataSource.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            dataSource.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            dataSource.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return dataSource.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return dataSource.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return dataSource.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return dataSource.isWrapperFor(iface);
+        }
     }
 }
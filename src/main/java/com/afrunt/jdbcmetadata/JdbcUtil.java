@@ -18,8 +18,8 @@
  */
 package com.afrunt.jdbcmetadata;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.math.BigDecimal;
+import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -55,6 +55,91 @@ public class JdbcUtil {
         return strings;
     }
 
+    /**
+     * Java type returned by {@link ResultSet#getObject(int)} for the given SQL type, according to the JDBC specification
+     *
+     * @param sqlType one of the {@link Types} constants
+     * @return java type or {@link Object} for the unknown and vendor specific types
+     */
+    public static Class<?> javaType(int sqlType) {
+        switch (sqlType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return String.class;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return BigDecimal.class;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return Boolean.class;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return Integer.class;
+            case Types.BIGINT:
+                return Long.class;
+            case Types.REAL:
+                return Float.class;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Double.class;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return byte[].class;
+            case Types.DATE:
+                return Date.class;
+            case Types.TIME:
+                return Time.class;
+            case Types.TIMESTAMP:
+                return Timestamp.class;
+            case Types.TIME_WITH_TIMEZONE:
+                return java.time.OffsetTime.class;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return java.time.OffsetDateTime.class;
+            case Types.CLOB:
+                return Clob.class;
+            case Types.NCLOB:
+                return NClob.class;
+            case Types.BLOB:
+                return Blob.class;
+            case Types.ARRAY:
+                return Array.class;
+            case Types.STRUCT:
+                return Struct.class;
+            case Types.REF:
+                return Ref.class;
+            case Types.ROWID:
+                return RowId.class;
+            case Types.SQLXML:
+                return SQLXML.class;
+            case Types.DATALINK:
+                return java.net.URL.class;
+            default:
+                return Object.class;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters
+     *
+     * @param value characters to hash
+     * @return hash value
+     */
+    public static long hash64(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
     private static String repeat(String str, int times) {
         return IntStream.range(1, times).mapToObj(i -> str).reduce(str, (s, s2) -> s + s2);
     }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the parts of the {@link LazyTableMetaData} of one schema. Parts are fetched for each table separately
+ * until the tables of the schema are touched {@link JdbcMetaDataCollector#setLazyBatchThreshold(int) too often},
+ * then the catalog data of the whole schema is fetched at once and the remaining tables take their parts from it
+ *
+ * @author Andrii Frunt
+ */
+final class LazyTableLoader {
+    private final JdbcMetaDataCollector collector;
+    private final String schema;
+    private final int batchThreshold;
+    private final NamePool namePool;
+    private final AtomicInteger touchedTables = new AtomicInteger();
+    private volatile SchemaCatalog catalog;
+
+    LazyTableLoader(JdbcMetaDataCollector collector, String schema, int batchThreshold, NamePool namePool) {
+        this.collector = collector;
+        this.schema = schema;
+        this.batchThreshold = batchThreshold;
+        this.namePool = namePool;
+    }
+
+    List<ColumnMetaData> columns(boolean firstTouch, String tableName) {
+        SchemaCatalog catalog = catalog(firstTouch);
+        if (catalog != null && catalog.hasColumnsFor(tableName)) {
+            return catalog.columns(tableName);
+        }
+        return collector.loadColumns(tableName, schema);
+    }
+
+    List<String> primaryKeys(boolean firstTouch, String tableName) {
+        SchemaCatalog catalog = catalog(firstTouch);
+        if (catalog != null && catalog.keysLoaded()) {
+            return catalog.primaryKeys(tableName);
+        }
+        return collector.loadPrimaryKeys(tableName, schema);
+    }
+
+    Map<String, ForeignKeyMetaData> foreignKeys(boolean firstTouch, String tableName) {
+        SchemaCatalog catalog = catalog(firstTouch);
+        if (catalog != null && catalog.keysLoaded()) {
+            return catalog.foreignKeys(tableName);
+        }
+        return collector.loadForeignKeys(tableName, schema);
+    }
+
+    List<IndexMetaData> indexes(boolean firstTouch, String tableName) {
+        SchemaCatalog catalog = catalog(firstTouch);
+        if (catalog != null && catalog.indexesLoaded()) {
+            return new ArrayList<>(catalog.indexes(tableName));
+        }
+        return collector.loadIndexes(tableName, schema);
+    }
+
+    void internNames(List<ColumnMetaData> columns, List<IndexMetaData> indexes) {
+        if (namePool != null) {
+            columns.forEach(column -> column.internNames(namePool));
+            indexes.forEach(index -> index.internNames(namePool));
+        }
+    }
+
+    int getBatchThreshold() {
+        return batchThreshold;
+    }
+
+    /**
+     * Fetches the catalog data of the whole schema, unless it was fetched before
+     */
+    SchemaCatalog prefetch() {
+        SchemaCatalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                current = catalog;
+                if (current == null) {
+                    current = collector.loadLazySchemaCatalog(schema);
+                    catalog = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private SchemaCatalog catalog(boolean firstTouch) {
+        if (firstTouch && batchThreshold > 0 && touchedTables.incrementAndGet() > batchThreshold) {
+            return prefetch();
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Handle of the table created from its name, whose columns, primary key, foreign keys and indexes are fetched
+ * on the first access. Each part is fetched once, by one thread, independently of the other parts, so the indexes
+ * are fetched without the columns. Columns carry their key and index attributes, so they are complete only after
+ * all parts are fetched.
+ *
+ * @author Andrii Frunt
+ * @see JdbcMetaDataCollector#collectLazySchemaMetaData(String)
+ */
+final class LazyTableMetaData extends TableMetaData {
+    private final LazyTableLoader loader;
+    private final AtomicBoolean touched = new AtomicBoolean();
+    private final Part<List<ColumnMetaData>> columnDefinitions;
+    private final Part<List<String>> primaryKeyColumns;
+    private final Part<Map<String, ForeignKeyMetaData>> foreignKeys;
+    private final Part<List<IndexMetaData>> indexes;
+    private volatile boolean assembled;
+
+    LazyTableMetaData(String name, String schema, LazyTableLoader loader) {
+        this.loader = loader;
+        setName(name);
+        setSchemaName(schema);
+        columnDefinitions = new Part<>(() -> loader.columns(touch(), name));
+        primaryKeyColumns = new Part<>(() -> loader.primaryKeys(touch(), name));
+        foreignKeys = new Part<>(() -> loader.foreignKeys(touch(), name));
+        indexes = new Part<>(() -> {
+            List<IndexMetaData> tableIndexes = loader.indexes(touch(), name);
+            LazyTableMetaData.super.setIndexes(tableIndexes);
+            return tableIndexes;
+        });
+    }
+
+    @Override
+    public List<ColumnMetaData> getColumns() {
+        assemble();
+        return super.getColumns();
+    }
+
+    @Override
+    public TableMetaData setColumns(List<ColumnMetaData> columns) {
+        assembled = true;
+        return super.setColumns(columns);
+    }
+
+    @Override
+    public PrimaryKeyMetaData getPrimaryKey() {
+        assemble();
+        return super.getPrimaryKey();
+    }
+
+    @Override
+    public TableMetaData setPrimaryKey(PrimaryKeyMetaData primaryKey) {
+        assemble();
+        return super.setPrimaryKey(primaryKey);
+    }
+
+    @Override
+    public List<IndexMetaData> getIndexes() {
+        indexes.get();
+        return super.getIndexes();
+    }
+
+    @Override
+    public TableMetaData setIndexes(List<IndexMetaData> indexes) {
+        this.indexes.set(indexes);
+        return super.setIndexes(indexes);
+    }
+
+    boolean isLoaded() {
+        return assembled;
+    }
+
+    LazyTableLoader getLoader() {
+        return loader;
+    }
+
+    /**
+     * Fetches all parts of the table
+     */
+    void load() {
+        assemble();
+    }
+
+    private void assemble() {
+        if (assembled) {
+            return;
+        }
+        synchronized (this) {
+            if (assembled) {
+                return;
+            }
+
+            List<String> primaryKey = primaryKeyColumns.get();
+            Map<String, ForeignKeyMetaData> tableForeignKeys = foreignKeys.get();
+            Map<String, List<IndexMetaData>> indexesByColumn = IndexAssembler.indexesByColumn(getIndexes());
+
+            List<ColumnMetaData> columns = new ArrayList<>(columnDefinitions.get());
+            for (ColumnMetaData column : columns) {
+                String columnName = column.getName();
+                List<IndexMetaData> columnIndexes = indexesByColumn.get(columnName);
+                column
+                        .setPrimaryKey(primaryKey.contains(columnName))
+                        .setIndexes(columnIndexes != null ? columnIndexes : new ArrayList<>())
+                        .setForeignKeyMetaData(tableForeignKeys.get(columnName));
+            }
+            loader.internNames(columns, getIndexes());
+
+            super.setColumns(columns);
+            if (!primaryKey.isEmpty()) {
+                List<ColumnMetaData> primaryKeyColumns = new ArrayList<>();
+                for (ColumnMetaData column : columns) {
+                    if (column.isPrimaryKey()) {
+                        primaryKeyColumns.add(column);
+                    }
+                }
+                super.setPrimaryKey(new PrimaryKeyMetaData(primaryKeyColumns));
+            }
+            assembled = true;
+        }
+    }
+
+    /**
+     * @return <code>true</code> for the first fetch of any part of this table
+     */
+    private boolean touch() {
+        return touched.compareAndSet(false, true);
+    }
+
+    /**
+     * Part of the table fetched once on the first access
+     */
+    private static final class Part<T> {
+        private final Supplier<T> loader;
+        private volatile T value;
+
+        private Part(Supplier<T> loader) {
+            this.loader = loader;
+        }
+
+        T get() {
+            T current = value;
+            if (current == null) {
+                synchronized (this) {
+                    current = value;
+                    if (current == null) {
+                        current = loader.get();
+                        value = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        synchronized void set(T value) {
+            this.value = value;
+        }
+    }
+}
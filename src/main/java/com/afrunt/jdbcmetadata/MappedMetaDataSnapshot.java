@@ -0,0 +1,975 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read only snapshot of the {@link JdbcDatabaseMetaData} mapped into memory. Unlike {@link MetaDataSnapshot}
+ * all records have fixed size and refer to each other by offset, so the views decode only the fields that are
+ * accessed and the mapped pages are shared by all processes that read the same file.
+ * <p>
+ * Views are flyweights that hold only the buffer and the offset of the record. Methods of {@link WithColumns}
+ * and {@link WithIndexes} that return the model objects materialize them, all other methods read the buffer.
+ * The snapshot file is limited to 2GB, <code>null</code> lists are stored as empty ones
+ *
+ * @author Andrii Frunt
+ */
+public class MappedMetaDataSnapshot implements AutoCloseable {
+    public static final int VERSION = 3;
+    private static final byte[] MAGIC = {'J', 'M', 'D', 'M'};
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private static final int HEADER_SIZE = 36;
+    private static final int SCHEMA_SIZE = 24;
+    private static final int TABLE_SIZE = 36;
+    private static final int COLUMN_SIZE = 56;
+    private static final int INDEX_SIZE = 24;
+    private static final int INDEX_COLUMN_SIZE = 16;
+    private static final int FOREIGN_KEY_SIZE = 32;
+    private static final int FOREIGN_KEY_COLUMN_SIZE = 8;
+    private static final int SEQUENCE_SIZE = 12;
+
+    private static final int FLAG_NULLABLE = 1;
+    private static final int FLAG_AUTO_INCREMENT = 1 << 1;
+    private static final int FLAG_READ_ONLY = 1 << 2;
+    private static final int FLAG_WRITABLE = 1 << 3;
+    private static final int FLAG_PRIMARY_KEY = 1 << 4;
+
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final int stringCount;
+    private final int stringsOffset;
+    private final Map<Integer, Class<?>> javaTypes = new ConcurrentHashMap<>();
+
+    private MappedMetaDataSnapshot(ByteBuffer buffer, FileChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.capacity() < HEADER_SIZE || buffer.get(i) != MAGIC[i]) {
+                throw new JdbcMetaDataException("Not a mapped metadata snapshot");
+            }
+        }
+        if (getVersion() != VERSION) {
+            throw new JdbcMetaDataException("Unsupported mapped metadata snapshot version " + getVersion());
+        }
+        this.stringCount = buffer.getInt(20);
+        this.stringsOffset = buffer.getInt(24);
+    }
+
+    public static MappedMetaDataSnapshot open(Path path) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            return new MappedMetaDataSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), channel);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            if (e instanceof JdbcMetaDataException) {
+                throw (JdbcMetaDataException) e;
+            }
+            throw new JdbcMetaDataException("Error mapping the metadata snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Snapshot of the bytes created by {@link #toByteArray(JdbcDatabaseMetaData)}, mostly for tests
+     *
+     * @param bytes snapshot bytes
+     * @return snapshot
+     */
+    public static MappedMetaDataSnapshot wrap(byte[] bytes) {
+        return new MappedMetaDataSnapshot(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), null);
+    }
+
+    public static void write(JdbcDatabaseMetaData metaData, Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, toByteArray(metaData));
+                try {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new JdbcMetaDataException("Error writing the mapped metadata snapshot " + path, e);
+        }
+    }
+
+    public static byte[] toByteArray(JdbcDatabaseMetaData metaData) {
+        return new SnapshotWriter().write(metaData, System.currentTimeMillis());
+    }
+
+    public int getVersion() {
+        return buffer.getInt(4);
+    }
+
+    public long getCreatedAt() {
+        return buffer.getLong(8);
+    }
+
+    public String getDatabaseProductName() {
+        return string(buffer.getInt(16));
+    }
+
+    public int schemaCount() {
+        return buffer.getInt(28);
+    }
+
+    public SchemaView schema(int index) {
+        return new SchemaView(buffer.getInt(buffer.getInt(32) + 4 * index));
+    }
+
+    public SchemaView schema(String name) {
+        for (int i = 0; i < schemaCount(); i++) {
+            SchemaView schema = schema(i);
+            if (schema.nameIs(name)) {
+                return schema;
+            }
+        }
+        return null;
+    }
+
+    public List<SchemaView> schemas() {
+        return new RecordList<>(schemaCount(), this::schema);
+    }
+
+    /**
+     * @return database metadata decoded from the whole snapshot
+     */
+    public JdbcDatabaseMetaData toMetaData() {
+        List<SchemaMetaData> schemas = new ArrayList<>(schemaCount());
+        for (SchemaView schema : schemas()) {
+            schemas.add(schema.toMetaData());
+        }
+        return new JdbcDatabaseMetaData()
+                .setDatabaseProductName(getDatabaseProductName())
+                .setSchemas(schemas);
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(channel);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    private String string(int ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        int start = buffer.getInt(stringsOffset + 4 * ref);
+        int end = buffer.getInt(stringsOffset + 4 * ref + 4);
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the string with the given UTF-8 bytes without decoding it
+     */
+    private int compareString(int ref, byte[] other) {
+        int start = buffer.getInt(stringsOffset + 4 * ref);
+        int length = buffer.getInt(stringsOffset + 4 * ref + 4) - start;
+        for (int i = 0; i < Math.min(length, other.length); i++) {
+            int cmp = Integer.compare(buffer.get(start + i) & 0xFF, other[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, other.length);
+    }
+
+    private boolean nameIs(int ref, String name) {
+        if (name == null || ref == NULL) {
+            return name == null && ref == NULL;
+        }
+        return compareString(ref, name.toUpperCase().getBytes(StandardCharsets.UTF_8)) == 0;
+    }
+
+    private Integer nullableInt(int offset) {
+        int value = buffer.getInt(offset);
+        return value == NULL ? null : value;
+    }
+
+    private Boolean nullableBoolean(int offset) {
+        int value = buffer.getInt(offset);
+        return value == NULL ? null : value != 0;
+    }
+
+    private Class<?> javaType(int ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        return javaTypes.computeIfAbsent(ref, r -> {
+            try {
+                return Class.forName(string(r));
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        });
+    }
+
+    public class SchemaView implements WithName {
+        private final int offset;
+
+        private SchemaView(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public String getName() {
+            return string(buffer.getInt(offset));
+        }
+
+        @Override
+        public boolean nameIs(String name) {
+            return MappedMetaDataSnapshot.this.nameIs(buffer.getInt(offset), name);
+        }
+
+        public int tableCount() {
+            return buffer.getInt(offset + 4);
+        }
+
+        public TableView table(int index) {
+            return new TableView(buffer.getInt(buffer.getInt(offset + 8) + 4 * index));
+        }
+
+        /**
+         * Binary search in the tables sorted by name
+         *
+         * @param name table name
+         * @return table or <code>null</code>
+         */
+        public TableView table(String name) {
+            if (name == null) {
+                return null;
+            }
+            byte[] bytes = name.toUpperCase().getBytes(StandardCharsets.UTF_8);
+            int sorted = buffer.getInt(offset + 12);
+            int low = 0;
+            int high = tableCount() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                TableView table = table(buffer.getInt(sorted + 4 * middle));
+                int cmp = compareString(buffer.getInt(table.offset), bytes);
+                if (cmp < 0) {
+                    low = middle + 1;
+                } else if (cmp > 0) {
+                    high = middle - 1;
+                } else {
+                    return table;
+                }
+            }
+            return null;
+        }
+
+        public boolean hasTable(String name) {
+            return table(name) != null;
+        }
+
+        public List<TableView> tables() {
+            return new RecordList<>(tableCount(), this::table);
+        }
+
+        public List<SequenceMetaData> sequences() {
+            int count = buffer.getInt(offset + 16);
+            int sequences = buffer.getInt(offset + 20);
+            List<SequenceMetaData> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int sequence = sequences + SEQUENCE_SIZE * i;
+                result.add(new SequenceMetaData()
+                        .setName(string(buffer.getInt(sequence)))
+                        .setSchema(string(buffer.getInt(sequence + 4)))
+                        .setIncrementBy(nullableInt(sequence + 8)));
+            }
+            return result;
+        }
+
+        public SchemaMetaData toMetaData() {
+            List<TableMetaData> tables = new ArrayList<>(tableCount());
+            for (TableView table : tables()) {
+                tables.add(table.toMetaData());
+            }
+            return new SchemaMetaData()
+                    .setName(getName())
+                    .setTables(tables)
+                    .setSequences(sequences());
+        }
+
+        @Override
+        public String toString() {
+            return getName() + "[" + tableCount() + "]";
+        }
+    }
+
+    public class TableView implements WithName, WithColumns, WithIndexes {
+        private final int offset;
+
+        private TableView(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public String getName() {
+            return string(buffer.getInt(offset));
+        }
+
+        @Override
+        public boolean nameIs(String name) {
+            return MappedMetaDataSnapshot.this.nameIs(buffer.getInt(offset), name);
+        }
+
+        public String getSchemaName() {
+            return string(buffer.getInt(offset + 4));
+        }
+
+        public String getSignature() {
+            return string(buffer.getInt(offset + 32));
+        }
+
+        public String fullName() {
+            String schemaName = getSchemaName();
+            return schemaName != null ? schemaName + "." + getName() : getName();
+        }
+
+        @Override
+        public int columnsCount() {
+            return buffer.getInt(offset + 8);
+        }
+
+        public ColumnView columnView(int index) {
+            return new ColumnView(buffer.getInt(offset + 12) + COLUMN_SIZE * index);
+        }
+
+        public ColumnView columnView(String name) {
+            for (int i = 0; i < columnsCount(); i++) {
+                ColumnView column = columnView(i);
+                if (column.nameIs(name)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+
+        public List<ColumnView> columnViews() {
+            return new RecordList<>(columnsCount(), this::columnView);
+        }
+
+        @Override
+        public boolean hasColumn(String name) {
+            return columnView(name) != null;
+        }
+
+        @Override
+        public ColumnMetaData column(String name) {
+            ColumnView column = columnView(name);
+            return column != null ? column.toMetaData(getIndexes(), new HashMap<>()) : null;
+        }
+
+        /**
+         * @return materialized columns
+         */
+        @Override
+        public List<ColumnMetaData> getColumns() {
+            return toMetaData().getColumns();
+        }
+
+        public int indexCount() {
+            return buffer.getInt(offset + 16);
+        }
+
+        public IndexView indexView(int index) {
+            return new IndexView(buffer.getInt(buffer.getInt(offset + 20) + 4 * index));
+        }
+
+        public List<IndexView> indexViews() {
+            return new RecordList<>(indexCount(), this::indexView);
+        }
+
+        @Override
+        public boolean hasIndexes() {
+            return indexCount() > 0;
+        }
+
+        @Override
+        public boolean hasIndex(String name) {
+            int count = 0;
+            for (int i = 0; i < indexCount(); i++) {
+                if (indexView(i).nameIs(name)) {
+                    ++count;
+                }
+            }
+            return count == 1;
+        }
+
+        /**
+         * @return materialized indexes
+         */
+        @Override
+        public List<IndexMetaData> getIndexes() {
+            List<IndexMetaData> indexes = new ArrayList<>(indexCount());
+            for (IndexView index : indexViews()) {
+                indexes.add(index.toMetaData());
+            }
+            return indexes;
+        }
+
+        public boolean hasPrimaryKey() {
+            return buffer.getInt(offset + 24) >= 0;
+        }
+
+        public List<String> primaryKeyColumnNames() {
+            int count = Math.max(0, buffer.getInt(offset + 24));
+            List<String> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                names.add(columnView(buffer.getInt(buffer.getInt(offset + 28) + 4 * i)).getName());
+            }
+            return names;
+        }
+
+        public TableMetaData toMetaData() {
+            List<IndexMetaData> indexes = getIndexes();
+            List<ColumnMetaData> columns = new ArrayList<>(columnsCount());
+            Map<Integer, ForeignKeyMetaData> foreignKeys = new HashMap<>();
+            for (ColumnView column : columnViews()) {
+                columns.add(column.toMetaData(indexes, foreignKeys));
+            }
+            TableMetaData table = new TableMetaData()
+                    .setName(getName())
+                    .setSchemaName(getSchemaName())
+                    .setSignature(getSignature())
+                    .setIndexes(indexes)
+                    .setColumns(columns);
+            if (hasPrimaryKey()) {
+                int count = buffer.getInt(offset + 24);
+                List<ColumnMetaData> primaryKeyColumns = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    primaryKeyColumns.add(columns.get(buffer.getInt(buffer.getInt(offset + 28) + 4 * i)));
+                }
+                table.setPrimaryKey(new PrimaryKeyMetaData(primaryKeyColumns));
+            }
+            return table;
+        }
+
+        @Override
+        public String toString() {
+            return fullName();
+        }
+    }
+
+    public class ColumnView implements WithName, WithType {
+        private final int offset;
+
+        private ColumnView(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public String getName() {
+            return string(buffer.getInt(offset));
+        }
+
+        @Override
+        public boolean nameIs(String name) {
+            return MappedMetaDataSnapshot.this.nameIs(buffer.getInt(offset), name);
+        }
+
+        public String getTableName() {
+            return string(buffer.getInt(offset + 4));
+        }
+
+        public int getSqlType() {
+            return buffer.getInt(offset + 8);
+        }
+
+        public String getSqlTypeName() {
+            return string(buffer.getInt(offset + 12));
+        }
+
+        @Override
+        public Class<?> getType() {
+            return javaType(buffer.getInt(offset + 16));
+        }
+
+        public boolean isNullable() {
+            return flag(FLAG_NULLABLE);
+        }
+
+        public boolean isAutoIncrement() {
+            return flag(FLAG_AUTO_INCREMENT);
+        }
+
+        public boolean isReadOnly() {
+            return flag(FLAG_READ_ONLY);
+        }
+
+        public boolean isWritable() {
+            return flag(FLAG_WRITABLE);
+        }
+
+        public boolean isPrimaryKey() {
+            return flag(FLAG_PRIMARY_KEY);
+        }
+
+        public int getScale() {
+            return buffer.getInt(offset + 24);
+        }
+
+        public int getPrecision() {
+            return buffer.getInt(offset + 28);
+        }
+
+        public Integer getOrdinalPosition() {
+            return nullableInt(offset + 32);
+        }
+
+        public String getDefaultValue() {
+            return string(buffer.getInt(offset + 36));
+        }
+
+        public String getRemarks() {
+            return string(buffer.getInt(offset + 40));
+        }
+
+        public boolean isForeignKey() {
+            return buffer.getInt(offset + 52) != NULL;
+        }
+
+        public String getForeignTableName() {
+            return isForeignKey() ? string(buffer.getInt(buffer.getInt(offset + 52) + 8)) : null;
+        }
+
+        public ForeignKeyMetaData getForeignKeyMetaData() {
+            if (!isForeignKey()) {
+                return null;
+            }
+            int foreignKey = buffer.getInt(offset + 52);
+            int columnCount = buffer.getInt(foreignKey + 24);
+            List<String> columnNames = new ArrayList<>(columnCount);
+            List<String> foreignColumnNames = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                int column = buffer.getInt(foreignKey + 28) + FOREIGN_KEY_COLUMN_SIZE * i;
+                columnNames.add(string(buffer.getInt(column)));
+                foreignColumnNames.add(string(buffer.getInt(column + 4)));
+            }
+            return new ForeignKeyMetaData()
+                    .setName(string(buffer.getInt(foreignKey)))
+                    .setForeignTableSchema(string(buffer.getInt(foreignKey + 4)))
+                    .setForeignTableName(string(buffer.getInt(foreignKey + 8)))
+                    .setForeignColumnName(string(buffer.getInt(foreignKey + 12)))
+                    .setUpdateRule(nullableInt(foreignKey + 16))
+                    .setDeleteRule(nullableInt(foreignKey + 20))
+                    .setColumnNames(columnNames)
+                    .setForeignColumnNames(foreignColumnNames);
+        }
+
+        /**
+         * @param tableIndexes     materialized indexes of the table, shared with the column
+         * @param tableForeignKeys materialized foreign keys of the table by record offset,
+         *                         shared by the columns of the composite foreign key
+         * @return materialized column
+         */
+        private ColumnMetaData toMetaData(List<IndexMetaData> tableIndexes, Map<Integer, ForeignKeyMetaData> tableForeignKeys) {
+            int indexCount = buffer.getInt(offset + 44);
+            List<IndexMetaData> indexes = new ArrayList<>(indexCount);
+            for (int i = 0; i < indexCount; i++) {
+                indexes.add(tableIndexes.get(buffer.getInt(buffer.getInt(offset + 48) + 4 * i)));
+            }
+            return new ColumnMetaData()
+                    .setName(getName())
+                    .setTableName(getTableName())
+                    .setSqlType(getSqlType())
+                    .setSqlTypeName(getSqlTypeName())
+                    .setJavaType(getType())
+                    .setNullable(isNullable())
+                    .setAutoIncrement(isAutoIncrement())
+                    .setReadOnly(isReadOnly())
+                    .setWritable(isWritable())
+                    .setPrimaryKey(isPrimaryKey())
+                    .setScale(getScale())
+                    .setPrecision(getPrecision())
+                    .setOrdinalPosition(getOrdinalPosition())
+                    .setDefaultValue(getDefaultValue())
+                    .setRemarks(getRemarks())
+                    .setIndexes(indexes)
+                    .setForeignKeyMetaData(isForeignKey()
+                            ? tableForeignKeys.computeIfAbsent(buffer.getInt(offset + 52), r -> getForeignKeyMetaData())
+                            : null);
+        }
+
+        private boolean flag(int flag) {
+            return (buffer.getInt(offset + 20) & flag) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return getTableName() + "->" + getName();
+        }
+    }
+
+    public class IndexView implements WithName {
+        private final int offset;
+
+        private IndexView(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public String getName() {
+            return string(buffer.getInt(offset));
+        }
+
+        @Override
+        public boolean nameIs(String name) {
+            return MappedMetaDataSnapshot.this.nameIs(buffer.getInt(offset), name);
+        }
+
+        public Boolean isUnique() {
+            return nullableBoolean(offset + 4);
+        }
+
+        public int columnCount() {
+            return buffer.getInt(offset + 20);
+        }
+
+        public List<String> columnNames() {
+            List<String> names = new ArrayList<>(columnCount());
+            for (int i = 0; i < columnCount(); i++) {
+                names.add(string(buffer.getInt(offset + INDEX_SIZE + INDEX_COLUMN_SIZE * i)));
+            }
+            return names;
+        }
+
+        public IndexMetaData toMetaData() {
+            List<IndexColumnMetadata> indexColumns = new ArrayList<>(columnCount());
+            for (int i = 0; i < columnCount(); i++) {
+                int indexColumn = offset + INDEX_SIZE + INDEX_COLUMN_SIZE * i;
+                indexColumns.add(new IndexColumnMetadata()
+                        .setName(string(buffer.getInt(indexColumn)))
+                        .setAscending(nullableBoolean(indexColumn + 4))
+                        .setOrdinalPosition(nullableInt(indexColumn + 8))
+                        .setSortType(nullableInt(indexColumn + 12)));
+            }
+            return new IndexMetaData()
+                    .setName(getName())
+                    .setUnique(isUnique())
+                    .setType(nullableInt(offset + 8))
+                    .setCardinality(nullableInt(offset + 12))
+                    .setPages(nullableInt(offset + 16))
+                    .setIndexColumns(indexColumns);
+        }
+
+        @Override
+        public String toString() {
+            return getName() + "[" + String.join(",", columnNames()) + "]";
+        }
+    }
+
+    private interface RecordAccessor<T> {
+        T get(int index);
+    }
+
+    private static class RecordList<T> extends AbstractList<T> implements RandomAccess {
+        private final int size;
+        private final RecordAccessor<T> accessor;
+
+        private RecordList(int size, RecordAccessor<T> accessor) {
+            this.size = size;
+            this.accessor = accessor;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return accessor.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static class SnapshotWriter {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final List<byte[]> encodedStrings = new ArrayList<>();
+        private byte[] bytes = new byte[8192];
+        private int size;
+
+        private byte[] write(JdbcDatabaseMetaData metaData, long createdAt) {
+            allocate(HEADER_SIZE);
+            System.arraycopy(MAGIC, 0, bytes, 0, MAGIC.length);
+            putInt(4, VERSION);
+            putInt(8, (int) (createdAt >>> 32));
+            putInt(12, (int) createdAt);
+            putInt(16, string(metaData.getDatabaseProductName()));
+
+            List<SchemaMetaData> schemas = metaData.getSchemas() != null ? metaData.getSchemas() : Collections.emptyList();
+            putInt(28, schemas.size());
+            int schemaOffsets = allocate(4 * schemas.size());
+            putInt(32, schemaOffsets);
+            for (int i = 0; i < schemas.size(); i++) {
+                putInt(schemaOffsets + 4 * i, writeSchema(schemas.get(i)));
+            }
+
+            int stringOffsets = allocate(4 * (encodedStrings.size() + 1));
+            putInt(20, encodedStrings.size());
+            putInt(24, stringOffsets);
+            for (int i = 0; i < encodedStrings.size(); i++) {
+                byte[] encoded = encodedStrings.get(i);
+                int start = allocate(encoded.length);
+                System.arraycopy(encoded, 0, bytes, start, encoded.length);
+                putInt(stringOffsets + 4 * i, start);
+            }
+            putInt(stringOffsets + 4 * encodedStrings.size(), size);
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private int writeSchema(SchemaMetaData schema) {
+            List<TableMetaData> tables = schema.tables();
+            List<SequenceMetaData> sequences = schema.sequences();
+
+            int record = allocate(SCHEMA_SIZE);
+            putInt(record, string(schema.getName()));
+            putInt(record + 4, tables.size());
+            int tableOffsets = allocate(4 * tables.size());
+            putInt(record + 8, tableOffsets);
+            int sortedTables = allocate(4 * tables.size());
+            putInt(record + 12, sortedTables);
+            putInt(record + 16, sequences.size());
+            int sequenceRecords = allocate(SEQUENCE_SIZE * sequences.size());
+            putInt(record + 20, sequenceRecords);
+
+            Integer[] order = new Integer[tables.size()];
+            for (int i = 0; i < tables.size(); i++) {
+                order[i] = i;
+                putInt(tableOffsets + 4 * i, writeTable(tables.get(i)));
+            }
+            Arrays.sort(order, (t1, t2) -> compare(tables.get(t1).getName(), tables.get(t2).getName()));
+            for (int i = 0; i < order.length; i++) {
+                putInt(sortedTables + 4 * i, order[i]);
+            }
+
+            for (int i = 0; i < sequences.size(); i++) {
+                SequenceMetaData sequence = sequences.get(i);
+                int sequenceRecord = sequenceRecords + SEQUENCE_SIZE * i;
+                putInt(sequenceRecord, string(sequence.getName()));
+                putInt(sequenceRecord + 4, string(sequence.getSchema()));
+                putInt(sequenceRecord + 8, nullableInt(sequence.getIncrementBy()));
+            }
+            return record;
+        }
+
+        private int writeTable(TableMetaData table) {
+            List<IndexMetaData> indexes = table.indexes();
+            List<ColumnMetaData> columns = table.columns();
+            PrimaryKeyMetaData primaryKey = table.getPrimaryKey();
+
+            int record = allocate(TABLE_SIZE);
+            putInt(record, string(table.getName()));
+            putInt(record + 4, string(table.getSchemaName()));
+            putInt(record + 8, columns.size());
+            int columnRecords = allocate(COLUMN_SIZE * columns.size());
+            putInt(record + 12, columnRecords);
+            putInt(record + 16, indexes.size());
+            int indexOffsets = allocate(4 * indexes.size());
+            putInt(record + 20, indexOffsets);
+
+            for (int i = 0; i < indexes.size(); i++) {
+                putInt(indexOffsets + 4 * i, writeIndex(indexes.get(i)));
+            }
+            Map<ForeignKeyMetaData, Integer> foreignKeyRecords = new IdentityHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                writeColumn(columnRecords + COLUMN_SIZE * i, columns.get(i), indexes, foreignKeyRecords);
+            }
+
+            if (primaryKey != null) {
+                List<ColumnMetaData> primaryKeyColumns = primaryKey.columns();
+                putInt(record + 24, primaryKeyColumns.size());
+                int positions = allocate(4 * primaryKeyColumns.size());
+                putInt(record + 28, positions);
+                for (int i = 0; i < primaryKeyColumns.size(); i++) {
+                    putInt(positions + 4 * i, position(columns, primaryKeyColumns.get(i)));
+                }
+            } else {
+                putInt(record + 24, -1);
+                putInt(record + 28, NULL);
+            }
+            putInt(record + 32, string(table.getSignature()));
+            return record;
+        }
+
+        private void writeColumn(int record, ColumnMetaData column, List<IndexMetaData> tableIndexes,
+                                 Map<ForeignKeyMetaData, Integer> foreignKeyRecords) {
+            List<IndexMetaData> indexes = column.indexes();
+            ForeignKeyMetaData foreignKey = column.getForeignKeyMetaData();
+
+            putInt(record, string(column.getName()));
+            putInt(record + 4, string(column.getTableName()));
+            putInt(record + 8, column.getSqlType());
+            putInt(record + 12, string(column.getSqlTypeName()));
+            putInt(record + 16, string(column.getJavaType() != null ? column.getJavaType().getName() : null));
+            putInt(record + 20, (column.isNullable() ? FLAG_NULLABLE : 0)
+                    | (column.isAutoIncrement() ? FLAG_AUTO_INCREMENT : 0)
+                    | (column.isReadOnly() ? FLAG_READ_ONLY : 0)
+                    | (column.isWritable() ? FLAG_WRITABLE : 0)
+                    | (column.isPrimaryKey() ? FLAG_PRIMARY_KEY : 0));
+            putInt(record + 24, column.getScale());
+            putInt(record + 28, column.getPrecision());
+            putInt(record + 32, nullableInt(column.getOrdinalPosition()));
+            putInt(record + 36, string(column.getDefaultValue()));
+            putInt(record + 40, string(column.getRemarks()));
+            putInt(record + 44, indexes.size());
+            int positions = allocate(4 * indexes.size());
+            putInt(record + 48, positions);
+            for (int i = 0; i < indexes.size(); i++) {
+                putInt(positions + 4 * i, position(tableIndexes, indexes.get(i)));
+            }
+
+            if (foreignKey != null) {
+                putInt(record + 52, foreignKeyRecords.computeIfAbsent(foreignKey, this::writeForeignKey));
+            } else {
+                putInt(record + 52, NULL);
+            }
+        }
+
+        private int writeForeignKey(ForeignKeyMetaData foreignKey) {
+            List<String> columnNames = foreignKey.getColumnNames() != null ? foreignKey.getColumnNames() : Collections.emptyList();
+            List<String> foreignColumnNames = foreignKey.getForeignColumnNames() != null ? foreignKey.getForeignColumnNames() : Collections.emptyList();
+            int columnCount = Math.min(columnNames.size(), foreignColumnNames.size());
+
+            int record = allocate(FOREIGN_KEY_SIZE);
+            putInt(record, string(foreignKey.getName()));
+            putInt(record + 4, string(foreignKey.getForeignTableSchema()));
+            putInt(record + 8, string(foreignKey.getForeignTableName()));
+            putInt(record + 12, string(foreignKey.getForeignColumnName()));
+            putInt(record + 16, nullableInt(foreignKey.getUpdateRule()));
+            putInt(record + 20, nullableInt(foreignKey.getDeleteRule()));
+            putInt(record + 24, columnCount);
+            int columns = allocate(FOREIGN_KEY_COLUMN_SIZE * columnCount);
+            putInt(record + 28, columns);
+            for (int i = 0; i < columnCount; i++) {
+                putInt(columns + FOREIGN_KEY_COLUMN_SIZE * i, string(columnNames.get(i)));
+                putInt(columns + FOREIGN_KEY_COLUMN_SIZE * i + 4, string(foreignColumnNames.get(i)));
+            }
+            return record;
+        }
+
+        private int writeIndex(IndexMetaData index) {
+            List<IndexColumnMetadata> indexColumns = index.indexColumns();
+            int record = allocate(INDEX_SIZE + INDEX_COLUMN_SIZE * indexColumns.size());
+            putInt(record, string(index.getName()));
+            putInt(record + 4, index.isUnique() == null ? NULL : index.isUnique() ? 1 : 0);
+            putInt(record + 8, nullableInt(index.getType()));
+            putInt(record + 12, nullableInt(index.getCardinality()));
+            putInt(record + 16, nullableInt(index.getPages()));
+            putInt(record + 20, indexColumns.size());
+            for (int i = 0; i < indexColumns.size(); i++) {
+                IndexColumnMetadata indexColumn = indexColumns.get(i);
+                int columnRecord = record + INDEX_SIZE + INDEX_COLUMN_SIZE * i;
+                putInt(columnRecord, string(indexColumn.getName()));
+                putInt(columnRecord + 4, indexColumn.isAscending() == null ? NULL : indexColumn.isAscending() ? 1 : 0);
+                putInt(columnRecord + 8, nullableInt(indexColumn.getOrdinalPosition()));
+                putInt(columnRecord + 12, nullableInt(indexColumn.getSortType()));
+            }
+            return record;
+        }
+
+        private int position(List<?> list, Object element) {
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == element) {
+                    return i;
+                }
+            }
+            throw new JdbcMetaDataException("Element " + element + " is not found in the owner's list");
+        }
+
+        private int compare(String s1, String s2) {
+            if (s1 == null || s2 == null) {
+                return s1 == null ? (s2 == null ? 0 : -1) : 1;
+            }
+            byte[] b1 = s1.getBytes(StandardCharsets.UTF_8);
+            byte[] b2 = s2.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < Math.min(b1.length, b2.length); i++) {
+                int cmp = Integer.compare(b1[i] & 0xFF, b2[i] & 0xFF);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return Integer.compare(b1.length, b2.length);
+        }
+
+        private int string(String s) {
+            if (s == null) {
+                return NULL;
+            }
+            Integer ref = strings.get(s);
+            if (ref == null) {
+                ref = strings.size();
+                strings.put(s, ref);
+                encodedStrings.add(s.getBytes(StandardCharsets.UTF_8));
+            }
+            return ref;
+        }
+
+        private int nullableInt(Integer value) {
+            return value == null ? NULL : value;
+        }
+
+        private int allocate(int length) {
+            int offset = size;
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+            size += length;
+            return offset;
+        }
+
+        private void putInt(int offset, int value) {
+            bytes[offset] = (byte) (value >>> 24);
+            bytes[offset + 1] = (byte) (value >>> 16);
+            bytes[offset + 2] = (byte) (value >>> 8);
+            bytes[offset + 3] = (byte) value;
+        }
+    }
+}
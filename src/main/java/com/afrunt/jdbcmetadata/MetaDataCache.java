@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread safe cache of the collected metadata. Bounded by the number of entries and by the total weight
+ * of the entries, entries may also expire after the time to live. Unbounded and without expiration by default.
+ * <p>
+ * Reads do not lock. Every read stamps the entry with the access time, and the put that exceeds the bounds evicts
+ * the least recently used of a sample of the entries, so the eviction order is an approximation of LRU
+ *
+ * @author Andrii Frunt
+ */
+public class MetaDataCache<K, V> {
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long maxEntries = Long.MAX_VALUE;
+    private volatile long maxWeight = Long.MAX_VALUE;
+    private volatile long ttlNanos;
+    private volatile ToLongFunction<? super V> weigher = v -> 1;
+
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private Iterator<Map.Entry<K, Entry<V>>> evictionCursor = Collections.emptyIterator();
+
+    /**
+     * @param key the key
+     * @return cached value or <code>null</code> if there is no value or the value is expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (isExpired(entry, System.nanoTime())) {
+            if (remove(key, entry)) {
+                evictionCount.increment();
+            }
+            missCount.increment();
+            return null;
+        }
+        entry.accessed = clock.incrementAndGet();
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * Looks the value up without counting the hit or the miss and without changing the order of the entries
+     *
+     * @param key the key
+     * @return cached value or <code>null</code> if there is no value or the value is expired
+     */
+    V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && !isExpired(entry, System.nanoTime()) ? entry.value : null;
+    }
+
+    public synchronized void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, Math.max(0, weigher.applyAsLong(value)), System.nanoTime(), clock.incrementAndGet());
+        weight.addAndGet(entry.weight);
+        Entry<V> replaced = entries.put(key, entry);
+        if (replaced != null) {
+            weight.addAndGet(-replaced.weight);
+        }
+        evict();
+    }
+
+    /**
+     * @param key the key
+     * @return <code>true</code> if the value was removed
+     */
+    public boolean invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && remove(key, entry);
+    }
+
+    /**
+     * @param keyFilter filter of the keys to remove
+     * @return number of removed entries
+     */
+    public int invalidateAll(Predicate<? super K> keyFilter) {
+        int removed = 0;
+        for (Map.Entry<K, Entry<V>> next : entries.entrySet()) {
+            if (keyFilter.test(next.getKey()) && remove(next.getKey(), next.getValue())) {
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    public void invalidateAll() {
+        invalidateAll(key -> true);
+    }
+
+    /**
+     * Removes the expired entries, that are otherwise removed only when accessed or evicted
+     *
+     * @return number of removed entries
+     */
+    public int cleanUp() {
+        if (ttlNanos <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<K, Entry<V>> next : entries.entrySet()) {
+            if (isExpired(next.getValue(), now) && remove(next.getKey(), next.getValue())) {
+                evictionCount.increment();
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of entries removed because of the size or weight bounds or the expiration
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized MetaDataCache<K, V> setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries > 0 ? maxEntries : Long.MAX_VALUE;
+        evict();
+        return this;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @param maxWeight max total weight of the entries, zero or negative means no limit
+     * @return this cache
+     */
+    public synchronized MetaDataCache<K, V> setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight > 0 ? maxWeight : Long.MAX_VALUE;
+        evict();
+        return this;
+    }
+
+    /**
+     * Weigher is applied to the values put after the change
+     *
+     * @param weigher function that returns the weight of the value
+     * @return this cache
+     */
+    public MetaDataCache<K, V> setWeigher(ToLongFunction<? super V> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
+    public Duration getTtl() {
+        long ttlNanos = this.ttlNanos;
+        return ttlNanos > 0 ? Duration.ofNanos(ttlNanos) : null;
+    }
+
+    /**
+     * @param ttl time to live of the entry since it was put, <code>null</code> means no expiration
+     * @return this cache
+     */
+    public MetaDataCache<K, V> setTtl(Duration ttl) {
+        this.ttlNanos = ttl != null && !ttl.isNegative() && !ttl.isZero() ? ttl.toNanos() : 0;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "MetaDataCache[size=" + size() + ",weight=" + weight() + ",hits=" + getHitCount() + ",misses=" + getMissCount() + ",evictions=" + getEvictionCount() + "]";
+    }
+
+    /**
+     * Removes the entry only if the key is still mapped to it, so the weight of every entry is subtracted once
+     * by whichever thread removes it
+     */
+    private boolean remove(K key, Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            weight.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the least recently used or the expired entry of the sample until the cache is within the bounds.
+     * The sample continues where the previous one stopped, so all entries are considered in turn.
+     * Called only with the lock held
+     */
+    private void evict() {
+        while (entries.size() > maxEntries || weight.get() > maxWeight) {
+            long now = System.nanoTime();
+            Map.Entry<K, Entry<V>> victim = null;
+            int sampleSize = Math.min(EVICTION_SAMPLE_SIZE, entries.size());
+            for (int i = 0; i < sampleSize; i++) {
+                if (!evictionCursor.hasNext()) {
+                    evictionCursor = entries.entrySet().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<K, Entry<V>> candidate = evictionCursor.next();
+                if (isExpired(candidate.getValue(), now)) {
+                    victim = candidate;
+                    break;
+                }
+                if (victim == null || candidate.getValue().accessed < victim.getValue().accessed) {
+                    victim = candidate;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            if (remove(victim.getKey(), victim.getValue())) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        long ttlNanos = this.ttlNanos;
+        return ttlNanos > 0 && now - entry.createdNanos >= ttlNanos;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long createdNanos;
+        private volatile long accessed;
+
+        private Entry(V value, long weight, long createdNanos, long accessed) {
+            this.value = value;
+            this.weight = weight;
+            this.createdNanos = createdNanos;
+            this.accessed = accessed;
+        }
+    }
+}
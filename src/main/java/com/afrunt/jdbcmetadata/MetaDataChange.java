@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+/**
+ * Single difference found by {@link MetaDataDiff}
+ *
+ * @param <T> type of the changed metadata
+ * @author Andrii Frunt
+ */
+public class MetaDataChange<T> {
+    public enum ChangeType {
+        ADDED, REMOVED, ALTERED
+    }
+
+    public enum ObjectType {
+        SCHEMA, TABLE, COLUMN, PRIMARY_KEY, INDEX, FOREIGN_KEY, SEQUENCE
+    }
+
+    private final ChangeType changeType;
+    private final ObjectType objectType;
+    private final String schemaName;
+    private final String tableName;
+    private final String name;
+    private final T from;
+    private final T to;
+
+    MetaDataChange(ChangeType changeType, ObjectType objectType, String schemaName, String tableName, String name, T from, T to) {
+        this.changeType = changeType;
+        this.objectType = objectType;
+        this.schemaName = schemaName;
+        this.tableName = tableName;
+        this.name = name;
+        this.from = from;
+        this.to = to;
+    }
+
+    public boolean is(ObjectType objectType, ChangeType changeType) {
+        return this.objectType == objectType && this.changeType == changeType;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public ObjectType getObjectType() {
+        return objectType;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    /**
+     * @return table name or <code>null</code> for schemas and sequences
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return name of the column, index, foreign key or sequence, otherwise <code>null</code>
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return metadata before the change or <code>null</code> if it was added
+     */
+    public T getFrom() {
+        return from;
+    }
+
+    /**
+     * @return metadata after the change or <code>null</code> if it was removed
+     */
+    public T getTo() {
+        return to;
+    }
+
+    public String path() {
+        StringBuilder path = new StringBuilder(String.valueOf(schemaName));
+        if (tableName != null) {
+            path.append('.').append(tableName);
+        }
+        if (name != null) {
+            path.append('.').append(name);
+        }
+        return path.toString();
+    }
+
+    @Override
+    public String toString() {
+        return changeType + " " + objectType + " " + path();
+    }
+}
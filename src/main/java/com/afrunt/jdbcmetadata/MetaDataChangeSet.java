@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import com.afrunt.jdbcmetadata.MetaDataChange.ChangeType;
+import com.afrunt.jdbcmetadata.MetaDataChange.ObjectType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Changes between two {@link JdbcDatabaseMetaData}, ordered by schema and table
+ *
+ * @author Andrii Frunt
+ */
+public class MetaDataChangeSet {
+    private final List<MetaDataChange<?>> changes;
+
+    MetaDataChangeSet(List<MetaDataChange<?>> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public List<MetaDataChange<?>> getChanges() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    public List<MetaDataChange<?>> changes(ObjectType objectType) {
+        return changes.stream()
+                .filter(c -> c.getObjectType() == objectType)
+                .collect(Collectors.toList());
+    }
+
+    public List<MetaDataChange<?>> changes(ObjectType objectType, ChangeType changeType) {
+        return changes.stream()
+                .filter(c -> c.is(objectType, changeType))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param objectType type of the changed object
+     * @param changeType type of the change
+     * @param path       path of the object, such as <code>SCHEMA.TABLE.COLUMN</code>
+     * @return <code>true</code> if the change set contains the change
+     */
+    public boolean contains(ObjectType objectType, ChangeType changeType, String path) {
+        return changes.stream().anyMatch(c -> c.is(objectType, changeType) && c.path().equals(path));
+    }
+
+    @Override
+    public String toString() {
+        return changes.stream()
+                .map(MetaDataChange::toString)
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import com.afrunt.jdbcmetadata.MetaDataChange.ChangeType;
+import com.afrunt.jdbcmetadata.MetaDataChange.ObjectType;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares two {@link JdbcDatabaseMetaData}. Schemas, tables, columns, indexes, foreign keys and sequences are paired
+ * by name through hash maps, schemas are compared in parallel and subtrees with equal fingerprints are skipped
+ * without visiting their children
+ *
+ * @author Andrii Frunt
+ */
+public class MetaDataDiff {
+    private boolean parallel = true;
+
+    public MetaDataChangeSet diff(JdbcDatabaseMetaData from, JdbcDatabaseMetaData to) {
+        if (from.fingerprint() == to.fingerprint()) {
+            return new MetaDataChangeSet(new ArrayList<>());
+        }
+
+        Map<String, SchemaMetaData> toSchemas = index(to.schemas(), SchemaMetaData::getName);
+        Set<String> fromNames = new HashSet<>();
+        List<SchemaMetaData[]> pairs = new ArrayList<>();
+
+        for (SchemaMetaData fromSchema : from.schemas()) {
+            fromNames.add(fromSchema.getName());
+            pairs.add(new SchemaMetaData[]{fromSchema, toSchemas.get(fromSchema.getName())});
+        }
+
+        for (SchemaMetaData toSchema : to.schemas()) {
+            if (!fromNames.contains(toSchema.getName())) {
+                pairs.add(new SchemaMetaData[]{null, toSchema});
+            }
+        }
+
+        Stream<SchemaMetaData[]> stream = parallel ? pairs.parallelStream() : pairs.stream();
+
+        List<MetaDataChange<?>> changes = stream
+                .map(p -> diffSchema(p[0], p[1]))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        return new MetaDataChangeSet(changes);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public MetaDataDiff setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    private List<MetaDataChange<?>> diffSchema(SchemaMetaData from, SchemaMetaData to) {
+        List<MetaDataChange<?>> changes = new ArrayList<>();
+
+        if (to == null) {
+            changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.SCHEMA, from.getName(), null, null, from, null));
+            return changes;
+        }
+
+        if (from == null) {
+            changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.SCHEMA, to.getName(), null, null, null, to));
+            return changes;
+        }
+
+        if (from.fingerprint() == to.fingerprint()) {
+            return changes;
+        }
+
+        String schema = from.getName();
+
+        pair(from.tables(), to.tables(), TableMetaData::getName, (f, t) -> {
+            if (f == null) {
+                changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.TABLE, schema, t.getName(), null, null, t));
+            } else if (t == null) {
+                changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.TABLE, schema, f.getName(), null, f, null));
+            } else if (f.fingerprint() != t.fingerprint()) {
+                changes.add(new MetaDataChange<>(ChangeType.ALTERED, ObjectType.TABLE, schema, f.getName(), null, f, t));
+                diffTable(schema, f, t, changes);
+            }
+        });
+
+        pair(from.sequences(), to.sequences(), SequenceMetaData::getName, (f, t) -> {
+            if (f == null) {
+                changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.SEQUENCE, schema, null, t.getName(), null, t));
+            } else if (t == null) {
+                changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.SEQUENCE, schema, null, f.getName(), f, null));
+            } else if (f.fingerprint() != t.fingerprint()) {
+                changes.add(new MetaDataChange<>(ChangeType.ALTERED, ObjectType.SEQUENCE, schema, null, f.getName(), f, t));
+            }
+        });
+
+        return changes;
+    }
+
+    private void diffTable(String schema, TableMetaData from, TableMetaData to, List<MetaDataChange<?>> changes) {
+        String table = from.getName();
+
+        pair(from.getColumns(), to.getColumns(), ColumnMetaData::getName, (f, t) -> {
+            if (f == null) {
+                changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.COLUMN, schema, table, t.getName(), null, t));
+            } else if (t == null) {
+                changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.COLUMN, schema, table, f.getName(), f, null));
+            } else if (f.fingerprint() != t.fingerprint()) {
+                if (!sameDefinition(f, t)) {
+                    changes.add(new MetaDataChange<>(ChangeType.ALTERED, ObjectType.COLUMN, schema, table, f.getName(), f, t));
+                }
+            }
+        });
+
+        List<String> fromPrimaryKey = primaryKeyColumnNames(from);
+        List<String> toPrimaryKey = primaryKeyColumnNames(to);
+        if (!fromPrimaryKey.equals(toPrimaryKey)) {
+            ChangeType changeType = fromPrimaryKey.isEmpty() ? ChangeType.ADDED
+                    : toPrimaryKey.isEmpty() ? ChangeType.REMOVED : ChangeType.ALTERED;
+            changes.add(new MetaDataChange<>(changeType, ObjectType.PRIMARY_KEY, schema, table, null, from.getPrimaryKey(), to.getPrimaryKey()));
+        }
+
+        pair(from.getIndexes(), to.getIndexes(), IndexMetaData::getName, (f, t) -> {
+            if (f == null) {
+                changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.INDEX, schema, table, t.getName(), null, t));
+            } else if (t == null) {
+                changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.INDEX, schema, table, f.getName(), f, null));
+            } else if (f.fingerprint() != t.fingerprint()) {
+                changes.add(new MetaDataChange<>(ChangeType.ALTERED, ObjectType.INDEX, schema, table, f.getName(), f, t));
+            }
+        });
+
+        // foreign keys belong to the table, a composite one is shared by all of its columns
+        pair(from.foreignKeyConstraints(), to.foreignKeyConstraints(), MetaDataDiff::foreignKeyName, (f, t) -> {
+            if (f == null) {
+                changes.add(new MetaDataChange<>(ChangeType.ADDED, ObjectType.FOREIGN_KEY, schema, table, foreignKeyName(t), null, t));
+            } else if (t == null) {
+                changes.add(new MetaDataChange<>(ChangeType.REMOVED, ObjectType.FOREIGN_KEY, schema, table, foreignKeyName(f), f, null));
+            } else if (f.fingerprint() != t.fingerprint()) {
+                changes.add(new MetaDataChange<>(ChangeType.ALTERED, ObjectType.FOREIGN_KEY, schema, table, foreignKeyName(f), f, t));
+            }
+        });
+    }
+
+    /**
+     * @return constraint name, or the names of the columns for the drivers that do not report it
+     */
+    private static String foreignKeyName(ForeignKeyMetaData foreignKey) {
+        return foreignKey.getName() != null ? foreignKey.getName() : String.join(",", foreignKey.getColumnNames());
+    }
+
+    /**
+     * Primary key membership is left out, it is reported by the change of the primary key
+     */
+    private boolean sameDefinition(ColumnMetaData from, ColumnMetaData to) {
+        return from.getSqlType() == to.getSqlType()
+                && Objects.equals(from.getSqlTypeName(), to.getSqlTypeName())
+                && Objects.equals(from.getJavaType(), to.getJavaType())
+                && from.isNullable() == to.isNullable()
+                && from.isAutoIncrement() == to.isAutoIncrement()
+                && from.getScale() == to.getScale()
+                && from.getPrecision() == to.getPrecision()
+                && Objects.equals(from.getDefaultValue(), to.getDefaultValue())
+                && Objects.equals(from.getRemarks(), to.getRemarks());
+    }
+
+    private List<String> primaryKeyColumnNames(TableMetaData table) {
+        if (table.getPrimaryKey() == null) {
+            return Collections.emptyList();
+        }
+        return table.getPrimaryKey().columns().stream()
+                .map(ColumnMetaData::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Calls the consumer for each pair of the objects with the same name, in the order of <code>from</code>
+     * followed by the added objects. Missing counterpart is passed as <code>null</code>
+     */
+    private <T> void pair(List<T> from, List<T> to, Function<T, String> name, PairConsumer<T> consumer) {
+        from = from != null ? from : Collections.emptyList();
+        to = to != null ? to : Collections.emptyList();
+
+        Map<String, T> toByName = index(to, name);
+        Set<String> fromNames = new HashSet<>(from.size() * 2);
+
+        for (T f : from) {
+            fromNames.add(name.apply(f));
+            consumer.accept(f, toByName.get(name.apply(f)));
+        }
+
+        for (T t : to) {
+            if (!fromNames.contains(name.apply(t))) {
+                consumer.accept(null, t);
+            }
+        }
+    }
+
+    private static <T> Map<String, T> index(List<T> items, Function<T, String> name) {
+        Map<String, T> index = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            index.put(name.apply(item), item);
+        }
+        return index;
+    }
+
+    private interface PairConsumer<T> {
+        void accept(T from, T to);
+    }
+}
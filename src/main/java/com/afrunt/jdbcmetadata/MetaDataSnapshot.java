@@ -0,0 +1,563 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary snapshot of the {@link JdbcDatabaseMetaData}. The snapshot consists of the header, the table of
+ * all strings and the object graph, that refers to the strings by their index. Numbers are written as varints.
+ * <p>
+ * Layout: <code>magic, version, createdAt, strings, databaseProductName, schemas</code>, where every schema
+ * contains its tables and sequences, and every table contains its indexes, foreign keys, columns and the
+ * primary key. Columns refer to the indexes and foreign keys, and the primary key refers to the columns by position
+ *
+ * @author Andrii Frunt
+ */
+public class MetaDataSnapshot {
+    public static final int VERSION = 3;
+    private static final byte[] MAGIC = {'J', 'M', 'D', 'S'};
+
+    private final int version;
+    private final long createdAt;
+    private final JdbcDatabaseMetaData metaData;
+
+    private MetaDataSnapshot(int version, long createdAt, JdbcDatabaseMetaData metaData) {
+        this.version = version;
+        this.createdAt = createdAt;
+        this.metaData = metaData;
+    }
+
+    /**
+     * Writes the snapshot to the temporary file and moves it to the path, so the readers never see
+     * the partially written snapshot
+     *
+     * @param metaData database metadata
+     * @param path     snapshot file
+     */
+    public static void write(JdbcDatabaseMetaData metaData, Path path) {
+        Path parent = path.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    write(metaData, out);
+                }
+                try {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new JdbcMetaDataException("Error writing the metadata snapshot " + path, e);
+        }
+    }
+
+    public static void write(JdbcDatabaseMetaData metaData, OutputStream out) throws IOException {
+        out.write(new SnapshotWriter().write(metaData, System.currentTimeMillis()));
+    }
+
+    public static MetaDataSnapshot read(Path path) {
+        try {
+            return read(Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new JdbcMetaDataException("Error reading the metadata snapshot " + path, e);
+        }
+    }
+
+    public static MetaDataSnapshot read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return read(out.toByteArray());
+    }
+
+    private static MetaDataSnapshot read(byte[] bytes) {
+        return new SnapshotReader(bytes).read();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return time the snapshot was created, in milliseconds since the epoch
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public JdbcDatabaseMetaData getMetaData() {
+        return metaData;
+    }
+
+    private static class SnapshotWriter {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final Buffer body = new Buffer();
+
+        private byte[] write(JdbcDatabaseMetaData metaData, long createdAt) {
+            string(metaData.getDatabaseProductName());
+            List<SchemaMetaData> schemas = metaData.getSchemas();
+            count(schemas);
+            if (schemas != null) {
+                for (SchemaMetaData schema : schemas) {
+                    writeSchema(schema);
+                }
+            }
+
+            Buffer out = new Buffer();
+            out.write(MAGIC, 0, MAGIC.length);
+            out.varint(VERSION);
+            out.varlong(createdAt);
+            out.varint(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.varint(bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+            out.write(body.bytes(), 0, body.size());
+            return out.toByteArray();
+        }
+
+        private void writeSchema(SchemaMetaData schema) {
+            string(schema.getName());
+            count(schema.getTables());
+            for (TableMetaData table : schema.tables()) {
+                writeTable(table);
+            }
+            count(schema.getSequences());
+            for (SequenceMetaData sequence : schema.sequences()) {
+                string(sequence.getName());
+                string(sequence.getSchema());
+                nullableInt(sequence.getIncrementBy());
+            }
+        }
+
+        private void writeTable(TableMetaData table) {
+            string(table.getName());
+            string(table.getSchemaName());
+            string(table.getSignature());
+
+            List<IndexMetaData> indexes = table.getIndexes();
+            count(indexes);
+            for (IndexMetaData index : table.indexes()) {
+                string(index.getName());
+                nullableBoolean(index.isUnique());
+                nullableInt(index.getType());
+                nullableInt(index.getCardinality());
+                nullableInt(index.getPages());
+                count(index.getIndexColumns());
+                for (IndexColumnMetadata indexColumn : index.indexColumns()) {
+                    string(indexColumn.getName());
+                    nullableBoolean(indexColumn.isAscending());
+                    nullableInt(indexColumn.getOrdinalPosition());
+                    nullableInt(indexColumn.getSortType());
+                }
+            }
+
+            List<ForeignKeyMetaData> foreignKeys = table.foreignKeyConstraints();
+            body.varint(foreignKeys.size());
+            for (ForeignKeyMetaData foreignKey : foreignKeys) {
+                string(foreignKey.getName());
+                string(foreignKey.getForeignTableSchema());
+                string(foreignKey.getForeignTableName());
+                string(foreignKey.getForeignColumnName());
+                nullableInt(foreignKey.getUpdateRule());
+                nullableInt(foreignKey.getDeleteRule());
+                count(foreignKey.getColumnNames());
+                for (String columnName : foreignKey.getColumnNames() != null ? foreignKey.getColumnNames() : Collections.<String>emptyList()) {
+                    string(columnName);
+                }
+                count(foreignKey.getForeignColumnNames());
+                for (String columnName : foreignKey.getForeignColumnNames() != null ? foreignKey.getForeignColumnNames() : Collections.<String>emptyList()) {
+                    string(columnName);
+                }
+            }
+
+            List<ColumnMetaData> columns = table.getColumns();
+            count(columns);
+            for (ColumnMetaData column : table.columns()) {
+                writeColumn(column, indexes, foreignKeys);
+            }
+
+            PrimaryKeyMetaData primaryKey = table.getPrimaryKey();
+            count(primaryKey != null ? primaryKey.getColumns() : null);
+            if (primaryKey != null) {
+                for (ColumnMetaData column : primaryKey.columns()) {
+                    body.varint(position(columns, column));
+                }
+            }
+        }
+
+        private void writeColumn(ColumnMetaData column, List<IndexMetaData> tableIndexes, List<ForeignKeyMetaData> tableForeignKeys) {
+            ForeignKeyMetaData foreignKey = column.getForeignKeyMetaData();
+            string(column.getName());
+            string(column.getTableName());
+            body.signedVarint(column.getSqlType());
+            string(column.getSqlTypeName());
+            string(column.getJavaType() != null ? column.getJavaType().getName() : null);
+            body.varint((column.isNullable() ? 1 : 0)
+                    | (column.isAutoIncrement() ? 1 << 1 : 0)
+                    | (column.isReadOnly() ? 1 << 2 : 0)
+                    | (column.isWritable() ? 1 << 3 : 0)
+                    | (column.isPrimaryKey() ? 1 << 4 : 0)
+                    | (foreignKey != null ? 1 << 5 : 0));
+            body.signedVarint(column.getScale());
+            body.signedVarint(column.getPrecision());
+            nullableInt(column.getOrdinalPosition());
+            string(column.getDefaultValue());
+            string(column.getRemarks());
+
+            count(column.getIndexes());
+            for (IndexMetaData index : column.indexes()) {
+                body.varint(position(tableIndexes, index));
+            }
+
+            if (foreignKey != null) {
+                body.varint(position(tableForeignKeys, foreignKey));
+            }
+        }
+
+        private int position(List<?> list, Object element) {
+            for (int i = 0; list != null && i < list.size(); i++) {
+                if (list.get(i) == element) {
+                    return i;
+                }
+            }
+            throw new JdbcMetaDataException("Element " + element + " is not found in the owner's list");
+        }
+
+        /**
+         * Zero is <code>null</code>, otherwise the string index plus one
+         */
+        private void string(String s) {
+            if (s == null) {
+                body.varint(0);
+            } else {
+                Integer index = strings.get(s);
+                if (index == null) {
+                    index = strings.size();
+                    strings.put(s, index);
+                }
+                body.varint(index + 1);
+            }
+        }
+
+        /**
+         * Zero is <code>null</code>, otherwise the size plus one
+         */
+        private void count(Collection<?> collection) {
+            body.varint(collection == null ? 0 : collection.size() + 1);
+        }
+
+        private void nullableInt(Integer value) {
+            if (value == null) {
+                body.varint(0);
+            } else {
+                body.varint(1);
+                body.signedVarint(value);
+            }
+        }
+
+        private void nullableBoolean(Boolean value) {
+            body.varint(value == null ? 0 : value ? 2 : 1);
+        }
+    }
+
+    private static class SnapshotReader {
+        private final byte[] bytes;
+        private int position;
+        private String[] strings;
+        private final Map<String, Class<?>> classes = new HashMap<>();
+
+        private SnapshotReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private MetaDataSnapshot read() {
+            try {
+                for (byte b : MAGIC) {
+                    if (bytes[position++] != b) {
+                        throw new JdbcMetaDataException("Not a metadata snapshot");
+                    }
+                }
+                int version = varint();
+                if (version != VERSION) {
+                    throw new JdbcMetaDataException("Unsupported metadata snapshot version " + version);
+                }
+                long createdAt = varlong();
+
+                strings = new String[length(varint())];
+                for (int i = 0; i < strings.length; i++) {
+                    int length = length(varint());
+                    strings[i] = new String(bytes, position, length, StandardCharsets.UTF_8);
+                    position += length;
+                }
+
+                JdbcDatabaseMetaData metaData = new JdbcDatabaseMetaData()
+                        .setDatabaseProductName(string());
+                int schemaCount = count();
+                if (schemaCount >= 0) {
+                    List<SchemaMetaData> schemas = new ArrayList<>(schemaCount);
+                    for (int i = 0; i < schemaCount; i++) {
+                        schemas.add(readSchema());
+                    }
+                    metaData.setSchemas(schemas);
+                }
+                return new MetaDataSnapshot(version, createdAt, metaData);
+            } catch (ArrayIndexOutOfBoundsException | StringIndexOutOfBoundsException e) {
+                throw new JdbcMetaDataException("Metadata snapshot is truncated", e);
+            } catch (JdbcMetaDataException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // dangling positions and the like, the file is damaged the same way as a truncated one
+                throw new JdbcMetaDataException("Metadata snapshot is corrupted", e);
+            }
+        }
+
+        private SchemaMetaData readSchema() {
+            SchemaMetaData schema = new SchemaMetaData()
+                    .setName(string());
+
+            int tableCount = count();
+            List<TableMetaData> tables = tableCount >= 0 ? new ArrayList<>(tableCount) : null;
+            for (int i = 0; i < tableCount; i++) {
+                tables.add(readTable());
+            }
+            schema.setTables(tables);
+
+            int sequenceCount = count();
+            List<SequenceMetaData> sequences = sequenceCount >= 0 ? new ArrayList<>(sequenceCount) : null;
+            for (int i = 0; i < sequenceCount; i++) {
+                sequences.add(new SequenceMetaData()
+                        .setName(string())
+                        .setSchema(string())
+                        .setIncrementBy(nullableInt()));
+            }
+            return schema.setSequences(sequences);
+        }
+
+        private TableMetaData readTable() {
+            TableMetaData table = new TableMetaData()
+                    .setName(string())
+                    .setSchemaName(string())
+                    .setSignature(string());
+
+            int indexCount = count();
+            List<IndexMetaData> indexes = indexCount >= 0 ? new ArrayList<>(indexCount) : null;
+            for (int i = 0; i < indexCount; i++) {
+                IndexMetaData index = new IndexMetaData()
+                        .setName(string())
+                        .setUnique(nullableBoolean())
+                        .setType(nullableInt())
+                        .setCardinality(nullableInt())
+                        .setPages(nullableInt());
+                int indexColumnCount = count();
+                List<IndexColumnMetadata> indexColumns = indexColumnCount >= 0 ? new ArrayList<>(indexColumnCount) : null;
+                for (int j = 0; j < indexColumnCount; j++) {
+                    indexColumns.add(new IndexColumnMetadata()
+                            .setName(string())
+                            .setAscending(nullableBoolean())
+                            .setOrdinalPosition(nullableInt())
+                            .setSortType(nullableInt()));
+                }
+                indexes.add(index.setIndexColumns(indexColumns));
+            }
+            table.setIndexes(indexes);
+
+            int foreignKeyCount = varint();
+            List<ForeignKeyMetaData> foreignKeys = new ArrayList<>(foreignKeyCount);
+            for (int i = 0; i < foreignKeyCount; i++) {
+                foreignKeys.add(new ForeignKeyMetaData()
+                        .setName(string())
+                        .setForeignTableSchema(string())
+                        .setForeignTableName(string())
+                        .setForeignColumnName(string())
+                        .setUpdateRule(nullableInt())
+                        .setDeleteRule(nullableInt())
+                        .setColumnNames(stringList())
+                        .setForeignColumnNames(stringList()));
+            }
+
+            int columnCount = count();
+            List<ColumnMetaData> columns = columnCount >= 0 ? new ArrayList<>(columnCount) : null;
+            for (int i = 0; i < columnCount; i++) {
+                columns.add(readColumn(indexes, foreignKeys));
+            }
+            table.setColumns(columns);
+
+            int primaryKeyCount = count();
+            if (primaryKeyCount >= 0) {
+                List<ColumnMetaData> primaryKeyColumns = new ArrayList<>(primaryKeyCount);
+                for (int i = 0; i < primaryKeyCount; i++) {
+                    primaryKeyColumns.add(columns.get(varint()));
+                }
+                table.setPrimaryKey(new PrimaryKeyMetaData(primaryKeyColumns));
+            }
+            return table;
+        }
+
+        private ColumnMetaData readColumn(List<IndexMetaData> tableIndexes, List<ForeignKeyMetaData> tableForeignKeys) {
+            ColumnMetaData column = new ColumnMetaData()
+                    .setName(string())
+                    .setTableName(string())
+                    .setSqlType(signedVarint())
+                    .setSqlTypeName(string())
+                    .setJavaType(javaType(string()));
+            int flags = varint();
+            column
+                    .setNullable((flags & 1) != 0)
+                    .setAutoIncrement((flags & 1 << 1) != 0)
+                    .setReadOnly((flags & 1 << 2) != 0)
+                    .setWritable((flags & 1 << 3) != 0)
+                    .setPrimaryKey((flags & 1 << 4) != 0)
+                    .setScale(signedVarint())
+                    .setPrecision(signedVarint())
+                    .setOrdinalPosition(nullableInt())
+                    .setDefaultValue(string())
+                    .setRemarks(string());
+
+            int indexCount = count();
+            List<IndexMetaData> indexes = indexCount >= 0 ? new ArrayList<>(indexCount) : null;
+            for (int i = 0; i < indexCount; i++) {
+                indexes.add(tableIndexes.get(varint()));
+            }
+            column.setIndexes(indexes);
+
+            if ((flags & 1 << 5) != 0) {
+                column.setForeignKeyMetaData(tableForeignKeys.get(varint()));
+            }
+            return column;
+        }
+
+        private Class<?> javaType(String className) {
+            if (className == null) {
+                return null;
+            }
+            return classes.computeIfAbsent(className, name -> {
+                try {
+                    return Class.forName(name);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            });
+        }
+
+        private String string() {
+            int index = varint();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        private List<String> stringList() {
+            int count = count();
+            List<String> list = count >= 0 ? new ArrayList<>(count) : null;
+            for (int i = 0; i < count; i++) {
+                list.add(string());
+            }
+            return list;
+        }
+
+        /**
+         * @return size of the collection or -1 if the collection is <code>null</code>
+         */
+        private int count() {
+            return length(varint()) - 1;
+        }
+
+        /**
+         * Every element takes at least one byte, so a larger length can only come from a damaged file and
+         * must not be used to allocate the arrays
+         */
+        private int length(int length) {
+            if (length < 0 || length > bytes.length - position + 1) {
+                throw new JdbcMetaDataException("Metadata snapshot is corrupted, invalid length " + length);
+            }
+            return length;
+        }
+
+        private Integer nullableInt() {
+            return varint() == 0 ? null : signedVarint();
+        }
+
+        private Boolean nullableBoolean() {
+            int value = varint();
+            return value == 0 ? null : value == 2;
+        }
+
+        private int signedVarint() {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int varint() {
+            return (int) varlong();
+        }
+
+        private long varlong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(8192);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+
+        private void signedVarint(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        private void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        private void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Lazily built hash index of the named metadata by {@link WithName#getName()}. Names are looked up
+ * the same way as {@link WithName#nameIs(String)} compares them, and the first element wins if the names repeat.
+ * <p>
+ * The owner invalidates the index from the setters of the indexed list, and the indexed elements invalidate it
+ * when they are renamed. An element notifies only the last owner that indexed it, so the other owners check
+ * the name of the element they find. The index is also rebuilt after the indexed list is replaced or resized,
+ * so the index of the frozen owner is built once
+ *
+ * @param <T> type of the indexed metadata
+ * @author Andrii Frunt
+ */
+final class NameIndex<T extends WithName> {
+    private final BiConsumer<? super T, Runnable> watch;
+    private final Runnable invalidate = this::invalidate;
+    private final AtomicInteger invalidations = new AtomicInteger();
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * @param watch registers the callback to run when the element is renamed
+     */
+    NameIndex(BiConsumer<? super T, Runnable> watch) {
+        this.watch = watch;
+    }
+
+    T get(List<T> elements, String name) {
+        if (elements == null) {
+            return null;
+        }
+
+        String key = name != null ? name.toUpperCase() : null;
+        Snapshot<T> current = snapshot(elements);
+        T element = current.byName.get(key);
+        if (element != null && !nameEquals(element.getName(), key)) {
+            invalidate();
+            element = snapshot(elements).byName.get(key);
+        }
+        return element;
+    }
+
+    /**
+     * Runs the callback registered by the index, if any
+     */
+    static void changed(Runnable listener) {
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    void invalidate() {
+        invalidations.incrementAndGet();
+    }
+
+    private Snapshot<T> snapshot(List<T> elements) {
+        int invalidations = this.invalidations.get();
+        Snapshot<T> current = snapshot;
+
+        if (current == null || current.elements != elements || current.size != elements.size()
+                || current.invalidations != invalidations) {
+            for (T element : elements) {
+                watch.accept(element, invalidate);
+            }
+            current = new Snapshot<>(elements, invalidations);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private static boolean nameEquals(String name, String key) {
+        return name != null ? name.equals(key) : key == null;
+    }
+
+    private static final class Snapshot<T extends WithName> {
+        private final List<T> elements;
+        private final int size;
+        private final int invalidations;
+        private final Map<String, T> byName;
+
+        private Snapshot(List<T> elements, int invalidations) {
+            this.elements = elements;
+            this.size = elements.size();
+            this.invalidations = invalidations;
+            this.byName = new HashMap<>(Math.max(16, size * 2));
+            for (T element : elements) {
+                byName.putIfAbsent(element.getName(), element);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of the canonical instances of the schema, table, column, index and type names. Drivers return a new string
+ * for every row, so the names repeated by thousands of columns and foreign keys are kept only once after interning.
+ * <p>
+ * The pool is thread safe and can be shared by several collectors with
+ * {@link JdbcMetaDataCollector#setNamePool(NamePool)}. Unlike {@link String#intern()} the pool is not global
+ * and is garbage collected with its collectors
+ *
+ * @author Andrii Frunt
+ */
+public class NamePool {
+    private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version", "").startsWith("1.");
+
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * @param name name to intern, may be <code>null</code>
+     * @return canonical instance of the name
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String canonical = names.putIfAbsent(name, name);
+        if (canonical == null) {
+            return name;
+        }
+
+        if (canonical != name) {
+            hits.incrementAndGet();
+            bytesSaved.addAndGet(sizeOf(name));
+        }
+        return canonical;
+    }
+
+    /**
+     * @return copy of the list with the canonical instances of the names, <code>null</code> stays <code>null</code>
+     */
+    List<String> intern(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        List<String> interned = new ArrayList<>(names.size());
+        for (String name : names) {
+            interned.add(intern(name));
+        }
+        return interned;
+    }
+
+    /**
+     * @return number of the distinct names in the pool
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * @return number of the duplicate strings replaced by the canonical instances
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Estimated heap released by the replaced duplicates, counting the <code>String</code> and its array
+     * as laid out by a 64-bit JVM with compressed references. Since Java 9 the names of Latin-1 characters take
+     * one byte per character, unless the compact strings are disabled, which is not detected
+     *
+     * @return saved bytes
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public NamePool clear() {
+        names.clear();
+        hits.set(0);
+        bytesSaved.set(0);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "NamePool[names=" + size() + ", hits=" + getHits() + ", bytesSaved=" + getBytesSaved() + "]";
+    }
+
+    private static long sizeOf(String name) {
+        return 24 + align(16 + (COMPACT_STRINGS && isLatin1(name) ? 1L : 2L) * name.length());
+    }
+
+    private static boolean isLatin1(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -26,6 +26,8 @@ import java.util.List;
  */
 public class PrimaryKeyMetaData implements WithColumns {
     private List<ColumnMetaData> columns = new ArrayList<>();
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private volatile boolean frozen;
 
     public PrimaryKeyMetaData() {
     }
@@ -43,7 +45,41 @@ public class PrimaryKeyMetaData implements WithColumns {
     }
 
     public PrimaryKeyMetaData setColumns(List<ColumnMetaData> columns) {
+        Frozen.check(frozen, this);
         this.columns = columns;
+        fingerprint.modified();
+        return this;
+    }
+
+    /**
+     * @return fingerprint of the column names in order
+     */
+    long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .addOrdered(columns, c -> JdbcUtil.hash64(String.valueOf(c.fingerprintName())))
+                .value();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the primary key and its columns immutable
+     *
+     * @return this
+     */
+    public PrimaryKeyMetaData freeze() {
+        if (!frozen) {
+            columns().forEach(ColumnMetaData::freeze);
+            columns = Frozen.list(columns);
+            fingerprint.freeze(fingerprint());
+            frozen = true;
+        }
         return this;
     }
 
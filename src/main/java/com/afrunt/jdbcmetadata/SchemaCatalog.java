@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog data of the whole schema grouped by table name. Allows to build the {@link TableMetaData}
+ * without querying columns, primary keys, foreign keys and indexes for every table separately.
+ * Parts that were not loaded are <code>null</code>
+ *
+ * @author Andrii Frunt
+ */
+public class SchemaCatalog {
+    private String schemaName;
+    private Map<String, List<ColumnMetaData>> columns;
+    private Map<String, List<String>> primaryKeys;
+    private Map<String, Map<String, ForeignKeyMetaData>> foreignKeys;
+    private Map<String, List<IndexMetaData>> indexes;
+
+    public boolean columnsLoaded() {
+        return columns != null;
+    }
+
+    public boolean keysLoaded() {
+        return primaryKeys != null && foreignKeys != null;
+    }
+
+    public boolean indexesLoaded() {
+        return indexes != null;
+    }
+
+    public boolean hasColumnsFor(String tableName) {
+        return columnsLoaded() && columns.containsKey(tableName);
+    }
+
+    public List<ColumnMetaData> columns(String tableName) {
+        return columnsLoaded() ? columns.getOrDefault(tableName, Collections.emptyList()) : Collections.emptyList();
+    }
+
+    public List<String> primaryKeys(String tableName) {
+        return primaryKeys != null ? primaryKeys.getOrDefault(tableName, Collections.emptyList()) : Collections.emptyList();
+    }
+
+    public Map<String, ForeignKeyMetaData> foreignKeys(String tableName) {
+        return foreignKeys != null ? foreignKeys.getOrDefault(tableName, Collections.emptyMap()) : Collections.emptyMap();
+    }
+
+    public List<IndexMetaData> indexes(String tableName) {
+        return indexesLoaded() ? indexes.getOrDefault(tableName, Collections.emptyList()) : Collections.emptyList();
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public SchemaCatalog setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+        return this;
+    }
+
+    public Map<String, List<ColumnMetaData>> getColumns() {
+        return columns;
+    }
+
+    public SchemaCatalog setColumns(Map<String, List<ColumnMetaData>> columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    public Map<String, List<String>> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    public SchemaCatalog setPrimaryKeys(Map<String, List<String>> primaryKeys) {
+        this.primaryKeys = primaryKeys;
+        return this;
+    }
+
+    public Map<String, Map<String, ForeignKeyMetaData>> getForeignKeys() {
+        return foreignKeys;
+    }
+
+    public SchemaCatalog setForeignKeys(Map<String, Map<String, ForeignKeyMetaData>> foreignKeys) {
+        this.foreignKeys = foreignKeys;
+        return this;
+    }
+
+    public Map<String, List<IndexMetaData>> getIndexes() {
+        return indexes;
+    }
+
+    public SchemaCatalog setIndexes(Map<String, List<IndexMetaData>> indexes) {
+        this.indexes = indexes;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return getSchemaName() + "[" + size(columns) + "," + size(primaryKeys) + "," + size(foreignKeys) + "," + size(indexes) + "]";
+    }
+
+    private int size(Map<String, ?> map) {
+        return map != null ? map.size() : 0;
+    }
+}
@@ -19,7 +19,10 @@
 package com.afrunt.jdbcmetadata;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -30,6 +33,14 @@ public class SchemaMetaData implements WithName {
     private String name;
     private List<TableMetaData> tables = new ArrayList<>();
     private List<SequenceMetaData> sequences = new ArrayList<>();
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private final Runnable tablesChanged = this::tablesChanged;
+    private final NameIndex<TableMetaData> tablesByName = new NameIndex<>((table, invalidate) -> table.watch(tablesChanged));
+    private final AtomicInteger tableChanges = new AtomicInteger();
+    private final NameIndex<SequenceMetaData> sequencesByName = new NameIndex<>(SequenceMetaData::watch);
+    private volatile ForeignKeyGraph foreignKeyGraph;
+    private volatile Runnable listener;
+    private volatile boolean frozen;
 
     @Override
     public String getName() {
@@ -38,17 +49,23 @@ public class SchemaMetaData implements WithName {
 
     public List<SequenceMetaData> sequences() {
         if (getSequences() == null) {
+            if (frozen) {
+                return Collections.emptyList();
+            }
             setSequences(new ArrayList<>());
         }
         return getSequences();
     }
 
     public SequenceMetaData sequence(String name) {
-        return sequences().stream().filter(s -> s.nameIs(name)).findFirst().orElse(null);
+        return sequencesByName.get(getSequences(), name);
     }
 
     public List<TableMetaData> tables() {
         if (getTables() == null) {
+            if (frozen) {
+                return Collections.emptyList();
+            }
             setTables(new ArrayList<>());
         }
 
@@ -56,14 +73,11 @@ public class SchemaMetaData implements WithName {
     }
 
     public TableMetaData table(String name) {
-        return filterTables(t -> t.nameIs(name)).stream()
-                .findAny()
-                .orElse(null);
+        return tablesByName.get(getTables(), name);
     }
 
     public boolean hasTable(String name) {
-        return !filterTables(t -> t.nameIs(name))
-                .isEmpty();
+        return table(name) != null;
     }
 
     public List<TableMetaData> filterTables(Predicate<TableMetaData> fn) {
@@ -73,7 +87,10 @@ public class SchemaMetaData implements WithName {
     }
 
     public SchemaMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -82,7 +99,10 @@ public class SchemaMetaData implements WithName {
     }
 
     public SchemaMetaData setTables(List<TableMetaData> tables) {
+        Frozen.check(frozen, this);
         this.tables = tables;
+        tablesChanged();
+        fingerprint.modified();
         return this;
     }
 
@@ -90,6 +110,24 @@ public class SchemaMetaData implements WithName {
         return tables().size();
     }
 
+    /**
+     * Merkle fingerprint of the schema, rolled up from the fingerprints of the tables and sequences
+     * regardless of their order
+     *
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(name)
+                .addUnordered(tables, TableMetaData::fingerprint)
+                .addUnordered(sequences, SequenceMetaData::fingerprint)
+                .value();
+    }
+
     @Override
     public String toString() {
         return getName() + "[" + tableCount() + "]";
@@ -100,25 +138,117 @@ public class SchemaMetaData implements WithName {
     }
 
     public SchemaMetaData setSequences(List<SequenceMetaData> sequences) {
+        Frozen.check(frozen, this);
         this.sequences = sequences;
+        sequencesByName.invalidate();
+        fingerprint.modified();
         return this;
     }
 
     public List<TableMetaData> getRelatedTables(TableMetaData table) {
-        return tables().stream()
-                .filter(tm -> tm.isRelatedTo(table))
-                .collect(Collectors.toList());
+        ForeignKeyGraph graph = foreignKeyGraph();
+        if (graph.contains(table)) {
+            return graph.related(table);
+        }
+        return filterTables(tm -> tm.isRelatedTo(table));
     }
 
     public List<TableMetaData> getChildTables(TableMetaData table) {
-        return tables().stream()
-                .filter(tm -> tm.dependsOn(table))
-                .collect(Collectors.toList());
+        ForeignKeyGraph graph = foreignKeyGraph();
+        if (graph.contains(table)) {
+            return graph.children(table);
+        }
+        return filterTables(tm -> tm.dependsOn(table));
     }
 
     public List<TableMetaData> getParentTables(TableMetaData table) {
-        return tables().stream()
-                .filter(table::dependsOn)
-                .collect(Collectors.toList());
+        ForeignKeyGraph graph = foreignKeyGraph();
+        if (graph.contains(table)) {
+            return graph.parents(table);
+        }
+        return filterTables(table::dependsOn);
+    }
+
+    /**
+     * Graph of the foreign keys between the tables of this schema, use {@link JdbcDatabaseMetaData#foreignKeyGraph()}
+     * to follow the foreign keys referencing the other schemas
+     *
+     * @return foreign key graph
+     */
+    public ForeignKeyGraph foreignKeyGraph() {
+        int version = tableChanges.get();
+        ForeignKeyGraph graph = foreignKeyGraph;
+        if (graph == null || graph.getVersion() != version) {
+            watchTables();
+            graph = new ForeignKeyGraph(tables(), version);
+            foreignKeyGraph = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Registers the callback that invalidates the foreign key graphs and the table index of this schema,
+     * and then of the database, when any table or column is renamed or the columns or foreign keys are replaced
+     */
+    void watchTables() {
+        for (TableMetaData table : tables()) {
+            table.watch(tablesChanged);
+            table.watchColumns();
+        }
+    }
+
+    private void tablesChanged() {
+        tablesByName.invalidate();
+        tableChanges.incrementAndGet();
+        NameIndex.changed(listener);
+    }
+
+    /**
+     * Registers the callback of the database, that is run when the schema is renamed or gets the other tables
+     */
+    void watch(Runnable listener) {
+        if (!frozen) {
+            this.listener = listener;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the schema with its tables and sequences immutable
+     *
+     * @return this
+     */
+    public SchemaMetaData freeze() {
+        return freeze(Collections.emptyMap());
+    }
+
+    /**
+     * Makes the schema immutable, replacing the tables with the frozen tables of the previous snapshot
+     * that have the same fingerprint
+     *
+     * @param previousTables frozen tables of the previous snapshot by the full name
+     * @return this
+     */
+    SchemaMetaData freeze(Map<String, TableMetaData> previousTables) {
+        if (!frozen) {
+            List<TableMetaData> frozenTables = new ArrayList<>(tables().size());
+            for (TableMetaData table : tables()) {
+                TableMetaData previous = previousTables.get(table.fullName());
+                if (previous != null && previous.fingerprint() == table.fingerprint()) {
+                    frozenTables.add(previous);
+                } else {
+                    frozenTables.add(table.freeze());
+                }
+            }
+            sequences().forEach(SequenceMetaData::freeze);
+            tables = Frozen.list(frozenTables);
+            sequences = Frozen.list(sequences);
+            fingerprint.freeze(fingerprint());
+            frozen = true;
+        }
+        return this;
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collected schema whose tables are shared by the schemas with the same structure, such as the schemas of
+ * the tenants. Tables of the template are frozen in place, including the ones of the template schema itself,
+ * and each schema gets its own light {@link TableMetaData} that shares the columns, indexes and primary key
+ * of the template table. The lists of the columns and indexes are its own, so they can still be changed.
+ * Only the columns with the foreign keys to the tables of the own schema are copied, so they reference
+ * the tables of the right schema
+ *
+ * @author Andrii Frunt
+ */
+final class SchemaTemplate {
+    private final String schema;
+    private final Map<String, TableMetaData> tables = new HashMap<>();
+
+    SchemaTemplate(SchemaMetaData template) {
+        schema = template.getName();
+        for (TableMetaData table : template.tables()) {
+            tables.put(table.getName(), table.freeze());
+        }
+    }
+
+    String getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param table table of the other schema
+     * @return <code>true</code> if the template has the table with the same structure
+     */
+    boolean matches(TableMetaData table) {
+        TableMetaData templateTable = tables.get(table.getName());
+        return templateTable != null && templateTable.structure() == table.structure();
+    }
+
+    /**
+     * @param tableName table name
+     * @param schema    schema of the new table
+     * @return table of the schema sharing the structure of the template table
+     */
+    TableMetaData table(String tableName, String schema) {
+        TableMetaData template = tables.get(tableName);
+        List<ColumnMetaData> columns = new ArrayList<>(template.columns());
+        Map<ForeignKeyMetaData, ForeignKeyMetaData> foreignKeys = new IdentityHashMap<>();
+
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMetaData column = columns.get(i);
+            ForeignKeyMetaData foreignKey = column.getForeignKeyMetaData();
+            if (foreignKey != null && this.schema.equals(foreignKey.getForeignTableSchema())) {
+                ForeignKeyMetaData ownForeignKey = foreignKeys.computeIfAbsent(foreignKey, fk -> fk.copy(schema));
+                columns.set(i, column.copy(ownForeignKey));
+            }
+        }
+
+        PrimaryKeyMetaData primaryKey = template.getPrimaryKey();
+        if (primaryKey != null && !foreignKeys.isEmpty()) {
+            List<ColumnMetaData> templateColumns = template.getColumns();
+            List<ColumnMetaData> primaryKeyColumns = new ArrayList<>();
+            for (ColumnMetaData primaryKeyColumn : primaryKey.columns()) {
+                for (int i = 0; i < templateColumns.size(); i++) {
+                    if (templateColumns.get(i) == primaryKeyColumn) {
+                        primaryKeyColumns.add(columns.get(i));
+                    }
+                }
+            }
+            primaryKey = new PrimaryKeyMetaData(primaryKeyColumns);
+        }
+
+        return new TableMetaData()
+                .setName(template.getName())
+                .setSchemaName(schema)
+                .setColumns(columns)
+                .setIndexes(template.getIndexes() != null ? new ArrayList<>(template.getIndexes()) : null)
+                .setPrimaryKey(primaryKey);
+    }
+}
@@ -26,13 +26,19 @@ public class SequenceMetaData implements WithName {
     private String schema;
 
     private Integer incrementBy;
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private volatile Runnable listener;
+    private volatile boolean frozen;
 
     public String getName() {
         return name;
     }
 
     public SequenceMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -41,7 +47,9 @@ public class SequenceMetaData implements WithName {
     }
 
     public SequenceMetaData setSchema(String schema) {
+        Frozen.check(frozen, this);
         this.schema = schema;
+        fingerprint.modified();
         return this;
     }
 
@@ -50,10 +58,28 @@ public class SequenceMetaData implements WithName {
     }
 
     public SequenceMetaData setIncrementBy(Integer incrementBy) {
+        Frozen.check(frozen, this);
         this.incrementBy = incrementBy;
+        fingerprint.modified();
         return this;
     }
 
+    /**
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(name)
+                .add(schema)
+                .add(incrementBy)
+                .value();
+    }
+
     public String getFullName() {
         if (schema != null) {
             return schema + "." + name;
@@ -61,4 +87,32 @@ public class SequenceMetaData implements WithName {
             return name;
         }
     }
+
+    /**
+     * Registers the callback of the name index of the owner, that is run when the sequence is renamed
+     */
+    void watch(Runnable listener) {
+        if (!frozen) {
+            this.listener = listener;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public SequenceMetaData freeze() {
+        if (!frozen) {
+            fingerprint.freeze(fingerprint());
+            frozen = true;
+        }
+        return this;
+    }
+
+    void internNames(NamePool pool) {
+        if (!frozen) {
+            name = pool.intern(name);
+            schema = pool.intern(schema);
+        }
+    }
 }
@@ -21,7 +21,9 @@ package com.afrunt.jdbcmetadata;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +35,17 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     private PrimaryKeyMetaData primaryKey;
     private List<ColumnMetaData> columns = new ArrayList<>();
     private List<IndexMetaData> indexes = new ArrayList<>();
+    private String signature;
+    private final Fingerprint.Cache fingerprint = new Fingerprint.Cache();
+    private final Runnable columnsChanged = this::columnsChanged;
+    private final NameIndex<ColumnMetaData> columnsByName = new NameIndex<>((column, invalidate) -> column.watch(columnsChanged));
+    private final Runnable indexesChanged = this::indexesChanged;
+    private final NameIndex<IndexMetaData> indexesByName = new NameIndex<>((index, invalidate) -> index.watch(indexesChanged));
+    private final AtomicInteger indexChanges = new AtomicInteger();
+    private volatile ColumnIndexes columnIndexes;
+    private int hash;
+    private volatile Runnable listener;
+    private volatile boolean frozen;
 
     public String fullName() {
         if (getSchemaName() != null) {
@@ -47,7 +60,10 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public TableMetaData setName(String name) {
+        Frozen.check(frozen, this);
         this.name = name;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -56,7 +72,9 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public TableMetaData setPrimaryKey(PrimaryKeyMetaData primaryKey) {
+        Frozen.check(frozen, this);
         this.primaryKey = primaryKey;
+        fingerprint.modified();
         return this;
     }
 
@@ -65,13 +83,19 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public TableMetaData setColumns(List<ColumnMetaData> columns) {
+        Frozen.check(frozen, this);
         this.columns = columns;
+        columnsChanged();
+        fingerprint.modified();
         return this;
     }
 
     public TableMetaData addColumn(ColumnMetaData cm) {
+        Frozen.check(frozen, this);
         columns = Optional.ofNullable(getColumns()).orElse(new ArrayList<>());
         columns.add(cm);
+        columnsChanged();
+        fingerprint.modified();
         return this;
     }
 
@@ -81,7 +105,10 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public TableMetaData setSchemaName(String schemaName) {
+        Frozen.check(frozen, this);
         this.schemaName = schemaName;
+        fingerprint.modified();
+        NameIndex.changed(listener);
         return this;
     }
 
@@ -97,6 +124,21 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * @return distinct foreign keys of the table in the order of their first columns,
+     * columns of the composite foreign key share the same {@link ForeignKeyMetaData}
+     */
+    public List<ForeignKeyMetaData> foreignKeyConstraints() {
+        List<ForeignKeyMetaData> foreignKeys = new ArrayList<>();
+        for (ColumnMetaData column : columns()) {
+            ForeignKeyMetaData fk = column.getForeignKeyMetaData();
+            if (fk != null && foreignKeys.stream().noneMatch(f -> f == fk)) {
+                foreignKeys.add(fk);
+            }
+        }
+        return foreignKeys;
+    }
+
     public boolean isRelatedTo(TableMetaData other) {
         return other.hasForeignFor(this) || hasForeignFor(other);
     }
@@ -141,7 +183,7 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public List<ColumnMetaData> getBlobColumns() {
-        return columns.stream().filter(ColumnMetaData::isBLOB).collect(Collectors.toList());
+        return columns().stream().filter(ColumnMetaData::isBLOB).collect(Collectors.toList());
     }
 
     public List<String> columnNames() {
@@ -149,11 +191,17 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public boolean hasBlobs() {
-        return columns.stream().filter(ColumnMetaData::isBLOB).count() > 0;
+        return columns().stream().filter(ColumnMetaData::isBLOB).count() > 0;
+    }
+
+    @Override
+    public ColumnMetaData column(String name) {
+        return columnsByName.get(getColumns(), name);
     }
 
+    @Override
     public boolean hasColumn(String columnName) {
-        return columns().stream().map(c -> c.nameIs(columnName)).reduce(false, (b1, b2) -> b1 || b2);
+        return column(columnName) != null;
     }
 
     public List<String> getRelatedTables() {
@@ -171,16 +219,20 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
 
         if (name != null ? !name.equals(that.name) : that.name != null) return false;
         if (schemaName != null ? !schemaName.equals(that.schemaName) : that.schemaName != null) return false;
-        if (primaryKey != null ? !primaryKey.equals(that.primaryKey) : that.primaryKey != null) return false;
-        return columns != null ? columns.equals(that.columns) : that.columns == null;
+        if (getPrimaryKey() != null ? !getPrimaryKey().equals(that.getPrimaryKey()) : that.getPrimaryKey() != null) return false;
+        return getColumns() != null ? getColumns().equals(that.getColumns()) : that.getColumns() == null;
     }
 
     @Override
     public int hashCode() {
+        return frozen ? hash : computeHashCode();
+    }
+
+    private int computeHashCode() {
         int result = name != null ? name.hashCode() : 0;
         result = 31 * result + (schemaName != null ? schemaName.hashCode() : 0);
-        result = 31 * result + (primaryKey != null ? primaryKey.hashCode() : 0);
-        result = 31 * result + (columns != null ? columns.hashCode() : 0);
+        result = 31 * result + (getPrimaryKey() != null ? getPrimaryKey().hashCode() : 0);
+        result = 31 * result + (getColumns() != null ? getColumns().hashCode() : 0);
         return result;
     }
 
@@ -189,14 +241,55 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
     }
 
     public TableMetaData setIndexes(List<IndexMetaData> indexes) {
+        Frozen.check(frozen, this);
         this.indexes = indexes;
+        indexesChanged();
+        fingerprint.modified();
+        return this;
+    }
+
+    @Override
+    public IndexMetaData index(String name) {
+        return indexesByName.get(getIndexes(), name);
+    }
+
+    @Override
+    public boolean hasIndex(String name) {
+        return index(name) != null;
+    }
+
+    /**
+     * @return signature of the table definition at the time of the collection, if the changes were tracked
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public TableMetaData setSignature(String signature) {
+        Frozen.check(frozen, this);
+        this.signature = signature;
         return this;
     }
 
+    /**
+     * @param columnName column name
+     * @return indexes of the column, looked up in the inverted index of the columns, that is built on the first call
+     * and after the indexes are replaced, or any index is renamed or gets the other columns
+     */
     public List<IndexMetaData> columnIndexes(String columnName) {
-        return indexes().stream()
-                .filter(i -> i.isForColumn(columnName))
-                .collect(Collectors.toList());
+        List<IndexMetaData> indexes = getIndexes();
+        int changes = indexChanges.get();
+        ColumnIndexes current = columnIndexes;
+        if (current == null || current.changes != changes || current.indexes != indexes
+                || current.size != (indexes != null ? indexes.size() : 0)) {
+            if (indexes != null) {
+                indexes.forEach(index -> index.watch(indexesChanged));
+            }
+            current = new ColumnIndexes(indexes, changes);
+            columnIndexes = current;
+        }
+        List<IndexMetaData> result = current.byColumn.get(columnName != null ? columnName.toUpperCase() : null);
+        return result != null ? new ArrayList<>(result) : new ArrayList<>();
     }
 
     public boolean partOfCompositeKey(ColumnMetaData cm) {
@@ -204,8 +297,127 @@ public class TableMetaData implements WithName, WithPrimaryKey, WithIndexes {
                 .filter(c -> c.nameIs(cm.getName()) && nameIs(cm.getTableName())).count() > 0;
     }
 
+    /**
+     * Merkle fingerprint of the table, rolled up from the fingerprints of the columns in order,
+     * of the indexes regardless of the order and the primary key column names
+     *
+     * @return 64-bit content fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint.get(this::computeFingerprint);
+    }
+
+    private long computeFingerprint() {
+        return new Fingerprint()
+                .add(schemaName)
+                .add(name)
+                .addOrdered(getColumns(), ColumnMetaData::fingerprint)
+                .addUnordered(getIndexes(), IndexMetaData::fingerprint)
+                .add(getPrimaryKey() != null ? getPrimaryKey().fingerprint() : 0)
+                .value();
+    }
+
+    /**
+     * Fingerprint of the table that does not depend on its schema. Tables with the same name and structure
+     * in different schemas, including the foreign keys to the tables of their own schemas, have equal structures
+     *
+     * @return 64-bit structure fingerprint
+     */
+    long structure() {
+        return new Fingerprint()
+                .add(name)
+                .addOrdered(getColumns(), c -> c.structure(schemaName))
+                .addUnordered(getIndexes(), IndexMetaData::fingerprint)
+                .add(getPrimaryKey() != null ? getPrimaryKey().fingerprint() : 0)
+                .value();
+    }
+
+    /**
+     * Registers the callback of the schema, that is run when the table is renamed, gets the other columns
+     * or any column is renamed or gets the other foreign key
+     */
+    void watch(Runnable listener) {
+        if (!frozen) {
+            this.listener = listener;
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the table with its columns, indexes and primary key immutable. Fingerprint and hash code are computed once
+     *
+     * @return this
+     */
+    public TableMetaData freeze() {
+        if (!frozen) {
+            columns().forEach(ColumnMetaData::freeze);
+            indexes().forEach(IndexMetaData::freeze);
+            if (getPrimaryKey() != null) {
+                getPrimaryKey().freeze();
+            }
+            columns = Frozen.list(getColumns());
+            indexes = Frozen.list(getIndexes());
+            fingerprint.freeze(fingerprint());
+            hash = computeHashCode();
+            frozen = true;
+        }
+        return this;
+    }
+
     @Override
     public String toString() {
         return fullName();
     }
+
+    /**
+     * Registers the callback that invalidates the column index of this table and the foreign key graphs
+     * of the owners when any column is renamed or gets the other foreign key
+     */
+    void watchColumns() {
+        columns().forEach(column -> column.watch(columnsChanged));
+    }
+
+    private void columnsChanged() {
+        columnsByName.invalidate();
+        NameIndex.changed(listener);
+    }
+
+    /**
+     * Invalidates the indexes by name and by column
+     */
+    private void indexesChanged() {
+        indexesByName.invalidate();
+        indexChanges.incrementAndGet();
+    }
+
+    private static final class ColumnIndexes {
+        private final List<IndexMetaData> indexes;
+        private final int size;
+        private final int changes;
+        private final Map<String, List<IndexMetaData>> byColumn;
+
+        private ColumnIndexes(List<IndexMetaData> indexes, int changes) {
+            this.indexes = indexes;
+            this.size = indexes != null ? indexes.size() : 0;
+            this.changes = changes;
+            this.byColumn = IndexAssembler.indexesByColumn(indexes);
+        }
+    }
+
+    /**
+     * Replaces the names of the table, its columns, indexes and foreign keys with the canonical instances.
+     * Names stay equal, so the fingerprint is not changed
+     */
+    void internNames(NamePool pool) {
+        if (frozen) {
+            return;
+        }
+        name = pool.intern(name);
+        schemaName = pool.intern(schemaName);
+        columns().forEach(column -> column.internNames(pool));
+        indexes().forEach(index -> index.internNames(pool));
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class AsyncCollectionTest extends BaseTest {
+    @Test
+    public void test() {
+        JdbcMetaDataCollector collector = getMetaDataCollector();
+
+        CompletableFuture<JdbcDatabaseMetaData> database = collector.collectDatabaseMetaDataAsync(s -> !"INFORMATION_SCHEMA".equals(s));
+        CompletableFuture<SchemaMetaData> schema = collector.collectSchemaMetaDataAsync("PUBLIC");
+        CompletableFuture<TableMetaData> table = collector.collectTableMetaDataAsync("EMPLOYEE", "TEST");
+
+        JdbcDatabaseMetaData databaseMetaData = database.join();
+        assertEquals(2, databaseMetaData.getSchemas().size());
+        assertTrue(databaseMetaData.schema("TEST").hasTable("DEPARTMENT"));
+        assertEquals("H2", databaseMetaData.getDatabaseProductName());
+
+        assertEquals(3, schema.join().tableCount());
+        assertTrue(table.join().hasIndex("NAME_IDX"));
+    }
+
+    @Test
+    public void testFailure() {
+        CompletableFuture<TableMetaData> table = getMetaDataCollector().collectTableMetaDataAsync("UNKNOWN_TABLE", "TEST");
+
+        try {
+            table.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof JdbcMetaDataException);
+        }
+    }
+}
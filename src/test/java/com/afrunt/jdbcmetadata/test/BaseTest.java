@@ -18,6 +18,7 @@
  */
 package com.afrunt.jdbcmetadata.test;
 
+import com.afrunt.jdbcmetadata.JdbcDatabaseMetaData;
 import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
 import org.h2.jdbcx.JdbcDataSource;
 import org.h2.tools.RunScript;
@@ -29,11 +30,17 @@ import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.function.Predicate;
 
 /**
  * @author Andrii Frunt
  */
 public class BaseTest {
+    /**
+     * Schemas of the test database without the system ones
+     */
+    protected static final Predicate<String> SCHEMAS = s -> !"INFORMATION_SCHEMA".equals(s);
+
     private Connection connection;
     private DataSource dataSource;
 
@@ -51,8 +58,10 @@ public class BaseTest {
 
     @After
     public void destroy() throws SQLException {
-        Statement stmt = connection.createStatement();
-        stmt.executeUpdate("DROP ALL OBJECTS");
+        metaDataCollector.close();
+        try (Connection connection = this.connection; Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP ALL OBJECTS");
+        }
     }
 
     public Connection createConnection() throws SQLException {
@@ -74,7 +83,41 @@ public class BaseTest {
         }
     }
 
+    /**
+     * Runs the statements with a connection of its own, that is closed afterwards
+     */
+    public void execute(String... sql) throws SQLException {
+        try (Connection connection = createConnection(); Statement statement = connection.createStatement()) {
+            for (String s : sql) {
+                statement.executeUpdate(s);
+            }
+        }
+    }
+
+    /**
+     * @return new collector with no cached metadata
+     */
+    public JdbcMetaDataCollector createMetaDataCollector() {
+        return new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setParallelism(4);
+    }
+
+    /**
+     * @return metadata of {@link #SCHEMAS} collected by {@link #createMetaDataCollector() the new collector},
+     * that is closed afterwards
+     */
+    public JdbcDatabaseMetaData collect() {
+        try (JdbcMetaDataCollector collector = createMetaDataCollector()) {
+            return collector.collectDatabaseMetaData(SCHEMAS);
+        }
+    }
+
     public JdbcMetaDataCollector getMetaDataCollector() {
         return metaDataCollector;
     }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
 }
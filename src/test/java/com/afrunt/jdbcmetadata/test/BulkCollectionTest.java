@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.ColumnMetaData;
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import com.afrunt.jdbcmetadata.SchemaMetaData;
+import com.afrunt.jdbcmetadata.TableMetaData;
+import org.h2.tools.SimpleResultSet;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class BulkCollectionTest extends BaseTest {
+    @Test
+    public void test() {
+        JdbcMetaDataCollector bulkCollector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setBulkCollection(true);
+
+        assertTrue(bulkCollector.isBulkCollection());
+
+        for (String schemaName : new String[]{"TEST", "PUBLIC"}) {
+            SchemaMetaData schema = getMetaDataCollector().collectSchemaMetaData(schemaName);
+            SchemaMetaData bulkSchema = bulkCollector.collectSchemaMetaData(schemaName);
+
+            assertEquals(schema.tableCount(), bulkSchema.tableCount());
+
+            for (TableMetaData table : schema.tables()) {
+                TableMetaData bulkTable = bulkSchema.table(table.getName());
+                assertEquals(table.columnNames(), bulkTable.columnNames());
+                assertEquals(table.getPrimaryKey().columns().toString(), bulkTable.getPrimaryKey().columns().toString());
+                assertEquals(table.indexes().size(), bulkTable.indexes().size());
+                assertEquals(table.foreignTablesNames(), bulkTable.foreignTablesNames());
+            }
+        }
+
+        TableMetaData employee = bulkCollector.collectTableMetaData("EMPLOYEE", "TEST");
+        assertTrue(employee.hasIndex("NAME_IDX"));
+        assertEquals("TEST.DEPARTMENT->DEPARTMENT_ID", employee.column("DEPARTMENT_ID").getForeignKeyMetaData().toString());
+
+        bulkCollector.close();
+    }
+
+    @Test
+    public void testNullTablePattern() {
+        AtomicInteger bulkQueries = new AtomicInteger();
+        AtomicInteger tableQueries = new AtomicInteger();
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        dataSource.metaData = metaData -> answerNullTablePattern(metaData, bulkQueries, tableQueries);
+        JdbcMetaDataCollector bulkCollector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setBulkCollection(true);
+
+        for (String schemaName : new String[]{"TEST", "PUBLIC"}) {
+            SchemaMetaData schema = getMetaDataCollector().collectSchemaMetaData(schemaName);
+            SchemaMetaData bulkSchema = bulkCollector.collectSchemaMetaData(schemaName);
+
+            for (TableMetaData table : schema.tables()) {
+                TableMetaData bulkTable = bulkSchema.table(table.getName());
+                assertEquals(table.getPrimaryKey().columns().toString(), bulkTable.getPrimaryKey().columns().toString());
+                assertEquals(table.indexes().toString(), bulkTable.indexes().toString());
+                assertEquals(table.foreignTablesNames(), bulkTable.foreignTablesNames());
+                for (ColumnMetaData column : table.columns()) {
+                    assertEquals(String.valueOf(column.getForeignKeyMetaData()), String.valueOf(bulkTable.column(column.getName()).getForeignKeyMetaData()));
+                }
+            }
+        }
+
+        // keys, indexes and foreign keys of each schema are read at once
+        assertEquals(6, bulkQueries.get());
+        assertEquals(0, tableQueries.get());
+        bulkCollector.close();
+    }
+
+    /**
+     * H2 returns nothing for the <code>null</code> table name, this metadata answers it with the rows of all tables
+     * of the schema like the drivers supporting the bulk collection
+     */
+    private DatabaseMetaData answerNullTablePattern(DatabaseMetaData metaData, AtomicInteger bulkQueries, AtomicInteger tableQueries) {
+        List<String> perTable = Arrays.asList("getPrimaryKeys", "getIndexInfo", "getImportedKeys");
+        return (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DatabaseMetaData.class},
+                (proxy, method, args) -> {
+                    try {
+                        if (!perTable.contains(method.getName())) {
+                            return method.invoke(metaData, args);
+                        }
+                        if (args[2] != null) {
+                            tableQueries.incrementAndGet();
+                            return method.invoke(metaData, args);
+                        }
+                        bulkQueries.incrementAndGet();
+                        return allTables(metaData, method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private ResultSet allTables(DatabaseMetaData metaData, Method method, Object[] args) throws ReflectiveOperationException, SQLException {
+        SimpleResultSet result = null;
+        try (ResultSet tables = metaData.getTables(null, (String) args[1], "%", null)) {
+            while (tables.next()) {
+                Object[] tableArgs = args.clone();
+                tableArgs[2] = tables.getString("TABLE_NAME");
+                try (ResultSet rs = (ResultSet) method.invoke(metaData, tableArgs)) {
+                    ResultSetMetaData rsMetaData = rs.getMetaData();
+                    if (result == null) {
+                        result = new SimpleResultSet();
+                        for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
+                            result.addColumn(rsMetaData.getColumnLabel(i), rsMetaData.getColumnType(i),
+                                    rsMetaData.getPrecision(i), rsMetaData.getScale(i));
+                        }
+                    }
+                    while (rs.next()) {
+                        Object[] row = new Object[rsMetaData.getColumnCount()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        result.addRow(row);
+                    }
+                }
+            }
+        }
+        return result != null ? result : new SimpleResultSet();
+    }
+}
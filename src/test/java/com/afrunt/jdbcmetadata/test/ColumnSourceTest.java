@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class ColumnSourceTest extends BaseTest {
+    @Test
+    public void test() {
+        TableMetaData expected = getMetaDataCollector().collectTableMetaData("EMPLOYEE", "TEST");
+
+        for (ColumnSource columnSource : ColumnSource.values()) {
+            JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                    .setDataSource(getDataSource())
+                    .setColumnSource(columnSource);
+
+            assertEquals(columnSource, collector.getColumnSource());
+
+            TableMetaData table = collector.collectSchemaMetaData("TEST").table("EMPLOYEE");
+            assertEquals(columnSource.name(), expected.columnNames(), table.columnNames());
+
+            for (ColumnMetaData column : expected.columns()) {
+                ColumnMetaData other = table.column(column.getName());
+                assertEquals(column.getSqlType(), other.getSqlType());
+                assertEquals(column.getSqlTypeName(), other.getSqlTypeName());
+                assertEquals(column.getJavaType(), other.getJavaType());
+                assertEquals(column.getPrecision(), other.getPrecision());
+                assertEquals(column.getScale(), other.getScale());
+                assertEquals(column.isNullable(), other.isNullable());
+                assertEquals(column.isAutoIncrement(), other.isAutoIncrement());
+                assertEquals(column.isPrimaryKey(), other.isPrimaryKey());
+                assertEquals(column.getOrdinalPosition(), other.getOrdinalPosition());
+            }
+
+            assertTrue(table.column("DEPARTMENT_ID").isForeignKey());
+            assertTrue(table.column("LAST_NAME").hasIndex("NAME_IDX"));
+
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testCatalogColumns() {
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setColumnSource(ColumnSource.CATALOG);
+
+        TableMetaData table = collector.collectTableMetaData("EMPLOYEE", "TEST");
+
+        ColumnMetaData modifiedDate = table.column("MODIFIED_DATE");
+        assertTrue(modifiedDate.hasDefaultValue());
+        assertEquals("NOW()", modifiedDate.getDefaultValue());
+        assertEquals(Integer.valueOf(8), modifiedDate.getOrdinalPosition());
+        assertTrue(modifiedDate.isTimestamp());
+
+        assertFalse(table.column("FIRST_NAME").hasDefaultValue());
+        assertTrue(table.column("PHOTO").sqlTypeIs(Types.BLOB));
+        assertTrue(table.column("EMPLOYEE_ID").isAutoIncrement());
+
+        collector.close();
+    }
+
+    @Test
+    public void testCatalogColumnsOfDefaultSchema() throws SQLException {
+        execute("CREATE TABLE PUBLIC.SAME_NAME(ID INT, PUBLIC_ONLY INT)",
+                "CREATE TABLE TEST.SAME_NAME(ID INT, TEST_ONLY INT)");
+
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setColumnSource(ColumnSource.CATALOG)) {
+            TableMetaData table = collector.collectTableMetaData("SAME_NAME");
+
+            assertEquals(Arrays.asList("ID", "PUBLIC_ONLY"), table.columnNames());
+        } finally {
+            execute("DROP TABLE PUBLIC.SAME_NAME", "DROP TABLE TEST.SAME_NAME");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.Types;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class CompactSchemaTest extends BaseTest {
+    @Test
+    public void testRoundTrip() {
+        SchemaMetaData schema = getMetaDataCollector().collectSchemaMetaData("TEST");
+        CompactSchemaMetaData compact = CompactSchemaMetaData.of(schema);
+
+        assertEquals("TEST", compact.getName());
+        assertEquals(schema.tableCount(), compact.tableCount());
+        assertEquals(schema.tables().stream().mapToInt(t -> t.columns().size()).sum(), compact.columnCount());
+        assertEquals(schema.fingerprint(), compact.toSchemaMetaData().fingerprint());
+
+        TableMetaData employee = schema.table("EMPLOYEE");
+        TableMetaData restored = compact.table("employee");
+        assertEquals(employee.fingerprint(), restored.fingerprint());
+        assertEquals(employee.columnNames(), restored.columnNames());
+        assertEquals(employee.getPrimaryKey().getColumns(), restored.getPrimaryKey().getColumns());
+        assertSame(employee.column("DEPARTMENT_ID").getForeignKeyMetaData(), restored.column("DEPARTMENT_ID").getForeignKeyMetaData());
+        assertEquals(1, restored.columnIndexes("FIRST_NAME").size());
+        assertNull(compact.table("MISSING"));
+    }
+
+    @Test
+    public void testColumnScan() {
+        CompactSchemaMetaData compact = CompactSchemaMetaData.of(getMetaDataCollector().collectSchemaMetaData("TEST"));
+
+        int employee = compact.tableIndex("EMPLOYEE");
+        assertEquals("EMPLOYEE", compact.tableName(employee));
+        assertEquals(-1, compact.tableIndex("MISSING"));
+
+        for (int t = 0; t < compact.tableCount(); t++) {
+            for (int c = compact.columnStart(t); c < compact.columnEnd(t); c++) {
+                assertEquals(t, compact.tableOf(c));
+                ColumnMetaData column = compact.column(c);
+                assertEquals(compact.tableName(t), column.getTableName());
+                assertEquals(compact.columnName(c), column.getName());
+                assertEquals(compact.sqlType(c), column.getSqlType());
+                assertEquals(compact.isNullable(c), column.isNullable());
+                assertEquals(compact.isPrimaryKey(c), column.isPrimaryKey());
+            }
+        }
+
+        int[] foreignKeys = compact.filterColumns(compact::isForeignKey);
+        assertEquals(2, foreignKeys.length);
+        for (int c : foreignKeys) {
+            assertEquals(employee, compact.tableOf(c));
+        }
+
+        int[] varchars = compact.filterColumns(c -> compact.sqlType(c) == Types.VARCHAR);
+        assertTrue(varchars.length > 0);
+        for (int c : varchars) {
+            assertEquals("VARCHAR", compact.sqlTypeName(c));
+        }
+    }
+
+    @Test
+    public void testSharedPartsFrozen() {
+        CompactSchemaMetaData compact = CompactSchemaMetaData.of(getMetaDataCollector().collectSchemaMetaData("TEST"));
+
+        TableMetaData first = compact.table("EMPLOYEE");
+        TableMetaData second = compact.table("EMPLOYEE");
+
+        IndexMetaData index = first.columnIndexes("FIRST_NAME").get(0);
+        assertSame(index, second.columnIndexes("FIRST_NAME").get(0));
+        assertTrue(index.isFrozen());
+
+        ForeignKeyMetaData foreignKey = first.column("DEPARTMENT_ID").getForeignKeyMetaData();
+        assertTrue(foreignKey.isFrozen());
+
+        try {
+            index.setName("RENAMED_IDX");
+            fail("Index shared by the tables of the compact schema must be frozen");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(index.getName(), second.columnIndexes("FIRST_NAME").get(0).getName());
+        }
+
+        first.column("FIRST_NAME").setNullable(!first.column("FIRST_NAME").isNullable());
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    public void testCollectCompactSchema() {
+        SchemaMetaData schema = getMetaDataCollector().collectSchemaMetaData("PUBLIC");
+        CompactSchemaMetaData compact = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setParallelism(4)
+                .collectCompactSchemaMetaData("PUBLIC");
+
+        assertEquals(schema.tableCount(), compact.tableCount());
+        assertEquals(schema.fingerprint(), compact.toSchemaMetaData().fingerprint());
+        assertTrue(compact.table("EMPLOYEE_SKILL").hasPrimaryKey());
+    }
+}
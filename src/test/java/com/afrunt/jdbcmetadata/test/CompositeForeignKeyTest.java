@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class CompositeForeignKeyTest extends BaseTest {
+
+    @Before
+    public void createTables() throws SQLException {
+        execute("CREATE TABLE PUBLIC.PROJECT (CODE VARCHAR(10), YEAR INT, PRIMARY KEY (CODE, YEAR))",
+                "CREATE TABLE PUBLIC.TASK (TASK_ID BIGINT PRIMARY KEY, PROJECT_YEAR INT, PROJECT_CODE VARCHAR(10), " +
+                        "CONSTRAINT TASK_PROJECT_FK FOREIGN KEY (PROJECT_CODE, PROJECT_YEAR) REFERENCES PUBLIC.PROJECT (CODE, YEAR))");
+    }
+
+    @Test
+    public void testTableByTable() {
+        check(collect(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())));
+    }
+
+    @Test
+    public void testBulk() {
+        check(collect(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setBulkCollection(true)));
+    }
+
+    @Test
+    public void testStrategy() {
+        check(collect(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setDatabaseStrategy(new H2DatabaseStrategy())));
+    }
+
+    @Test
+    public void testSnapshots() throws IOException {
+        JdbcDatabaseMetaData metaData = collect(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaDataSnapshot.write(metaData, out);
+        JdbcDatabaseMetaData read = MetaDataSnapshot.read(new ByteArrayInputStream(out.toByteArray())).getMetaData();
+        check(read);
+        assertEquals(metaData.fingerprint(), read.fingerprint());
+
+        try (MappedMetaDataSnapshot snapshot = MappedMetaDataSnapshot.wrap(MappedMetaDataSnapshot.toByteArray(metaData))) {
+            JdbcDatabaseMetaData mapped = snapshot.toMetaData();
+            check(mapped);
+            assertEquals(metaData.fingerprint(), mapped.fingerprint());
+            assertEquals(Arrays.asList("PROJECT_CODE", "PROJECT_YEAR"), snapshot.schema("PUBLIC").table("TASK")
+                    .columnView("PROJECT_YEAR").getForeignKeyMetaData().getColumnNames());
+        }
+    }
+
+    private JdbcDatabaseMetaData collect(JdbcMetaDataCollector collector) {
+        try (JdbcMetaDataCollector c = collector) {
+            return c.collectDatabaseMetaData();
+        }
+    }
+
+    private void check(JdbcDatabaseMetaData metaData) {
+        TableMetaData task = metaData.table("PUBLIC", "TASK");
+        TableMetaData project = metaData.table("PUBLIC", "PROJECT");
+        ColumnMetaData code = task.column("PROJECT_CODE");
+        ColumnMetaData year = task.column("PROJECT_YEAR");
+
+        ForeignKeyMetaData fk = code.getForeignKeyMetaData();
+        assertNotNull(fk);
+        assertSame(fk, year.getForeignKeyMetaData());
+        assertTrue(fk.isComposite());
+        assertEquals("TASK_PROJECT_FK", fk.getName());
+        assertEquals(Arrays.asList("PROJECT_CODE", "PROJECT_YEAR"), fk.getColumnNames());
+        assertEquals(Arrays.asList("CODE", "YEAR"), fk.getForeignColumnNames());
+        assertEquals("CODE", code.foreignColumnName());
+        assertEquals("YEAR", year.foreignColumnName());
+        assertEquals(Collections.singletonList(fk), task.foreignKeyConstraints());
+
+        TableMetaData employeeSkill = metaData.table("PUBLIC", "EMPLOYEE_SKILL");
+        assertEquals(2, employeeSkill.foreignKeyConstraints().size());
+        assertFalse(employeeSkill.column("SKILL_ID").getForeignKeyMetaData().isComposite());
+        assertEquals("SKILL_ID", employeeSkill.column("SKILL_ID").foreignColumnName());
+
+        ForeignKeyGraph graph = metaData.foreignKeyGraph();
+        List<ForeignKeyGraph.Edge> edges = graph.parentEdges(task);
+        assertEquals(1, edges.size());
+        assertTrue(edges.get(0).isComposite());
+        assertSame(code, edges.get(0).getColumns().get(0));
+        assertSame(year, edges.get(0).getColumns().get(1));
+        assertEquals(Collections.singletonList(task), graph.children(project));
+        assertEquals(1, graph.joinPath(project, task).size());
+    }
+}
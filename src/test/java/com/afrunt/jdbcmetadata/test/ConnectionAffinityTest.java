@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.H2DatabaseStrategy;
+import com.afrunt.jdbcmetadata.JdbcDatabaseMetaData;
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class ConnectionAffinityTest extends BaseTest {
+    @Test
+    public void testSingleConnectionPerTable() {
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setDatabaseStrategy(new H2DatabaseStrategy());
+
+        assertNotNull(collector.collectTableMetaData("EMPLOYEE", "TEST"));
+        assertEquals(1, dataSource.taken.get());
+        assertEquals(0, dataSource.open.get());
+
+        assertNotNull(collector.collectSchemaMetaData("TEST"));
+        assertEquals(1, dataSource.maxOpen.get());
+        assertEquals(0, dataSource.open.get());
+
+        collector.close();
+    }
+
+    @Test
+    public void testMaxConnections() {
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setParallelism(8)
+                .setMaxConnections(2);
+
+        assertEquals(2, collector.getMaxConnections());
+
+        JdbcDatabaseMetaData databaseMetaData = collector.collectDatabaseMetaData();
+        assertEquals(5, databaseMetaData.schema("PUBLIC").tableCount() + databaseMetaData.schema("TEST").tableCount());
+
+        assertTrue(dataSource.maxOpen.get() <= 2);
+        assertEquals(0, dataSource.open.get());
+
+        collector.close();
+    }
+
+    @Test
+    public void testVirtualThreads() {
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setVirtualThreads(true)
+                .setMaxConnections(3);
+
+        assertTrue(collector.isVirtualThreads());
+
+        JdbcDatabaseMetaData databaseMetaData = collector.collectDatabaseMetaData(s -> !"INFORMATION_SCHEMA".equals(s));
+        assertEquals(2, databaseMetaData.getSchemas().size());
+        assertTrue(databaseMetaData.schema("TEST").hasTable("EMPLOYEE"));
+
+        assertTrue(dataSource.maxOpen.get() <= 3);
+        assertEquals(0, dataSource.open.get());
+
+        collector.close();
+    }
+
+    @Test
+    public void testExternalPool() {
+        int singleThreadTasks = collectWithPool(1);
+        int poolTasks = collectWithPool(3);
+
+        // two more table collection workers, one per additional thread of the pool
+        assertEquals(singleThreadTasks + 2, poolTasks);
+    }
+
+    private int collectWithPool(int threads) {
+        AtomicInteger tasks = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                super.execute(command);
+            }
+        };
+
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setPool(pool)) {
+            JdbcDatabaseMetaData databaseMetaData = collector.collectDatabaseMetaData(SCHEMAS);
+            assertTrue(databaseMetaData.schema("TEST").hasTable("EMPLOYEE"));
+        } finally {
+            pool.shutdown();
+        }
+
+        return tasks.get();
+    }
+}
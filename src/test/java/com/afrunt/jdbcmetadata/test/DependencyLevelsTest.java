@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class DependencyLevelsTest extends BaseTest {
+
+    @Test
+    public void test() {
+        JdbcDatabaseMetaData metaData = getMetaDataCollector().collectDatabaseMetaData();
+        DependencyLevels levels = metaData.foreignKeyGraph().levels();
+
+        assertFalse(levels.hasCycles());
+        assertTrue(levels.getDeferred().isEmpty());
+        assertEquals(3, levels.levelCount());
+        assertEquals(new HashSet<>(Arrays.asList("DEPARTMENT", "POSITION", "SKILL")), names(levels.getLevels().get(0)));
+        assertEquals(Collections.singleton("EMPLOYEE"), names(levels.getLevels().get(1)));
+        assertEquals(Collections.singleton("EMPLOYEE_SKILL"), names(levels.getLevels().get(2)));
+        assertEquals(Collections.singleton("EMPLOYEE_SKILL"), names(levels.unloadOrder().get(0)));
+    }
+
+    @Test
+    public void testCycles() {
+        TableMetaData a = table("A");
+        TableMetaData b = table("B");
+        TableMetaData c = table("C");
+        TableMetaData d = table("D");
+        TableMetaData e = table("E");
+        reference(a, b, false);
+        reference(b, a, true);
+        reference(c, c, true);
+        reference(c, a, false);
+        reference(d, e, true);
+
+        ForeignKeyGraph graph = new ForeignKeyGraph(Arrays.asList(a, b, c, d, e));
+
+        DependencyLevels levels = graph.levels();
+        assertEquals(1, levels.getCycles().size());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")), names(levels.getCycles().get(0)));
+        assertEquals(1, levels.getDeferred().size());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "E")), names(levels.getLevels().get(0)));
+        assertEquals(new HashSet<>(Arrays.asList("C", "D")), names(levels.getLevels().get(1)));
+
+        levels = graph.levels(false, false);
+        assertEquals(2, levels.getCycles().size());
+        assertTrue(levels.getDeferred().isEmpty());
+
+        levels = graph.levels(true, true);
+        assertFalse(levels.hasCycles());
+        assertEquals(3, levels.getDeferred().size());
+        assertEquals(new HashSet<>(Arrays.asList("B", "D", "E")), names(levels.getLevels().get(0)));
+        assertEquals(new HashSet<>(Arrays.asList("A")), names(levels.getLevels().get(1)));
+        assertEquals(new HashSet<>(Arrays.asList("C")), names(levels.getLevels().get(2)));
+    }
+
+    @Test
+    public void testLongChain() {
+        List<TableMetaData> tables = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            TableMetaData table = table("T" + i);
+            if (i > 0) {
+                reference(table, tables.get(i - 1), false);
+            }
+            tables.add(table);
+        }
+        Collections.reverse(tables);
+
+        DependencyLevels levels = new ForeignKeyGraph(tables).levels();
+        assertEquals(50_000, levels.levelCount());
+        assertEquals("T0", levels.getLevels().get(0).get(0).getName());
+        assertEquals("T49999", levels.getLevels().get(49_999).get(0).getName());
+    }
+
+    private TableMetaData table(String name) {
+        return new TableMetaData().setSchemaName("S").setName(name);
+    }
+
+    private void reference(TableMetaData child, TableMetaData parent, boolean nullable) {
+        child.addColumn(new ColumnMetaData()
+                .setTableName(child.getName())
+                .setName(parent.getName() + "_ID")
+                .setNullable(nullable)
+                .setForeignKeyMetaData(new ForeignKeyMetaData()
+                        .setForeignTableSchema("S")
+                        .setForeignTableName(parent.getName())
+                        .setForeignColumnName("ID")));
+    }
+
+    private Set<String> names(List<TableMetaData> tables) {
+        return tables.stream().map(TableMetaData::getName).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class FingerprintTest extends BaseTest {
+    @Test
+    public void test() throws SQLException {
+        JdbcDatabaseMetaData first = collect();
+        JdbcDatabaseMetaData second = collect();
+
+        assertNotSame(first, second);
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertEquals(first.fingerprint(), first.fingerprint());
+
+        execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN CODE VARCHAR(10)");
+        JdbcDatabaseMetaData changed = collect();
+
+        assertNotEquals(first.fingerprint(), changed.fingerprint());
+        assertNotEquals(first.schema("TEST").fingerprint(), changed.schema("TEST").fingerprint());
+        assertEquals(first.schema("PUBLIC").fingerprint(), changed.schema("PUBLIC").fingerprint());
+        assertNotEquals(first.schema("TEST").table("DEPARTMENT").fingerprint(), changed.schema("TEST").table("DEPARTMENT").fingerprint());
+        assertEquals(first.schema("TEST").table("EMPLOYEE").fingerprint(), changed.schema("TEST").table("EMPLOYEE").fingerprint());
+        assertEquals(first.schema("TEST").table("DEPARTMENT").column("NAME").fingerprint(),
+                changed.schema("TEST").table("DEPARTMENT").column("NAME").fingerprint());
+    }
+
+    @Test
+    public void testChanges() {
+        JdbcDatabaseMetaData metaData = collect();
+        SchemaMetaData schema = metaData.schema("PUBLIC");
+        long databaseFingerprint = metaData.fingerprint();
+        long schemaFingerprint = schema.fingerprint();
+
+        List<TableMetaData> tables = new ArrayList<>(schema.getTables());
+        Collections.reverse(tables);
+        schema.setTables(tables);
+        assertEquals(schemaFingerprint, schema.fingerprint());
+
+        TableMetaData skill = schema.table("SKILL");
+        long columnFingerprint = skill.column("TITLE").fingerprint();
+        skill.column("TITLE").setNullable(true);
+        assertNotEquals(columnFingerprint, skill.column("TITLE").fingerprint());
+        assertNotEquals(schemaFingerprint, schema.fingerprint());
+        assertNotEquals(databaseFingerprint, metaData.fingerprint());
+
+        skill.column("TITLE").setNullable(false);
+        assertEquals(databaseFingerprint, metaData.fingerprint());
+
+        skill.column("TITLE").setOrdinalPosition(10).setReadOnly(true);
+        assertEquals(databaseFingerprint, metaData.fingerprint());
+
+        IndexColumnMetadata indexColumn = skill.getIndexes().get(0).getIndexColumns().get(0);
+        Integer sortType = indexColumn.getSortType();
+        indexColumn.setSortType(Integer.valueOf(IndexColumnMetadata.SORT_TYPE_DESC).equals(sortType) ? IndexColumnMetadata.SORT_TYPE_ASC : IndexColumnMetadata.SORT_TYPE_DESC);
+        assertNotEquals(databaseFingerprint, metaData.fingerprint());
+        indexColumn.setSortType(sortType);
+        assertEquals(databaseFingerprint, metaData.fingerprint());
+
+        TableMetaData skillCopy = new TableMetaData().setName("SKILL").setSchemaName("PUBLIC")
+                .setColumns(new ArrayList<>(skill.getColumns()))
+                .setIndexes(skill.getIndexes())
+                .setPrimaryKey(skill.getPrimaryKey());
+        assertEquals(skill.fingerprint(), skillCopy.fingerprint());
+        Collections.reverse(skillCopy.getColumns());
+        skillCopy.setColumns(skillCopy.getColumns());
+        assertNotEquals(skill.fingerprint(), skillCopy.fingerprint());
+    }
+
+    @Test
+    public void testUnchangedChildrenNotVisited() {
+        AtomicInteger visits = new AtomicInteger();
+        List<TableMetaData> tables = new ArrayList<>();
+        for (String tableName : new String[]{"FIRST", "SECOND"}) {
+            TableMetaData table = new TableMetaData().setName(tableName).setSchemaName("TEST");
+            for (String columnName : new String[]{"ID", "NAME", "CODE"}) {
+                table.addColumn(new ColumnMetaData() {
+                    @Override
+                    public long fingerprint() {
+                        visits.incrementAndGet();
+                        return super.fingerprint();
+                    }
+                }.setTableName(tableName).setName(columnName));
+            }
+            tables.add(table);
+        }
+        List<SchemaMetaData> schemas = new ArrayList<>();
+        schemas.add(new SchemaMetaData().setName("TEST").setTables(tables));
+        JdbcDatabaseMetaData metaData = new JdbcDatabaseMetaData().setSchemas(schemas);
+
+        long databaseFingerprint = metaData.fingerprint();
+        assertEquals(6, visits.getAndSet(0));
+        assertEquals(databaseFingerprint, metaData.fingerprint());
+        assertEquals(0, visits.get());
+
+        tables.get(0).column("NAME").setNullable(true);
+        assertNotEquals(databaseFingerprint, metaData.fingerprint());
+        assertEquals(3, visits.getAndSet(0));
+
+        // the primary key uses the column names, not the column fingerprints
+        TableMetaData second = tables.get(1);
+        second.setPrimaryKey(new PrimaryKeyMetaData(Collections.singletonList(second.column("ID"))));
+        metaData.fingerprint();
+        second.column("ID").setName("KEY");
+        TableMetaData expected = new TableMetaData().setName("SECOND").setSchemaName("TEST")
+                .setColumns(new ArrayList<>(second.getColumns()))
+                .setPrimaryKey(new PrimaryKeyMetaData(Collections.singletonList(second.column("KEY"))));
+        assertEquals(expected.fingerprint(), second.fingerprint());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class ForeignKeyGraphTest extends BaseTest {
+
+    @Test
+    public void test() {
+        JdbcDatabaseMetaData metaData = getMetaDataCollector().collectDatabaseMetaData();
+        ForeignKeyGraph graph = metaData.foreignKeyGraph();
+        assertSame(graph, metaData.foreignKeyGraph());
+
+        TableMetaData employee = metaData.table("TEST", "EMPLOYEE");
+        TableMetaData department = metaData.table("TEST", "DEPARTMENT");
+        TableMetaData position = metaData.table("PUBLIC", "POSITION");
+        TableMetaData skill = metaData.table("PUBLIC", "SKILL");
+        TableMetaData employeeSkill = metaData.table("PUBLIC", "EMPLOYEE_SKILL");
+
+        assertEquals(Arrays.asList("DEPARTMENT", "POSITION"), names(graph.parents(employee)));
+        assertEquals(Collections.singletonList("EMPLOYEE_SKILL"), names(graph.children(employee)));
+        assertEquals(Arrays.asList("DEPARTMENT", "POSITION", "EMPLOYEE_SKILL"), names(graph.related(employee)));
+        assertTrue(graph.children(employeeSkill).isEmpty());
+        assertEquals(2, graph.parentEdges(employeeSkill).size());
+        assertTrue(graph.dependsOn(employee, position));
+        assertFalse(graph.dependsOn(position, employee));
+
+        assertTrue(graph.isReachable(employeeSkill, department));
+        assertTrue(graph.isReachable(employeeSkill, employeeSkill));
+        assertFalse(graph.isReachable(department, employeeSkill));
+        assertFalse(graph.isReachable(skill, position));
+
+        List<ForeignKeyGraph.Edge> path = graph.joinPath(skill, department);
+        assertNotNull(path);
+        assertEquals(3, path.size());
+        assertEquals("SKILL_ID", path.get(0).getColumn().getName());
+        assertSame(employeeSkill, path.get(0).getChildTable());
+        assertEquals("EMPLOYEE_ID", path.get(1).getColumn().getName());
+        assertSame(department, path.get(2).getParentTable());
+
+        assertTrue(graph.joinPath(skill, skill).isEmpty());
+
+        SchemaMetaData publicSchema = metaData.schema("PUBLIC");
+        assertEquals(Collections.singletonList("EMPLOYEE_SKILL"), names(publicSchema.getChildTables(employee)));
+        assertEquals(Collections.singletonList("EMPLOYEE_SKILL"), names(publicSchema.getChildTables(skill)));
+        assertEquals(Collections.singletonList("SKILL"), names(publicSchema.getParentTables(employeeSkill)));
+
+        skill.column("TITLE").setRemarks("Skill title");
+        new TableMetaData().setName("OTHER").addColumn(new ColumnMetaData().setName("ID"));
+        assertSame(graph, metaData.foreignKeyGraph());
+
+        employee.column("DEPARTMENT_ID").setForeignKeyMetaData(null);
+        assertNotSame(graph, metaData.foreignKeyGraph());
+        assertFalse(metaData.foreignKeyGraph().dependsOn(employee, department));
+        assertNull(metaData.foreignKeyGraph().joinPath(skill, department));
+    }
+
+    @Test
+    public void testDuplicateTables() {
+        TableMetaData first = new TableMetaData().setSchemaName("S").setName("A");
+        TableMetaData second = new TableMetaData().setSchemaName("S").setName("A");
+
+        try {
+            new ForeignKeyGraph(Arrays.asList(first, second));
+            fail("Tables with the same name must be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("S.A"));
+        }
+    }
+
+    private List<String> names(List<TableMetaData> tables) {
+        return tables.stream().map(TableMetaData::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class FreezeTest extends BaseTest {
+    @Test
+    public void testFreeze() {
+        JdbcDatabaseMetaData metaData = collect();
+        long fingerprint = metaData.fingerprint();
+        TableMetaData employee = metaData.table("TEST", "EMPLOYEE");
+        int hashCode = employee.hashCode();
+
+        assertSame(metaData, metaData.freeze());
+        assertTrue(metaData.isFrozen());
+        assertTrue(employee.isFrozen());
+        assertTrue(employee.column("DEPARTMENT_ID").isFrozen());
+        assertTrue(employee.column("DEPARTMENT_ID").getForeignKeyMetaData().isFrozen());
+        assertTrue(employee.index("NAME_IDX").isFrozen());
+        assertTrue(employee.getPrimaryKey().isFrozen());
+        assertTrue(metaData.schema("TEST").sequences().stream().allMatch(SequenceMetaData::isFrozen));
+
+        assertEquals(fingerprint, metaData.fingerprint());
+        assertEquals(hashCode, employee.hashCode());
+
+        assertFrozen(() -> metaData.setDatabaseProductName("Other"));
+        assertFrozen(() -> metaData.schema("TEST").setTables(new ArrayList<>()));
+        assertFrozen(() -> employee.setName("PERSON"));
+        assertFrozen(() -> employee.column("FIRST_NAME").setNullable(true));
+        assertFrozen(() -> employee.index("NAME_IDX").setUnique(true));
+        assertFrozen(() -> employee.column("DEPARTMENT_ID").getForeignKeyMetaData().setForeignTableName("OTHER"));
+        assertFrozen(() -> metaData.schemas().clear());
+        assertFrozen(() -> metaData.schema("TEST").tables().remove(0));
+        assertFrozen(() -> employee.getColumns().clear());
+        assertFrozen(() -> employee.index("NAME_IDX").getIndexColumns().clear());
+
+        new TableMetaData().setName("OTHER");
+        assertEquals(fingerprint, metaData.fingerprint());
+        assertSame(employee, metaData.table("TEST", "EMPLOYEE"));
+        assertEquals(3, metaData.foreignKeyGraph().parents(employee).size()
+                + metaData.foreignKeyGraph().children(employee).size());
+    }
+
+    @Test
+    public void testPublishFrozenMetaData() {
+        JdbcDatabaseMetaData metaData = collect().freeze();
+        long fingerprint = metaData.fingerprint();
+
+        CompletableFuture<Long> fingerprintFuture = CompletableFuture.supplyAsync(metaData::fingerprint);
+        CompletableFuture<Integer> columnsFuture = CompletableFuture.supplyAsync(() -> metaData.table("TEST", "EMPLOYEE").columns().size());
+
+        assertEquals(fingerprint, fingerprintFuture.join().longValue());
+        assertEquals(metaData.table("TEST", "EMPLOYEE").columns().size(), columnsFuture.join().intValue());
+    }
+
+    @Test
+    public void testStructuralSharing() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource())) {
+            JdbcDatabaseMetaData previous = collector.collectDatabaseMetaData(SCHEMAS).freeze();
+
+            execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN CODE VARCHAR(10)");
+            collector.invalidateAll();
+
+            JdbcDatabaseMetaData current = collector.collectDatabaseMetaData(SCHEMAS);
+            assertNotSame(previous.table("TEST", "EMPLOYEE"), current.table("TEST", "EMPLOYEE"));
+            current.freeze(previous);
+
+            assertSame(previous.schema("PUBLIC"), current.schema("PUBLIC"));
+            assertNotSame(previous.schema("TEST"), current.schema("TEST"));
+            assertSame(previous.table("TEST", "EMPLOYEE"), current.table("TEST", "EMPLOYEE"));
+            assertNotSame(previous.table("TEST", "DEPARTMENT"), current.table("TEST", "DEPARTMENT"));
+            assertTrue(current.table("TEST", "DEPARTMENT").isFrozen());
+            assertTrue(current.table("TEST", "DEPARTMENT").hasColumn("CODE"));
+            assertFalse(previous.table("TEST", "DEPARTMENT").hasColumn("CODE"));
+
+            MetaDataChangeSet changes = new MetaDataDiff().diff(previous, current);
+            assertTrue(changes.contains(MetaDataChange.ObjectType.COLUMN, MetaDataChange.ChangeType.ADDED, "TEST.DEPARTMENT.CODE"));
+        }
+    }
+
+    @Test
+    public void testCollectWithFrozenTables() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setTrackTableChanges(true)) {
+            JdbcDatabaseMetaData previous = collector.collectDatabaseMetaData(SCHEMAS).freeze();
+
+            JdbcDatabaseMetaData cached = collector.collectDatabaseMetaData(SCHEMAS);
+            assertSame(previous.table("TEST", "EMPLOYEE"), cached.table("TEST", "EMPLOYEE"));
+
+            execute("CREATE TABLE TEST.PROJECT (PROJECT_ID BIGINT PRIMARY KEY)");
+            JdbcDatabaseMetaData refreshed = collector.refreshDatabaseMetaData(previous);
+            assertTrue(refreshed.schema("TEST").hasTable("PROJECT"));
+            assertSame(previous.table("TEST", "EMPLOYEE"), refreshed.table("TEST", "EMPLOYEE"));
+            assertTrue(refreshed.freeze(previous).isFrozen());
+        }
+    }
+
+    private void assertFrozen(Runnable change) {
+        try {
+            change.run();
+            fail("Frozen metadata changed");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
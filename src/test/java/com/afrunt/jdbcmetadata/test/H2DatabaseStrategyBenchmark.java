@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.H2DatabaseStrategy;
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import com.afrunt.jdbcmetadata.SchemaMetaData;
+import com.afrunt.jdbcmetadata.StopWatch;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the generic JDBC collection with the {@link H2DatabaseStrategy} on the test schema scaled to thousands
+ * of tables. Not a unit test, run it with <code>main</code>, optionally passing the number of schema copies
+ *
+ * @author Andrii Frunt
+ */
+public class H2DatabaseStrategyBenchmark {
+    private static final String SCHEMA = "BENCHMARK";
+    private static final Logger COLLECTOR_LOG = Logger.getLogger(JdbcMetaDataCollector.class.getName());
+
+    public static void main(String[] args) throws SQLException {
+        int copies = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        COLLECTOR_LOG.setLevel(Level.WARNING);
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE SCHEMA " + SCHEMA);
+            for (int i = 0; i < copies; i++) {
+                createTables(stmt, i);
+            }
+        }
+
+        System.out.println(String.format("Tables: %d", copies * 5));
+
+        for (int run = 0; run < 3; run++) {
+            measure("Generic JDBC", new JdbcMetaDataCollector().setDataSource(dataSource));
+            measure("Generic bulk", new JdbcMetaDataCollector().setDataSource(dataSource).setBulkCollection(true));
+            measure("H2 strategy", new JdbcMetaDataCollector().setDataSource(dataSource).setDatabaseStrategy(new H2DatabaseStrategy()));
+        }
+    }
+
+    private static void measure(String name, JdbcMetaDataCollector collector) {
+        StopWatch sw = new StopWatch().start();
+        SchemaMetaData schema = collector.collectSchemaMetaData(SCHEMA);
+        System.out.println(String.format("%-15s %6d tables %8dms", name, schema.tableCount(), sw.stop().getTotalTimeMillis()));
+        collector.close();
+    }
+
+    private static void createTables(Statement stmt, int i) throws SQLException {
+        String s = SCHEMA + ".";
+        stmt.execute("CREATE TABLE " + s + "DEPARTMENT_" + i + " (DEPARTMENT_ID BIGINT AUTO_INCREMENT, NAME VARCHAR(200) NOT NULL, PRIMARY KEY (DEPARTMENT_ID))");
+        stmt.execute("CREATE TABLE " + s + "POSITION_" + i + " (POSITION_ID BIGINT AUTO_INCREMENT, TITLE VARCHAR(100) NOT NULL, PRIMARY KEY (POSITION_ID))");
+        stmt.execute("CREATE TABLE " + s + "SKILL_" + i + " (SKILL_ID BIGINT AUTO_INCREMENT, TITLE VARCHAR(100) NOT NULL, PRIMARY KEY (SKILL_ID))");
+        stmt.execute("CREATE TABLE " + s + "EMPLOYEE_" + i + " (EMPLOYEE_ID BIGINT AUTO_INCREMENT, FIRST_NAME VARCHAR(100) NOT NULL, " +
+                "MIDDLE_NAME VARCHAR(100), LAST_NAME VARCHAR(100) NOT NULL, DATE_OF_BIRTH DATE NOT NULL, DEPARTMENT_ID BIGINT NOT NULL, " +
+                "POSITION_ID BIGINT NOT NULL, MODIFIED_DATE TIMESTAMP DEFAULT NOW() NOT NULL, PHOTO BLOB, PRIMARY KEY (EMPLOYEE_ID))");
+        stmt.execute("CREATE TABLE " + s + "EMPLOYEE_SKILL_" + i + " (EMPLOYEE_ID BIGINT, SKILL_ID BIGINT, PRIMARY KEY (EMPLOYEE_ID, SKILL_ID))");
+        stmt.execute("ALTER TABLE " + s + "EMPLOYEE_" + i + " ADD FOREIGN KEY (DEPARTMENT_ID) REFERENCES " + s + "DEPARTMENT_" + i + " (DEPARTMENT_ID)");
+        stmt.execute("ALTER TABLE " + s + "EMPLOYEE_" + i + " ADD FOREIGN KEY (POSITION_ID) REFERENCES " + s + "POSITION_" + i + " (POSITION_ID)");
+        stmt.execute("ALTER TABLE " + s + "EMPLOYEE_SKILL_" + i + " ADD FOREIGN KEY (EMPLOYEE_ID) REFERENCES " + s + "EMPLOYEE_" + i + " (EMPLOYEE_ID)");
+        stmt.execute("ALTER TABLE " + s + "EMPLOYEE_SKILL_" + i + " ADD FOREIGN KEY (SKILL_ID) REFERENCES " + s + "SKILL_" + i + " (SKILL_ID)");
+        stmt.execute("CREATE INDEX " + s + "NAME_IDX_" + i + " ON " + s + "EMPLOYEE_" + i + " (LAST_NAME ASC, FIRST_NAME DESC)");
+    }
+}
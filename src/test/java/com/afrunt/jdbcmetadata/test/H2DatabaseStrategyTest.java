@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class H2DatabaseStrategyTest extends BaseTest {
+    @Test
+    public void test() {
+        JdbcMetaDataCollector h2Collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setDatabaseStrategy(new H2DatabaseStrategy());
+
+        for (String schemaName : new String[]{"TEST", "PUBLIC"}) {
+            SchemaMetaData schema = getMetaDataCollector().collectSchemaMetaData(schemaName);
+            SchemaMetaData h2Schema = h2Collector.collectSchemaMetaData(schemaName);
+
+            assertEquals(schema.tableCount(), h2Schema.tableCount());
+
+            for (TableMetaData table : schema.tables()) {
+                TableMetaData h2Table = h2Schema.table(table.getName());
+
+                assertEquals(table.columnNames(), h2Table.columnNames());
+                assertEquals(table.getPrimaryKey().columns().toString(), h2Table.getPrimaryKey().columns().toString());
+                assertEquals(table.foreignTablesNames(), h2Table.foreignTablesNames());
+                assertEquals(table.indexes().size(), h2Table.indexes().size());
+
+                for (ColumnMetaData column : table.columns()) {
+                    ColumnMetaData h2Column = h2Table.column(column.getName());
+                    assertEquals(column.getSqlType(), h2Column.getSqlType());
+                    assertEquals(column.getJavaType(), h2Column.getJavaType());
+                    assertEquals(column.getPrecision(), h2Column.getPrecision());
+                    assertEquals(column.getScale(), h2Column.getScale());
+                    assertEquals(column.isNullable(), h2Column.isNullable());
+                    assertEquals(column.isAutoIncrement(), h2Column.isAutoIncrement());
+                    assertEquals(column.isPrimaryKey(), h2Column.isPrimaryKey());
+                    assertEquals(String.valueOf(column.getForeignKeyMetaData()), String.valueOf(h2Column.getForeignKeyMetaData()));
+                }
+
+                for (IndexMetaData index : table.indexes()) {
+                    assertEquals(index.toString(), h2Table.index(index.getName()).toString());
+                    assertEquals(index.isUnique(), h2Table.index(index.getName()).isUnique());
+                }
+            }
+        }
+
+        IndexMetaData nameIndex = h2Collector.collectTableMetaData("EMPLOYEE", "TEST").index("NAME_IDX");
+        assertEquals("NAME_IDX[LAST_NAME,FIRST_NAME]", nameIndex.toString());
+        assertFalse(nameIndex.indexColumn("FIRST_NAME").isAscending());
+
+        h2Collector.close();
+    }
+
+    @Test
+    public void testSequences() {
+        JdbcMetaDataCollector h2Collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setDatabaseStrategy(new H2DatabaseStrategy());
+
+        List<SequenceMetaData> sequences = h2Collector.collectSequencesMetaData("TEST");
+        assertEquals(1, sequences.size());
+        assertEquals("TEST.EMPLOYEE_NUMBER_SEQ", sequences.get(0).getFullName());
+        assertEquals(Integer.valueOf(10), sequences.get(0).getIncrementBy());
+
+        assertNotNull(h2Collector.collectSchemaMetaData("TEST").sequence("EMPLOYEE_NUMBER_SEQ"));
+        assertTrue(h2Collector.collectSequencesMetaData("PUBLIC").isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class IncrementalRefreshTest extends BaseTest {
+    @Test
+    public void testColumnSignatures() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource())) {
+            testRefresh(collector);
+        }
+    }
+
+    @Test
+    public void testH2Signatures() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setDatabaseStrategy(new H2DatabaseStrategy())) {
+            testRefresh(collector);
+        }
+    }
+
+    private void testRefresh(JdbcMetaDataCollector collector) throws SQLException {
+        Set<String> collected = ConcurrentHashMap.newKeySet();
+        collector
+                .setTrackTableChanges(true)
+                .setProgressMonitor(new ProgressMonitor() {
+                    @Override
+                    public void tableMetadataCollected(TableMetaData table, long time) {
+                        collected.add(table.fullName());
+                    }
+                });
+
+        execute("CREATE TABLE PUBLIC.AUDIT (ID BIGINT)");
+        JdbcDatabaseMetaData previous = collector.collectDatabaseMetaData(SCHEMAS);
+        assertEquals(6, collected.size());
+        assertNotNull(previous.schema("TEST").table("EMPLOYEE").getSignature());
+
+        execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN CODE VARCHAR(10)");
+        execute("CREATE TABLE TEST.PROJECT (PROJECT_ID BIGINT PRIMARY KEY, NAME VARCHAR(100))");
+        execute("DROP TABLE PUBLIC.AUDIT");
+        execute("INSERT INTO PUBLIC.POSITION (TITLE) VALUES ('Architect')");
+
+        collected.clear();
+        JdbcDatabaseMetaData refreshed = collector.refreshDatabaseMetaData(previous);
+
+        assertTrue(collected.contains("TEST.DEPARTMENT"));
+        assertTrue(collected.contains("TEST.PROJECT"));
+        assertFalse(collected.contains("PUBLIC.POSITION"));
+        assertFalse(collected.contains("PUBLIC.SKILL"));
+
+        SchemaMetaData test = refreshed.schema("TEST");
+        assertTrue(test.table("DEPARTMENT").hasColumn("CODE"));
+        assertFalse(previous.schema("TEST").table("DEPARTMENT").hasColumn("CODE"));
+        assertTrue(test.table("PROJECT").hasPrimaryKey());
+        assertSame(previous.schema("PUBLIC").table("POSITION"), refreshed.schema("PUBLIC").table("POSITION"));
+        assertSame(previous.schema("PUBLIC").table("SKILL"), refreshed.schema("PUBLIC").table("SKILL"));
+        assertFalse(refreshed.schema("PUBLIC").hasTable("AUDIT"));
+        assertTrue(previous.schema("PUBLIC").hasTable("AUDIT"));
+        assertEquals(2, refreshed.schemas().size());
+
+        collected.clear();
+        assertSame(test.table("PROJECT"), collector.refreshDatabaseMetaData(refreshed).schema("TEST").table("PROJECT"));
+        assertTrue(collected.isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class IndexAssemblyTest extends BaseTest {
+
+    @Test
+    public void test() throws SQLException {
+        execute("CREATE INDEX DOB_NAME_IDX ON TEST.EMPLOYEE (DATE_OF_BIRTH, LAST_NAME, FIRST_NAME, MIDDLE_NAME)");
+
+        for (JdbcMetaDataCollector collector : Arrays.asList(
+                new JdbcMetaDataCollector().setDataSource(getDataSource()),
+                new JdbcMetaDataCollector().setDataSource(getDataSource()).setBulkCollection(true),
+                new JdbcMetaDataCollector().setDataSource(getDataSource()).setDatabaseStrategy(new H2DatabaseStrategy()))) {
+            TableMetaData employee;
+            try (JdbcMetaDataCollector c = collector) {
+                employee = c.collectDatabaseMetaData().table("TEST", "EMPLOYEE");
+            }
+
+            IndexMetaData index = employee.index("DOB_NAME_IDX");
+            assertEquals(Arrays.asList("DATE_OF_BIRTH", "LAST_NAME", "FIRST_NAME", "MIDDLE_NAME"), index.columnNames());
+
+            ColumnMetaData lastName = employee.column("LAST_NAME");
+            assertEquals(Arrays.asList("DOB_NAME_IDX", "NAME_IDX"), names(lastName.getIndexes()));
+            assertEquals(names(lastName.getIndexes()), names(employee.columnIndexes("last_name")));
+            assertSame(index, employee.columnIndexes("MIDDLE_NAME").get(0));
+            assertTrue(employee.columnIndexes("PHOTO").isEmpty());
+            assertTrue(employee.column("PHOTO").getIndexes().isEmpty());
+
+            employee.setIndexes(employee.indexes().stream()
+                    .filter(i -> !i.nameIs("NAME_IDX"))
+                    .collect(Collectors.toList()));
+            assertEquals(Arrays.asList("DOB_NAME_IDX"), names(employee.columnIndexes("LAST_NAME")));
+        }
+    }
+
+    @Test
+    public void testAddIndexColumn() {
+        IndexMetaData index = new IndexMetaData().setName("IDX");
+        index.addIndexColumn(new IndexColumnMetadata().setName("C").setOrdinalPosition(3));
+        index.addIndexColumn(new IndexColumnMetadata().setName("A").setOrdinalPosition(1));
+        index.addIndexColumn(new IndexColumnMetadata().setName("D").setOrdinalPosition(4));
+        index.addIndexColumn(new IndexColumnMetadata().setName("B").setOrdinalPosition(2));
+        assertEquals(Arrays.asList("A", "B", "C", "D"), index.columnNames());
+    }
+
+    private List<String> names(List<IndexMetaData> indexes) {
+        return indexes.stream().map(IndexMetaData::getName).sorted().collect(Collectors.toList());
+    }
+}
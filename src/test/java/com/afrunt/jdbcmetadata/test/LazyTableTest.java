@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class LazyTableTest extends BaseTest {
+    @Test
+    public void testLazyTables() {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource());
+             JdbcMetaDataCollector lazyCollector = new JdbcMetaDataCollector().setDataSource(getDataSource())) {
+            SchemaMetaData eager = collector.collectSchemaMetaData("TEST");
+            SchemaMetaData lazy = lazyCollector.collectLazySchemaMetaData("TEST");
+
+            assertEquals(eager.tableCount(), lazy.tableCount());
+            assertEquals(eager.fingerprint(), lazy.fingerprint());
+
+            TableMetaData employee = lazy.table("EMPLOYEE");
+            assertEquals(eager.table("EMPLOYEE").columnNames(), employee.columnNames());
+            assertEquals("EMPLOYEE_ID", employee.getPrimaryKey().getColumns().get(0).getName());
+            assertEquals("DEPARTMENT", employee.column("DEPARTMENT_ID").getForeignKeyMetaData().getForeignTableName());
+            assertEquals(1, employee.columnIndexes("LAST_NAME").stream().filter(i -> i.nameIs("NAME_IDX")).count());
+            assertTrue(lazy.getParentTables(employee).contains(lazy.table("DEPARTMENT")));
+        }
+    }
+
+    @Test
+    public void testFetchOnFirstAccess() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource())) {
+            SchemaMetaData lazy = collector.collectLazySchemaMetaData("TEST");
+            TableMetaData department = lazy.table("DEPARTMENT");
+
+            execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN CODE VARCHAR(10)");
+            assertTrue(department.hasIndexes());
+
+            execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN LOCATION VARCHAR(10)");
+            assertTrue(department.hasColumn("CODE"));
+            assertTrue(department.hasColumn("LOCATION"));
+
+            execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN BUDGET INT");
+            assertFalse(department.hasColumn("BUDGET"));
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setParallelism(8)) {
+            TableMetaData employee = collector.collectLazySchemaMetaData("TEST").table("EMPLOYEE");
+
+            List<CompletableFuture<List<ColumnMetaData>>> futures = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(employee::getColumns))
+                    .collect(Collectors.toList());
+
+            for (CompletableFuture<List<ColumnMetaData>> future : futures) {
+                assertSame(employee.getColumns(), future.join());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchPrefetch() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setColumnSource(ColumnSource.CATALOG)
+                .setLazyBatchThreshold(1)) {
+            SchemaMetaData lazy = collector.collectLazySchemaMetaData("PUBLIC");
+
+            assertTrue(lazy.table("POSITION").hasPrimaryKey());
+            assertTrue(lazy.table("SKILL").hasPrimaryKey());
+
+            execute("ALTER TABLE PUBLIC.EMPLOYEE_SKILL ADD COLUMN LEVEL INT");
+            TableMetaData employeeSkill = lazy.table("EMPLOYEE_SKILL");
+            assertFalse(employeeSkill.hasColumn("LEVEL"));
+            assertTrue(employeeSkill.hasCompositePrimaryKey());
+            assertEquals(2, employeeSkill.foreignKeyConstraints().size());
+        }
+    }
+
+    @Test
+    public void testPrefetch() throws SQLException {
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setParallelism(4)
+                .setLazyBatchThreshold(0)) {
+            SchemaMetaData lazy = collector.collectLazySchemaMetaData("PUBLIC");
+
+            collector.prefetch(lazy.tables());
+            execute("ALTER TABLE PUBLIC.SKILL ADD COLUMN LEVEL INT");
+
+            assertFalse(lazy.table("SKILL").hasColumn("LEVEL"));
+            assertEquals(2, lazy.table("EMPLOYEE_SKILL").foreignKeyConstraints().size());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class MappedSnapshotTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test() {
+        JdbcDatabaseMetaData collected = getMetaDataCollector()
+                .setDatabaseStrategy(new H2DatabaseStrategy())
+                .collectDatabaseMetaData(s -> !"INFORMATION_SCHEMA".equals(s));
+        Path path = folder.getRoot().toPath().resolve("metadata.mapped");
+        MappedMetaDataSnapshot.write(collected, path);
+
+        try (MappedMetaDataSnapshot snapshot = MappedMetaDataSnapshot.open(path)) {
+            assertEquals("H2", snapshot.getDatabaseProductName());
+            assertEquals(2, snapshot.schemaCount());
+            assertNull(snapshot.schema("UNKNOWN"));
+
+            MappedMetaDataSnapshot.SchemaView test = snapshot.schema("test");
+            assertEquals("TEST", test.getName());
+            assertEquals(2, test.tableCount());
+            assertNull(test.table("POSITION"));
+            assertEquals("TEST.EMPLOYEE_NUMBER_SEQ", test.sequences().get(0).getFullName());
+
+            MappedMetaDataSnapshot.TableView employee = test.table("employee");
+            assertEquals("TEST.EMPLOYEE", employee.fullName());
+            assertEquals(9, employee.columnsCount());
+            assertTrue(employee.hasColumn("first_name"));
+            assertFalse(employee.hasColumn("NICKNAME"));
+            assertTrue(employee.hasIndex("NAME_IDX"));
+            assertEquals(Arrays.asList("LAST_NAME", "FIRST_NAME"), employee.indexViews().stream()
+                    .filter(i -> i.nameIs("NAME_IDX")).findFirst().get().columnNames());
+            assertEquals(Collections.singletonList("EMPLOYEE_ID"), employee.primaryKeyColumnNames());
+
+            MappedMetaDataSnapshot.ColumnView firstName = employee.columnView("FIRST_NAME");
+            assertTrue(firstName.isString());
+            assertFalse(firstName.isNullable());
+            assertEquals(Types.VARCHAR, firstName.getSqlType());
+            assertEquals(100, firstName.getPrecision());
+            assertTrue(employee.columnView("EMPLOYEE_ID").isPrimaryKey());
+            assertTrue(employee.columnView("EMPLOYEE_ID").isAutoIncrement());
+            assertTrue(employee.columnView("MODIFIED_DATE").isTimestamp());
+            assertEquals("DEPARTMENT", employee.columnView("DEPARTMENT_ID").getForeignTableName());
+            assertFalse(firstName.isForeignKey());
+
+            TableMetaData expected = collected.schema("TEST").table("EMPLOYEE");
+            TableMetaData materialized = employee.toMetaData();
+            assertEquals(expected.columnNames(), materialized.columnNames());
+            assertEquals(expected.indexes().toString(), materialized.indexes().toString());
+            assertEquals(expected.column("LAST_NAME"), materialized.column("LAST_NAME"));
+            assertSame(materialized.index("NAME_IDX"), materialized.column("LAST_NAME").index("NAME_IDX"));
+            assertEquals(expected.getPrimaryKey().columns(), materialized.getPrimaryKey().columns());
+            assertEquals(expected.column("POSITION_ID").getForeignKeyMetaData().toString(),
+                    employee.column("POSITION_ID").getForeignKeyMetaData().toString());
+
+            JdbcDatabaseMetaData metaData = snapshot.toMetaData();
+            assertEquals(5, metaData.schemas().stream().mapToInt(SchemaMetaData::tableCount).sum());
+            assertTrue(metaData.schema("PUBLIC").table("EMPLOYEE_SKILL").hasCompositePrimaryKey());
+        }
+    }
+
+    @Test(expected = JdbcMetaDataException.class)
+    public void testInvalidSnapshot() {
+        MappedMetaDataSnapshot.wrap(new byte[]{1, 2, 3});
+    }
+}
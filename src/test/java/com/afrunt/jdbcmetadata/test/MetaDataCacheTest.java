@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import com.afrunt.jdbcmetadata.MetaDataCache;
+import com.afrunt.jdbcmetadata.ProgressMonitor;
+import com.afrunt.jdbcmetadata.TableMetaData;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class MetaDataCacheTest extends BaseTest {
+    @Test
+    public void testEviction() {
+        MetaDataCache<String, String> cache = new MetaDataCache<String, String>()
+                .setMaxEntries(2);
+
+        cache.put("A", "a");
+        cache.put("B", "b");
+        assertEquals("a", cache.get("A"));
+        cache.put("C", "c");
+
+        assertNull(cache.get("B"));
+        assertEquals("a", cache.get("A"));
+        assertEquals("c", cache.get("C"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.setMaxEntries(0)
+                .setWeigher(String::length)
+                .setMaxWeight(5);
+        cache.put("D", "ddd");
+        assertEquals(5, cache.weight());
+        cache.put("E", "ee");
+        assertEquals(2, cache.size());
+        assertNull(cache.get("A"));
+        assertNotNull(cache.get("D"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        MetaDataCache<Integer, String> cache = new MetaDataCache<Integer, String>()
+                .setMaxEntries(50);
+        int threads = 4;
+        int operations = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = IntStream.range(0, threads)
+                    .mapToObj(t -> executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < operations; i++) {
+                            int key = random.nextInt(100);
+                            if (cache.get(key) == null) {
+                                cache.put(key, "value" + key);
+                            }
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 50);
+        assertEquals(cache.size(), cache.weight());
+        assertEquals((long) threads * operations, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getEvictionCount() <= cache.getMissCount() - cache.size());
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        MetaDataCache<String, String> cache = new MetaDataCache<String, String>()
+                .setTtl(Duration.ofMillis(20));
+
+        cache.put("A", "a");
+        cache.put("B", "b");
+        assertEquals("a", cache.get("A"));
+        Thread.sleep(50);
+        assertNull(cache.get("A"));
+        assertEquals(1, cache.cleanUp());
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testInvalidate() throws SQLException {
+        JdbcMetaDataCollector collector = getMetaDataCollector()
+                .setCacheMaxTables(10);
+
+        TableMetaData employee = collector.collectTableMetaData("EMPLOYEE", "TEST");
+        assertSame(employee, collector.collectTableMetaData("EMPLOYEE", "TEST"));
+        assertEquals(1, collector.getTablesMetaDataCache().getHitCount());
+
+        execute("ALTER TABLE TEST.EMPLOYEE ADD COLUMN NICKNAME VARCHAR(50)");
+        assertFalse(collector.collectTableMetaData("EMPLOYEE", "TEST").hasColumn("NICKNAME"));
+
+        collector.invalidate("TEST", "EMPLOYEE");
+        TableMetaData changed = collector.collectTableMetaData("EMPLOYEE", "TEST");
+        assertNotSame(employee, changed);
+        assertTrue(changed.hasColumn("NICKNAME"));
+
+        collector.collectSchemaMetaData("TEST");
+        TableMetaData skill = collector.collectTableMetaData("SKILL");
+        assertEquals(3, collector.getTablesMetaDataCache().size());
+
+        collector.invalidateSchema("TEST");
+        assertEquals(1, collector.getTablesMetaDataCache().size());
+        assertSame(skill, collector.collectTableMetaData("SKILL"));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        AtomicInteger collections = new AtomicInteger();
+        JdbcMetaDataCollector collector = getMetaDataCollector()
+                .setProgressMonitor(new ProgressMonitor() {
+                    @Override
+                    public void tableMetadataCollected(TableMetaData table, long time) {
+                        collections.incrementAndGet();
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<TableMetaData>> tables = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return collector.collectTableMetaData("EMPLOYEE", "TEST");
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+
+            TableMetaData employee = tables.get(0).get();
+            for (Future<TableMetaData> table : tables) {
+                assertSame(employee, table.get());
+            }
+            assertEquals(1, collections.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleFlightWaitersHoldNoConnection() throws Exception {
+        CountDownLatch collecting = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setMaxConnections(8)
+                .setProgressMonitor(new ProgressMonitor() {
+                    @Override
+                    public void tableMetadataCollected(TableMetaData table, long time) {
+                        collecting.countDown();
+                        try {
+                            waiting.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<TableMetaData> owner = executor.submit(() -> collector.collectTableMetaData("EMPLOYEE", "TEST"));
+            collecting.await();
+            int taken = dataSource.taken.get();
+
+            List<Future<TableMetaData>> waiters = IntStream.range(0, 7)
+                    .mapToObj(i -> executor.submit(() -> collector.collectTableMetaData("EMPLOYEE", "TEST")))
+                    .collect(Collectors.toList());
+            Thread.sleep(100);
+            assertEquals(taken, dataSource.taken.get());
+            assertEquals(1, dataSource.open.get());
+
+            waiting.countDown();
+            for (Future<TableMetaData> waiter : waiters) {
+                assertSame(owner.get(), waiter.get());
+            }
+            assertEquals(0, dataSource.open.get());
+        } finally {
+            executor.shutdown();
+            collector.close();
+        }
+    }
+}
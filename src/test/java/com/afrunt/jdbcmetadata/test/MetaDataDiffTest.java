@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import com.afrunt.jdbcmetadata.MetaDataChange.ChangeType;
+import com.afrunt.jdbcmetadata.MetaDataChange.ObjectType;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class MetaDataDiffTest extends BaseTest {
+
+    @Test
+    public void testIdentical() {
+        MetaDataChangeSet changes = new MetaDataDiff().diff(collect(), collect());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void test() throws SQLException {
+        JdbcDatabaseMetaData from = collect();
+        String positionForeignKey = from.schema("TEST").table("EMPLOYEE").column("POSITION_ID").getForeignKeyMetaData().getName();
+
+        execute("ALTER TABLE TEST.DEPARTMENT ADD COLUMN CODE VARCHAR(10)",
+                "ALTER TABLE TEST.EMPLOYEE DROP CONSTRAINT " + positionForeignKey,
+                "DROP INDEX TEST.NAME_IDX",
+                "CREATE TABLE PUBLIC.PROJECT (PROJECT_ID BIGINT PRIMARY KEY)",
+                "ALTER TABLE PUBLIC.SKILL ALTER COLUMN TITLE VARCHAR(200)",
+                "CREATE SEQUENCE TEST.DEPARTMENT_SEQ",
+                "CREATE SCHEMA ARCHIVE");
+
+        JdbcDatabaseMetaData to = collect();
+
+        for (boolean parallel : new boolean[]{true, false}) {
+            MetaDataChangeSet changes = new MetaDataDiff().setParallel(parallel).diff(from, to);
+
+            assertTrue(changes.contains(ObjectType.COLUMN, ChangeType.ADDED, "TEST.DEPARTMENT.CODE"));
+            assertTrue(changes.contains(ObjectType.TABLE, ChangeType.ALTERED, "TEST.DEPARTMENT"));
+            assertTrue(changes.contains(ObjectType.FOREIGN_KEY, ChangeType.REMOVED, "TEST.EMPLOYEE." + positionForeignKey));
+            assertTrue(changes.contains(ObjectType.INDEX, ChangeType.REMOVED, "TEST.EMPLOYEE.NAME_IDX"));
+            assertTrue(changes.contains(ObjectType.TABLE, ChangeType.ADDED, "PUBLIC.PROJECT"));
+            assertTrue(changes.contains(ObjectType.COLUMN, ChangeType.ALTERED, "PUBLIC.SKILL.TITLE"));
+            assertTrue(changes.contains(ObjectType.SEQUENCE, ChangeType.ADDED, "TEST.DEPARTMENT_SEQ"));
+            assertTrue(changes.contains(ObjectType.SCHEMA, ChangeType.ADDED, "ARCHIVE"));
+
+            assertTrue(changes.changes(ObjectType.TABLE, ChangeType.REMOVED).isEmpty());
+            assertFalse(changes.contains(ObjectType.TABLE, ChangeType.ALTERED, "PUBLIC.POSITION"));
+            assertFalse(changes.contains(ObjectType.COLUMN, ChangeType.ALTERED, "TEST.EMPLOYEE.POSITION_ID"));
+
+            MetaDataChange<?> title = changes.changes(ObjectType.COLUMN, ChangeType.ALTERED).stream()
+                    .filter(c -> c.path().equals("PUBLIC.SKILL.TITLE"))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+            assertEquals(100, ((ColumnMetaData) title.getFrom()).getPrecision());
+            assertEquals(200, ((ColumnMetaData) title.getTo()).getPrecision());
+        }
+
+        MetaDataChangeSet reverse = new MetaDataDiff().diff(to, from);
+        assertTrue(reverse.contains(ObjectType.TABLE, ChangeType.REMOVED, "PUBLIC.PROJECT"));
+        assertTrue(reverse.contains(ObjectType.FOREIGN_KEY, ChangeType.ADDED, "TEST.EMPLOYEE." + positionForeignKey));
+        assertTrue(reverse.contains(ObjectType.SCHEMA, ChangeType.REMOVED, "ARCHIVE"));
+    }
+
+    @Test
+    public void testCompositeForeignKey() throws SQLException {
+        execute("CREATE TABLE TEST.PARENT_KEY (A INT, B INT, PRIMARY KEY (A, B))",
+                "CREATE TABLE TEST.CHILD_KEY (A INT, B INT, C INT, CONSTRAINT CHILD_FK FOREIGN KEY (A, B) REFERENCES TEST.PARENT_KEY (A, B))");
+
+        JdbcDatabaseMetaData from = collect();
+        assertEquals(1, from.schema("TEST").table("CHILD_KEY").foreignKeyConstraints().size());
+
+        execute("ALTER TABLE TEST.CHILD_KEY DROP CONSTRAINT CHILD_FK");
+
+        JdbcDatabaseMetaData to = collect();
+
+        MetaDataChangeSet changes = new MetaDataDiff().diff(from, to);
+        assertEquals(1, changes.changes(ObjectType.FOREIGN_KEY).size());
+        assertTrue(changes.contains(ObjectType.FOREIGN_KEY, ChangeType.REMOVED, "TEST.CHILD_KEY.CHILD_FK"));
+        assertTrue(changes.changes(ObjectType.COLUMN).isEmpty());
+
+        MetaDataChangeSet reverse = new MetaDataDiff().diff(to, from);
+        assertEquals(1, reverse.changes(ObjectType.FOREIGN_KEY).size());
+        assertTrue(reverse.contains(ObjectType.FOREIGN_KEY, ChangeType.ADDED, "TEST.CHILD_KEY.CHILD_FK"));
+    }
+
+    @Test
+    public void testPrimaryKeyReportedOnce() throws SQLException {
+        execute("CREATE TABLE TEST.NO_KEY (ID INT NOT NULL, NAME VARCHAR(10))");
+
+        JdbcDatabaseMetaData from = collect();
+
+        execute("ALTER TABLE TEST.NO_KEY ADD PRIMARY KEY (ID)");
+
+        MetaDataChangeSet changes = new MetaDataDiff().diff(from, collect());
+        assertTrue(changes.contains(ObjectType.PRIMARY_KEY, ChangeType.ADDED, "TEST.NO_KEY"));
+        assertTrue(changes.changes(ObjectType.COLUMN).isEmpty());
+    }
+
+    @Override
+    public JdbcMetaDataCollector createMetaDataCollector() {
+        return super.createMetaDataCollector()
+                .setDatabaseStrategy(new H2DatabaseStrategy());
+    }
+}
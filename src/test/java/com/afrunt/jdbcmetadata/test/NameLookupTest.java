@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class NameLookupTest extends BaseTest {
+
+    @Test
+    public void test() {
+        JdbcDatabaseMetaData metaData = getMetaDataCollector()
+                .setDatabaseStrategy(new H2DatabaseStrategy())
+                .collectDatabaseMetaData();
+
+        TableMetaData employee = metaData.table("test", "employee");
+        assertNotNull(employee);
+        assertSame(metaData.schema("TEST").table("EMPLOYEE"), employee);
+        assertSame(employee, metaData.schema("Test").table("Employee"));
+        assertNull(metaData.table("TEST", "POSITION"));
+        assertNull(metaData.table("MISSING", "EMPLOYEE"));
+
+        assertTrue(employee.hasColumn("first_name"));
+        assertEquals("FIRST_NAME", employee.column("First_Name").getName());
+        assertFalse(employee.hasColumn("TITLE"));
+        assertTrue(employee.hasIndex("name_idx"));
+        assertEquals("NAME_IDX", employee.index("NAME_IDX").getName());
+
+        SchemaMetaData schema = metaData.schema("TEST");
+        assertNotNull(schema.sequence("employee_number_seq"));
+        assertTrue(schema.hasTable("department"));
+    }
+
+    @Test
+    public void testInvalidation() {
+        SchemaMetaData schema = new SchemaMetaData().setName("TEST");
+        TableMetaData table = new TableMetaData().setName("FIRST");
+        schema.getTables().add(table);
+        assertSame(table, schema.table("first"));
+
+        TableMetaData second = new TableMetaData().setName("SECOND");
+        schema.getTables().add(second);
+        assertSame(second, schema.table("second"));
+
+        second.setName("RENAMED");
+        assertNull(schema.table("SECOND"));
+        assertSame(second, schema.table("RENAMED"));
+
+        List<TableMetaData> tables = new ArrayList<>();
+        tables.add(new TableMetaData().setName("OTHER"));
+        schema.setTables(tables);
+        assertNull(schema.table("FIRST"));
+        assertTrue(schema.hasTable("OTHER"));
+
+        table.addColumn(new ColumnMetaData().setName("ID"));
+        assertTrue(table.hasColumn("id"));
+        table.getColumns().add(new ColumnMetaData().setName("NAME"));
+        assertTrue(table.hasColumn("NAME"));
+        table.setColumns(null);
+        assertNull(table.column("ID"));
+        assertFalse(table.hasColumn("ID"));
+    }
+
+    @Test
+    public void testIndexInvalidation() {
+        IndexMetaData index = new IndexMetaData().setName("NAME_IDX")
+                .addIndexColumn(new IndexColumnMetadata().setName("NAME").setOrdinalPosition(1));
+        List<IndexMetaData> indexes = new ArrayList<>();
+        indexes.add(index);
+        TableMetaData table = new TableMetaData().setName("PERSON").setIndexes(indexes);
+
+        assertSame(index, table.index("name_idx"));
+        assertEquals(1, table.columnIndexes("NAME").size());
+
+        index.setName("PERSON_NAME_IDX");
+        assertNull(table.index("NAME_IDX"));
+        assertSame(index, table.index("PERSON_NAME_IDX"));
+
+        index.addIndexColumn(new IndexColumnMetadata().setName("SURNAME").setOrdinalPosition(2));
+        assertSame(index, table.columnIndexes("surname").get(0));
+
+        table.freeze();
+        assertSame(index, table.index("PERSON_NAME_IDX"));
+        assertEquals(1, table.columnIndexes("NAME").size());
+    }
+}
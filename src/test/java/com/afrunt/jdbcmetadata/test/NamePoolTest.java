@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class NamePoolTest extends BaseTest {
+    @Test
+    public void testIntern() {
+        NamePool pool = new NamePool();
+        String name = new String("EMPLOYEE");
+        String copy = new String("EMPLOYEE");
+
+        assertSame(name, pool.intern(name));
+        assertSame(name, pool.intern(copy));
+        assertSame(name, pool.intern(name));
+        assertNull(pool.intern(null));
+
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getHits());
+        // Latin-1 names take a byte per character with the compact strings of Java 9+
+        boolean compactStrings = !System.getProperty("java.specification.version").startsWith("1.");
+        assertEquals(compactStrings ? 48 : 56, pool.getBytesSaved());
+
+        pool.intern(new String("\u0417\u0410\u041f\u0418\u0421"));
+        pool.intern(new String("\u0417\u0410\u041f\u0418\u0421"));
+        assertEquals(compactStrings ? 104 : 112, pool.getBytesSaved());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getBytesSaved());
+    }
+
+    @Test
+    public void testCollectedNames() {
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource());
+        JdbcDatabaseMetaData metaData = collector.collectDatabaseMetaData(s -> !"INFORMATION_SCHEMA".equals(s));
+        long fingerprint = metaData.fingerprint();
+
+        TableMetaData employee = metaData.table("TEST", "EMPLOYEE");
+        TableMetaData department = metaData.table("TEST", "DEPARTMENT");
+        ColumnMetaData departmentId = employee.column("DEPARTMENT_ID");
+
+        employee.columns().forEach(c -> assertSame(employee.getName(), c.getTableName()));
+        assertSame(department.getName(), departmentId.getForeignKeyMetaData().getForeignTableName());
+        assertSame(employee.getSchemaName(), departmentId.getForeignKeyMetaData().getForeignTableSchema());
+        assertSame(metaData.schema("TEST").getName(), employee.getSchemaName());
+        assertSame(department.column("DEPARTMENT_ID").getName(), departmentId.getName());
+        assertSame(employee.column("FIRST_NAME").getSqlTypeName(), employee.column("LAST_NAME").getSqlTypeName());
+        assertSame(employee.column("LAST_NAME").getName(), employee.index("NAME_IDX").getIndexColumns().get(0).getName());
+
+        assertTrue(collector.getNamePool().getBytesSaved() > 0);
+        assertEquals(fingerprint, metaData.fingerprint());
+    }
+
+    @Test
+    public void testSharedPool() {
+        NamePool pool = new NamePool();
+        JdbcMetaDataCollector first = new JdbcMetaDataCollector().setDataSource(getDataSource()).setNamePool(pool);
+        JdbcMetaDataCollector second = new JdbcMetaDataCollector().setDataSource(getDataSource()).setNamePool(pool);
+
+        TableMetaData employee = first.collectTableMetaData("EMPLOYEE", "TEST");
+        int size = pool.size();
+        TableMetaData copy = second.collectTableMetaData("EMPLOYEE", "TEST");
+
+        assertNotSame(employee, copy);
+        assertSame(employee.getName(), copy.getName());
+        assertSame(employee.column("FIRST_NAME").getName(), copy.column("FIRST_NAME").getName());
+        assertEquals(size, pool.size());
+    }
+
+    @Test
+    public void testWithoutPool() {
+        JdbcMetaDataCollector collector = new JdbcMetaDataCollector().setDataSource(getDataSource()).setNamePool(null);
+        assertTrue(collector.collectTableMetaData("EMPLOYEE", "TEST").hasColumn("FIRST_NAME"));
+        assertNull(collector.getNamePool());
+    }
+}
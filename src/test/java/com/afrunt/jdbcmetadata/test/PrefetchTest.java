@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import com.afrunt.jdbcmetadata.ProgressMonitor;
+import com.afrunt.jdbcmetadata.TableMetaData;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class PrefetchTest extends BaseTest {
+    private final Map<String, AtomicInteger> collected = new ConcurrentHashMap<>();
+
+    @Test
+    public void testPrefetchParents() throws InterruptedException {
+        JdbcMetaDataCollector collector = collector()
+                .setMaxConnections(1)
+                .setPrefetchDepth(1);
+
+        collector.collectTableMetaData("EMPLOYEE", "TEST");
+        awaitCollected("TEST.DEPARTMENT", "PUBLIC.POSITION");
+
+        collector.collectTableMetaData("DEPARTMENT", "TEST");
+        collector.collectTableMetaData("POSITION", "PUBLIC");
+        assertEquals(1, collected.get("TEST.DEPARTMENT").get());
+        assertEquals(1, collected.get("PUBLIC.POSITION").get());
+        assertFalse(collected.containsKey("PUBLIC.EMPLOYEE_SKILL"));
+    }
+
+    @Test
+    public void testPrefetchChildren() throws InterruptedException {
+        JdbcMetaDataCollector collector = collector()
+                .setPrefetchDepth(2)
+                .setPrefetchChildTables(true);
+
+        collector.collectTableMetaData("SKILL", "PUBLIC");
+        awaitCollected("PUBLIC.EMPLOYEE_SKILL", "TEST.EMPLOYEE");
+
+        TableMetaData employee = collector.collectTableMetaData("EMPLOYEE", "TEST");
+        assertTrue(employee.hasColumn("DEPARTMENT_ID"));
+        assertEquals(1, collected.get("TEST.EMPLOYEE").get());
+        assertEquals(1, collected.get("PUBLIC.SKILL").get());
+    }
+
+    @Test
+    public void testChildTablesLookedUpOnce() throws InterruptedException {
+        AtomicInteger lookups = new AtomicInteger();
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        dataSource.metaData = metaData -> onExportedKeys(metaData, lookups::incrementAndGet);
+        JdbcMetaDataCollector collector = collector(dataSource)
+                .setPrefetchDepth(1)
+                .setPrefetchChildTables(true);
+
+        collector.collectTableMetaData("SKILL", "PUBLIC");
+        awaitCollected("PUBLIC.EMPLOYEE_SKILL");
+        collector.collectTableMetaData("SKILL", "PUBLIC");
+
+        // the single worker takes the requests in order, so a repeated lookup would run before these tables
+        collector.setPrefetchChildTables(false);
+        collector.collectTableMetaData("EMPLOYEE", "TEST");
+        awaitCollected("TEST.DEPARTMENT", "PUBLIC.POSITION");
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testCallerNotDelayedByPrefetch() throws Exception {
+        CountDownLatch prefetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        dataSource.metaData = metaData -> onExportedKeys(metaData, () -> {
+            prefetching.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        });
+        JdbcMetaDataCollector collector = collector(dataSource)
+                .setParallelism(1)
+                .setPrefetchDepth(1)
+                .setPrefetchChildTables(true);
+
+        try {
+            collector.collectTableMetaData("SKILL", "PUBLIC");
+            assertTrue(prefetching.await(10, TimeUnit.SECONDS));
+
+            TableMetaData department = collector.collectTableMetaDataAsync("DEPARTMENT", "TEST")
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(department.hasColumn("NAME"));
+        } finally {
+            release.countDown();
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() throws InterruptedException {
+        JdbcMetaDataCollector collector = collector();
+        collector.collectTableMetaData("EMPLOYEE", "TEST");
+
+        // the parents of the first table would be prefetched before the table queued after enabling
+        collector.setPrefetchDepth(1);
+        collector.collectTableMetaData("EMPLOYEE_SKILL", "PUBLIC");
+        awaitCollected("PUBLIC.SKILL");
+        assertEquals(new HashSet<>(Arrays.asList("TEST.EMPLOYEE", "PUBLIC.EMPLOYEE_SKILL", "PUBLIC.SKILL")), collected.keySet());
+    }
+
+    private JdbcMetaDataCollector collector() {
+        return collector(getDataSource());
+    }
+
+    private JdbcMetaDataCollector collector(DataSource dataSource) {
+        return new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setParallelism(2)
+                .setProgressMonitor(new ProgressMonitor() {
+                    @Override
+                    public void tableMetadataCollected(TableMetaData table, long time) {
+                        collected.computeIfAbsent(table.fullName(), t -> new AtomicInteger()).incrementAndGet();
+                    }
+                });
+    }
+
+    private DatabaseMetaData onExportedKeys(DatabaseMetaData metaData, Lookup lookup) {
+        return (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DatabaseMetaData.class},
+                (proxy, method, args) -> {
+                    if ("getExportedKeys".equals(method.getName())) {
+                        lookup.run();
+                    }
+                    try {
+                        return method.invoke(metaData, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void awaitCollected(String... tables) throws InterruptedException {
+        Collection<String> expected = Arrays.asList(tables);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!collected.keySet().containsAll(expected)) {
+            assertTrue("Tables " + expected + " are not prefetched", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Lookup {
+        void run() throws Exception;
+    }
+}
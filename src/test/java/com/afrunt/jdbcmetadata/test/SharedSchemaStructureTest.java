@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class SharedSchemaStructureTest extends BaseTest {
+    private static final Predicate<String> TENANTS = s -> s.startsWith("TENANT");
+
+    @Before
+    public void createTenants() throws SQLException {
+        for (String tenant : new String[]{"TENANT1", "TENANT2", "TENANT3"}) {
+            String extra = "TENANT3".equals(tenant) ? ", NOTES VARCHAR(100)" : "";
+            execute("CREATE SCHEMA " + tenant);
+            execute("CREATE TABLE " + tenant + ".ACCOUNT (ID BIGINT PRIMARY KEY, NAME VARCHAR(100)" + extra + ")");
+            execute("CREATE TABLE " + tenant + ".BILL (ID BIGINT PRIMARY KEY, ACCOUNT_ID BIGINT, "
+                    + "FOREIGN KEY (ACCOUNT_ID) REFERENCES " + tenant + ".ACCOUNT(ID))");
+            execute("CREATE TABLE " + tenant + ".CONTACT (ID BIGINT PRIMARY KEY, EMAIL VARCHAR(100))");
+            execute("CREATE INDEX " + tenant + ".EMAIL_IDX ON " + tenant + ".CONTACT(EMAIL)");
+            execute("CREATE TABLE " + tenant + ".DOCUMENT (ID BIGINT PRIMARY KEY, TITLE VARCHAR(100))");
+        }
+    }
+
+    @Test
+    public void testSharedStructures() {
+        JdbcDatabaseMetaData expected = collectTenants(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource()));
+
+        JdbcDatabaseMetaData metaData = collectTenants(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource())
+                .setParallelism(4)
+                .setShareSchemaStructures(true)
+                .setTemplateSampleSize(2));
+
+        assertEquals(expected.fingerprint(), metaData.fingerprint());
+        for (SchemaMetaData schema : expected.schemas()) {
+            assertEquals(schema.fingerprint(), metaData.schema(schema.getName()).fingerprint());
+        }
+
+        TableMetaData contact1 = metaData.table("TENANT1", "CONTACT");
+        TableMetaData contact2 = metaData.table("TENANT2", "CONTACT");
+        assertTrue(contact1.isFrozen());
+        assertEquals("TENANT2", contact2.getSchemaName());
+        assertSame(contact1.column("EMAIL"), contact2.column("EMAIL"));
+        assertSame(contact1.index("EMAIL_IDX"), contact2.index("EMAIL_IDX"));
+        assertSame(contact1.getPrimaryKey(), contact2.getPrimaryKey());
+
+        contact2.addColumn(new ColumnMetaData().setName("PHONE"));
+        assertTrue(contact2.hasColumn("PHONE"));
+        assertFalse(contact1.hasColumn("PHONE"));
+        assertFalse(metaData.table("TENANT3", "CONTACT").hasColumn("PHONE"));
+
+        TableMetaData bill1 = metaData.table("TENANT1", "BILL");
+        TableMetaData bill2 = metaData.table("TENANT2", "BILL");
+        assertSame(bill1.column("ID"), bill2.column("ID"));
+        assertNotSame(bill1.column("ACCOUNT_ID"), bill2.column("ACCOUNT_ID"));
+        assertEquals("TENANT1", bill1.column("ACCOUNT_ID").getForeignKeyMetaData().getForeignTableSchema());
+        assertEquals("TENANT2", bill2.column("ACCOUNT_ID").getForeignKeyMetaData().getForeignTableSchema());
+        assertEquals(1, metaData.foreignKeyGraph().parents(bill2).size());
+        assertSame(metaData.table("TENANT2", "ACCOUNT"), metaData.foreignKeyGraph().parents(bill2).get(0));
+
+        TableMetaData contact3 = metaData.table("TENANT3", "CONTACT");
+        assertNotSame(contact1.column("EMAIL"), contact3.column("EMAIL"));
+        assertTrue(metaData.table("TENANT3", "ACCOUNT").hasColumn("NOTES"));
+        assertFalse(contact3.isFrozen());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        JdbcDatabaseMetaData metaData = collectTenants(new JdbcMetaDataCollector()
+                .setDataSource(getDataSource()));
+
+        assertNotSame(metaData.table("TENANT1", "CONTACT").column("EMAIL"), metaData.table("TENANT2", "CONTACT").column("EMAIL"));
+        assertFalse(metaData.table("TENANT1", "CONTACT").isFrozen());
+    }
+
+    private JdbcDatabaseMetaData collectTenants(JdbcMetaDataCollector collector) {
+        try (JdbcMetaDataCollector c = collector) {
+            return c.collectDatabaseMetaData(TENANTS);
+        }
+    }
+}
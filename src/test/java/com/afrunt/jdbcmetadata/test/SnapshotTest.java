@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class SnapshotTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        JdbcDatabaseMetaData collected = getMetaDataCollector()
+                .setDatabaseStrategy(new H2DatabaseStrategy())
+                .collectDatabaseMetaData();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaDataSnapshot.write(collected, out);
+        MetaDataSnapshot snapshot = MetaDataSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(MetaDataSnapshot.VERSION, snapshot.getVersion());
+        assertTrue(snapshot.getCreatedAt() <= System.currentTimeMillis());
+        assertSameMetaData(collected, snapshot.getMetaData());
+
+        TableMetaData employee = snapshot.getMetaData().schema("TEST").table("EMPLOYEE");
+        assertSame(employee.index("NAME_IDX"), employee.column("FIRST_NAME").index("NAME_IDX"));
+        assertSame(employee.column("ID"), employee.getPrimaryKey().column("ID"));
+        assertEquals(Integer.valueOf(10), snapshot.getMetaData().schema("TEST").sequence("EMPLOYEE_NUMBER_SEQ").getIncrementBy());
+    }
+
+    @Test
+    public void testCorrupted() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaDataSnapshot.write(getMetaDataCollector().collectDatabaseMetaData(), out);
+        byte[] bytes = out.toByteArray();
+
+        for (int i = 0; i < bytes.length; i++) {
+            for (byte corrupted : new byte[]{(byte) 0xFF, 0x7F, 0}) {
+                byte[] damaged = bytes.clone();
+                damaged[i] = corrupted;
+                try {
+                    MetaDataSnapshot.read(new ByteArrayInputStream(damaged));
+                } catch (JdbcMetaDataException e) {
+                    // expected for the most of the positions
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLoadOrCollect() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("snapshots/metadata.bin");
+        AtomicInteger collections = new AtomicInteger();
+        JdbcMetaDataCollector collector = getMetaDataCollector()
+                .setProgressMonitor(new ProgressMonitor() {
+                    @Override
+                    public void databaseMetadataCollected(JdbcDatabaseMetaData databaseMetaData, long time) {
+                        collections.incrementAndGet();
+                    }
+                });
+
+        JdbcDatabaseMetaData collected = collector.loadOrCollect(path, SCHEMAS);
+        assertTrue(Files.exists(path));
+        assertEquals(1, collections.get());
+
+        JdbcDatabaseMetaData loaded = collector.loadOrCollect(path);
+        assertEquals(1, collections.get());
+        assertSameMetaData(collected, loaded);
+
+        Thread.sleep(20);
+        collector.setSnapshotMaxAge(Duration.ofMillis(10)).loadOrCollect(path);
+        assertEquals(2, collections.get());
+
+        Files.write(path, new byte[]{1, 2, 3});
+        collector.setSnapshotMaxAge(null).loadOrCollect(path);
+        assertEquals(3, collections.get());
+    }
+
+    private void assertSameMetaData(JdbcDatabaseMetaData expected, JdbcDatabaseMetaData actual) {
+        assertEquals(expected.getDatabaseProductName(), actual.getDatabaseProductName());
+        assertEquals(expected.schemas().size(), actual.schemas().size());
+        for (SchemaMetaData schema : expected.schemas()) {
+            SchemaMetaData actualSchema = actual.schema(schema.getName());
+            assertEquals(schema.tableCount(), actualSchema.tableCount());
+            assertEquals(schema.sequences().stream().map(SequenceMetaData::getFullName).collect(Collectors.toList()),
+                    actualSchema.sequences().stream().map(SequenceMetaData::getFullName).collect(Collectors.toList()));
+
+            for (TableMetaData table : schema.tables()) {
+                TableMetaData actualTable = actualSchema.table(table.getName());
+                assertEquals(table.fullName(), actualTable.fullName());
+                assertEquals(table.columnNames(), actualTable.columnNames());
+                assertEquals(table.indexes().toString(), actualTable.indexes().toString());
+                assertEquals(table.hasPrimaryKey(), actualTable.hasPrimaryKey());
+                if (table.hasPrimaryKey()) {
+                    assertEquals(table.getPrimaryKey().columns().toString(), actualTable.getPrimaryKey().columns().toString());
+                }
+
+                for (ColumnMetaData column : table.columns()) {
+                    ColumnMetaData actualColumn = actualTable.column(column.getName());
+                    assertEquals(String.valueOf(column.getForeignKeyMetaData()), String.valueOf(actualColumn.getForeignKeyMetaData()));
+                    if (!column.isForeignKey()) {
+                        assertEquals(column, actualColumn);
+                    }
+                    assertEquals(column.isReadOnly(), actualColumn.isReadOnly());
+                    assertEquals(column.isWritable(), actualColumn.isWritable());
+                    assertEquals(column.getOrdinalPosition(), actualColumn.getOrdinalPosition());
+                    assertEquals(column.getDefaultValue(), actualColumn.getDefaultValue());
+                    assertEquals(String.valueOf(column.getIndexes()), String.valueOf(actualColumn.getIndexes()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.afrunt.jdbcmetadata.test;
+
+import com.afrunt.jdbcmetadata.JdbcMetaDataCollector;
+import com.afrunt.jdbcmetadata.JdbcMetaDataException;
+import com.afrunt.jdbcmetadata.TableMetaData;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andrii Frunt
+ */
+public class StreamingCollectionTest extends BaseTest {
+    @Test
+    public void test() {
+        JdbcMetaDataCollector collector = getMetaDataCollector().setStreamBufferSize(1);
+
+        List<String> tables = collector.streamTablesMetaData("TEST")
+                .map(TableMetaData::fullName)
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("TEST.DEPARTMENT", "TEST.EMPLOYEE"), tables);
+
+        try (Stream<TableMetaData> stream = collector.streamTablesMetaData(SCHEMAS)) {
+            assertEquals(5, stream.filter(TableMetaData::hasPrimaryKey).count());
+        }
+
+        try (Stream<TableMetaData> stream = collector.streamTablesMetaData("PUBLIC")) {
+            assertTrue(stream.findFirst().isPresent());
+        }
+
+        assertEquals(0, collector.streamTablesMetaData("UNKNOWN").count());
+    }
+
+    @Test
+    public void testCountTraversesTables() throws InterruptedException {
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setParallelism(2)
+                .setStreamBufferSize(1)) {
+            assertNull(collector.getStreamTimeout());
+
+            assertEquals(5, collector.streamTablesMetaData(SCHEMAS).count());
+            awaitConnectionsReleased(dataSource);
+        }
+    }
+
+    @Test
+    public void testAbandonedStream() throws InterruptedException {
+        CountingDataSource dataSource = new CountingDataSource(getDataSource());
+        try (JdbcMetaDataCollector collector = new JdbcMetaDataCollector()
+                .setDataSource(dataSource)
+                .setParallelism(2)
+                .setStreamBufferSize(1)
+                .setStreamTimeout(Duration.ofMillis(200))) {
+            Iterator<TableMetaData> tables = collector.streamTablesMetaData(SCHEMAS).iterator();
+            assertNotNull(tables.next());
+
+            awaitConnectionsReleased(dataSource);
+
+            try {
+                while (tables.hasNext()) {
+                    tables.next();
+                }
+                fail("Stream of the cancelled collection must fail");
+            } catch (JdbcMetaDataException e) {
+                assertTrue(e.getMessage().contains("not consumed"));
+            }
+        }
+    }
+
+    private void awaitConnectionsReleased(CountingDataSource dataSource) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dataSource.open.get() > 0) {
+            assertTrue("Workers still hold the connections", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
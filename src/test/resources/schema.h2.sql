@@ -41,6 +41,4 @@ CREATE TABLE EMPLOYEE_SKILL (
   PRIMARY KEY (EMPLOYEE_ID, SKILL_ID)
 );
 
-
-
-
+CREATE SEQUENCE TEST.EMPLOYEE_NUMBER_SEQ INCREMENT BY 10;